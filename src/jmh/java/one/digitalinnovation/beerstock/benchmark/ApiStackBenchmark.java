@@ -0,0 +1,101 @@
+package one.digitalinnovation.beerstock.benchmark;
+
+import one.digitalinnovation.beerstock.BeerstockApplication;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.springframework.boot.SpringApplication;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Load test of the HTTP API over a real server: the servlet stack (Tomcat, JPA) and
+ * the {@code reactive} profile (Netty, R2DBC) answer the same requests. Each JMH
+ * thread is one concurrent client, so run it with high thread counts, e.g.
+ * {@code -Djmh.threads=16,64,256 -Djmh.include=ApiStackBenchmark}.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class ApiStackBenchmark {
+
+    private static final int CATALOG_SIZE = 100;
+
+    @State(Scope.Benchmark)
+    public static class ApiState {
+
+        @Param({"servlet", "reactive"})
+        public String stack;
+
+        ConfigurableApplicationContext context;
+        HttpClient httpClient;
+        String baseUrl;
+        long[] ids;
+
+        @Setup
+        public void setUp() throws Exception {
+            String database = "api-benchmark-" + System.nanoTime();
+            context = new SpringApplication(BeerstockApplication.class).run(
+                    "--spring.profiles.active=" + ("reactive".equals(stack) ? "reactive" : "default"),
+                    "--server.port=0",
+                    "--spring.datasource.url=jdbc:h2:mem:" + database + ";DB_CLOSE_DELAY=-1;DB_CLOSE_ON_EXIT=FALSE",
+                    "--spring.r2dbc.url=r2dbc:h2:mem:///" + database + "?options=DB_CLOSE_DELAY=-1;DB_CLOSE_ON_EXIT=FALSE",
+                    "--logging.level.root=WARN");
+            baseUrl = "http://localhost:" + context.getEnvironment().getProperty("local.server.port") + "/api/v1/beers";
+            httpClient = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+
+            ids = new long[CATALOG_SIZE];
+            for (int i = 0; i < CATALOG_SIZE; i++) {
+                String created = send(HttpRequest.newBuilder(URI.create(baseUrl))
+                        .POST(HttpRequest.BodyPublishers.ofString("{\"name\":\"Load Test Beer " + i + "\",\"brand\":\"Brand\","
+                                + "\"max\":500,\"min\":0,\"quantity\":100,\"type\":\"LAGER\"}")));
+                ids[i] = Long.parseLong(created.replaceAll(".*\"id\":(\\d+).*", "$1"));
+            }
+        }
+
+        @TearDown
+        public void tearDown() {
+            context.close();
+        }
+
+        String send(HttpRequest.Builder request) throws IOException, InterruptedException {
+            HttpResponse<String> response = httpClient.send(request.header("Content-Type", "application/json").build(),
+                    HttpResponse.BodyHandlers.ofString());
+            if (response.statusCode() >= 300) {
+                throw new IllegalStateException(response.statusCode() + " " + response.body());
+            }
+            return response.body();
+        }
+    }
+
+    @Benchmark
+    public String findByName(ApiState api) throws Exception {
+        int index = ThreadLocalRandom.current().nextInt(CATALOG_SIZE);
+        return api.send(HttpRequest.newBuilder(URI.create(api.baseUrl + "/Load%20Test%20Beer%20" + index)).GET());
+    }
+
+    /**
+     * One increment and one decrement of the same beer, so the stock stays within
+     * its limits for the whole run.
+     */
+    @Benchmark
+    public String incrementThenDecrement(ApiState api) throws Exception {
+        String url = api.baseUrl + "/" + api.ids[ThreadLocalRandom.current().nextInt(CATALOG_SIZE)];
+        api.send(HttpRequest.newBuilder(URI.create(url + "/increment"))
+                .method("PATCH", HttpRequest.BodyPublishers.ofString("{\"quantity\":1}")));
+        return api.send(HttpRequest.newBuilder(URI.create(url + "/decrement"))
+                .method("PATCH", HttpRequest.BodyPublishers.ofString("{\"quantity\":1}")));
+    }
+}
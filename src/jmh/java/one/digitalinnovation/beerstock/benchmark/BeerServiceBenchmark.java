@@ -0,0 +1,44 @@
+package one.digitalinnovation.beerstock.benchmark;
+
+import one.digitalinnovation.beerstock.dto.BeerDTO;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class BeerServiceBenchmark {
+
+    @Benchmark
+    public BeerDTO increment(CatalogState catalog) throws Exception {
+        return catalog.beerService.increment(randomId(catalog), 1);
+    }
+
+    @Benchmark
+    public BeerDTO decrement(CatalogState catalog) throws Exception {
+        return catalog.beerService.decrement(randomId(catalog), 1);
+    }
+
+    @Benchmark
+    public BeerDTO findByName(CatalogState catalog) throws Exception {
+        return catalog.beerService.findByName(catalog.names[ThreadLocalRandom.current().nextInt(catalog.names.length)]);
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MINUTES)
+    public List<BeerDTO> listAll(CatalogState catalog) {
+        return catalog.beerService.listAll();
+    }
+
+    private static long randomId(CatalogState catalog) {
+        return catalog.ids[ThreadLocalRandom.current().nextInt(catalog.ids.length)];
+    }
+}
@@ -0,0 +1,69 @@
+package one.digitalinnovation.beerstock.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import one.digitalinnovation.beerstock.dto.BeerDTO;
+import one.digitalinnovation.beerstock.dto.QuantityDTO;
+import one.digitalinnovation.beerstock.enums.BeerType;
+import one.digitalinnovation.beerstock.mapper.BeerBinaryCodec;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-request serialization cost of a stock adjustment: reading the {@link QuantityDTO}
+ * and writing the {@link BeerDTO} back, with Jackson and with {@link BeerBinaryCodec}.
+ * For the beer below the payloads are 86 bytes of JSON against 37 binary bytes, and
+ * 15 against 5 for the quantity.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class BinaryProtocolBenchmark {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final BeerDTO beer = new BeerDTO(1L, "Brahma", "Ambev", 50, 0, 10, BeerType.LAGER);
+    private byte[] quantityJson;
+    private byte[] quantityBinary;
+
+    @Setup
+    public void setUp() throws IOException {
+        QuantityDTO quantity = new QuantityDTO(10);
+        quantityJson = objectMapper.writeValueAsBytes(quantity);
+        ByteArrayOutputStream binary = new ByteArrayOutputStream();
+        BeerBinaryCodec.writeQuantity(quantity, new DataOutputStream(binary));
+        quantityBinary = binary.toByteArray();
+    }
+
+    @Benchmark
+    public byte[] writeBeerJson() throws IOException {
+        return objectMapper.writeValueAsBytes(beer);
+    }
+
+    @Benchmark
+    public byte[] writeBeerBinary() throws IOException {
+        ByteArrayOutputStream binary = new ByteArrayOutputStream(64);
+        BeerBinaryCodec.writeBeer(beer, new DataOutputStream(binary));
+        return binary.toByteArray();
+    }
+
+    @Benchmark
+    public QuantityDTO readQuantityJson() throws IOException {
+        return objectMapper.readValue(quantityJson, QuantityDTO.class);
+    }
+
+    @Benchmark
+    public QuantityDTO readQuantityBinary() throws IOException {
+        return BeerBinaryCodec.readQuantity(new DataInputStream(new ByteArrayInputStream(quantityBinary)));
+    }
+}
@@ -0,0 +1,52 @@
+package one.digitalinnovation.beerstock.benchmark;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import one.digitalinnovation.beerstock.mapper.BeerJsonWriter;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Serializes the whole catalog the way {@code GET /api/v1/beers} rebuilds its snapshot:
+ * through entities and a {@code BeerDTO} list, or row by row into the JSON generator.
+ * Compare {@code gc.alloc.rate.norm} (bytes per operation) between the two.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MINUTES)
+public class CatalogJsonBenchmark {
+
+    private ObjectMapper objectMapper;
+    private int lastSize = 8192;
+
+    @Setup
+    public void setUp(CatalogState catalog) {
+        objectMapper = catalog.context.getBean(ObjectMapper.class);
+    }
+
+    @Benchmark
+    public byte[] dtoList(CatalogState catalog) throws IOException {
+        return objectMapper.writeValueAsBytes(catalog.beerService.listAll());
+    }
+
+    @Benchmark
+    public byte[] rowStream(CatalogState catalog) throws IOException {
+        ByteArrayOutputStream json = new ByteArrayOutputStream(lastSize + lastSize / 8);
+        try (JsonGenerator generator = objectMapper.getFactory().createGenerator(json)) {
+            generator.writeStartArray();
+            catalog.beerService.exportAll(new BeerJsonWriter(generator));
+            generator.writeEndArray();
+        }
+        lastSize = json.size();
+        return json.toByteArray();
+    }
+}
@@ -0,0 +1,77 @@
+package one.digitalinnovation.beerstock.benchmark;
+
+import one.digitalinnovation.beerstock.BeerstockApplication;
+import one.digitalinnovation.beerstock.dto.BeerDTO;
+import one.digitalinnovation.beerstock.enums.BeerType;
+import one.digitalinnovation.beerstock.service.BeerService;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Boots the application without a web server against a fresh embedded H2 database
+ * and seeds it with {@code catalogSize} beers that have room to be incremented and
+ * decremented for the whole run.
+ */
+@State(Scope.Benchmark)
+public class CatalogState {
+
+    private static final int SEED_CHUNK_SIZE = 1000;
+    private static final int INITIAL_QUANTITY = 500_000_000;
+
+    @Param({"1000", "10000", "100000"})
+    public int catalogSize;
+
+    ConfigurableApplicationContext context;
+    BeerService beerService;
+    long[] ids;
+    String[] names;
+
+    @Setup
+    public void setUp() throws Exception {
+        SpringApplication application = new SpringApplication(BeerstockApplication.class);
+        application.setWebApplicationType(WebApplicationType.NONE);
+        context = application.run(
+                "--spring.datasource.url=jdbc:h2:mem:benchmark-" + System.nanoTime() + ";DB_CLOSE_DELAY=-1;DB_CLOSE_ON_EXIT=FALSE",
+                "--logging.level.root=WARN");
+        beerService = context.getBean(BeerService.class);
+
+        ids = new long[catalogSize];
+        names = new String[catalogSize];
+        for (int offset = 0; offset < catalogSize; offset += SEED_CHUNK_SIZE) {
+            List<BeerDTO> chunk = new ArrayList<>(SEED_CHUNK_SIZE);
+            for (int i = offset; i < Math.min(offset + SEED_CHUNK_SIZE, catalogSize); i++) {
+                chunk.add(newBeer(i));
+            }
+            List<BeerDTO> created = beerService.createBeers(chunk);
+            for (int i = 0; i < created.size(); i++) {
+                ids[offset + i] = created.get(i).getId();
+                names[offset + i] = created.get(i).getName();
+            }
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    private static BeerDTO newBeer(int index) {
+        return BeerDTO.builder()
+                .name("Benchmark Beer " + index)
+                .brand("Brand " + (index % 100))
+                .min(0)
+                .max(Integer.MAX_VALUE)
+                .quantity(INITIAL_QUANTITY)
+                .type(BeerType.values()[index % BeerType.values().length])
+                .build();
+    }
+}
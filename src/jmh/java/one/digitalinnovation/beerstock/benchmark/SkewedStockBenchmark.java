@@ -0,0 +1,84 @@
+package one.digitalinnovation.beerstock.benchmark;
+
+import one.digitalinnovation.beerstock.BeerstockApplication;
+import one.digitalinnovation.beerstock.dto.BeerDTO;
+import one.digitalinnovation.beerstock.enums.BeerType;
+import one.digitalinnovation.beerstock.service.BeerService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Increments on a skewed workload, where {@code hotShare} percent of the calls go to
+ * ten popular beers out of a catalog of 1,000, with the default stock engine (one
+ * transaction per adjustment) and with the {@code ShardedStockEngine}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class SkewedStockBenchmark {
+
+    private static final int CATALOG_SIZE = 1_000;
+    private static final int HOT_BEERS = 10;
+
+    @Param({"false", "true"})
+    public boolean sharded;
+
+    @Param({"80"})
+    public int hotShare;
+
+    private ConfigurableApplicationContext context;
+    private BeerService beerService;
+    private long[] ids;
+
+    @Setup
+    public void setUp() throws Exception {
+        SpringApplication application = new SpringApplication(BeerstockApplication.class);
+        application.setWebApplicationType(WebApplicationType.NONE);
+        context = application.run(
+                "--spring.datasource.url=jdbc:h2:mem:skewed-" + System.nanoTime() + ";DB_CLOSE_DELAY=-1;DB_CLOSE_ON_EXIT=FALSE",
+                "--beerstock.stock-engine.sharded=" + sharded,
+                "--beerstock.warm-up.enabled=false",
+                "--logging.level.root=WARN");
+        beerService = context.getBean(BeerService.class);
+
+        List<BeerDTO> beers = new ArrayList<>(CATALOG_SIZE);
+        for (int i = 0; i < CATALOG_SIZE; i++) {
+            beers.add(BeerDTO.builder()
+                    .name("Skewed Beer " + i)
+                    .brand("Brand " + (i % 100))
+                    .min(0)
+                    .max(Integer.MAX_VALUE)
+                    .quantity(0)
+                    .type(BeerType.values()[i % BeerType.values().length])
+                    .build());
+        }
+        ids = beerService.createBeers(beers).stream().mapToLong(BeerDTO::getId).toArray();
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public BeerDTO increment() throws Exception {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        int index = random.nextInt(100) < hotShare ? random.nextInt(HOT_BEERS) : random.nextInt(CATALOG_SIZE);
+        return beerService.increment(ids[index], 1);
+    }
+}
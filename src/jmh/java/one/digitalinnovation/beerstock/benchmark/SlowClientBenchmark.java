@@ -0,0 +1,115 @@
+package one.digitalinnovation.beerstock.benchmark;
+
+import one.digitalinnovation.beerstock.BeerstockApplication;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.springframework.boot.SpringApplication;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Serves waves of {@code clients} concurrent slow clients: each one sends half of
+ * its request body, pauses for {@code pauseMillis} and only then sends the rest, so
+ * the servlet thread reading the body stays blocked for the pause. With Tomcat's
+ * 200 platform threads a wave queues up behind the pool; on virtual threads the
+ * whole wave is served at once. Score is the time to serve one wave.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class SlowClientBenchmark {
+
+    private static final int CATALOG_SIZE = 100;
+
+    @Param({"false", "true"})
+    public boolean virtualThreads;
+
+    @Param({"1000", "4000"})
+    public int clients;
+
+    @Param("100")
+    public int pauseMillis;
+
+    private ConfigurableApplicationContext context;
+    private int port;
+    private ExecutorService clientExecutor;
+
+    @Setup
+    public void setUp() throws Exception {
+        context = new SpringApplication(BeerstockApplication.class).run(
+                "--beerstock.virtual-threads.enabled=" + virtualThreads,
+                "--server.port=0",
+                "--server.tomcat.accept-count=" + clients,
+                "--server.tomcat.max-connections=" + (clients * 2),
+                "--spring.datasource.url=jdbc:h2:mem:slow-client-benchmark-" + System.nanoTime() + ";DB_CLOSE_DELAY=-1;DB_CLOSE_ON_EXIT=FALSE",
+                "--logging.level.root=WARN");
+        port = Integer.parseInt(context.getEnvironment().getProperty("local.server.port"));
+        clientExecutor = Executors.newVirtualThreadPerTaskExecutor();
+        for (int i = 0; i < CATALOG_SIZE; i++) {
+            send("POST", "/api/v1/beers", "{\"name\":\"Slow Client Beer " + i + "\",\"brand\":\"Brand\","
+                    + "\"max\":500,\"min\":0,\"quantity\":100,\"type\":\"LAGER\"}", 0);
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        clientExecutor.close();
+        context.close();
+    }
+
+    /**
+     * Half of each wave increments and half decrements, spread over the catalog, so
+     * the stock of every beer ends the wave where it started.
+     */
+    @Benchmark
+    public int wave() throws Exception {
+        List<Future<Integer>> responses = new ArrayList<>(clients);
+        for (int i = 0; i < clients; i++) {
+            long id = i % CATALOG_SIZE + 1;
+            String operation = (i / CATALOG_SIZE) % 2 == 0 ? "increment" : "decrement";
+            responses.add(clientExecutor.submit(() -> send("PATCH", "/api/v1/beers/" + id + "/" + operation, "{\"quantity\":1}", pauseMillis)));
+        }
+        int succeeded = 0;
+        for (Future<Integer> response : responses) {
+            if (response.get() == 200) {
+                succeeded++;
+            }
+        }
+        return succeeded;
+    }
+
+    private int send(String method, String path, String body, int pauseMillis) throws IOException, InterruptedException {
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        try (Socket socket = new Socket("localhost", port)) {
+            OutputStream output = socket.getOutputStream();
+            output.write((method + " " + path + " HTTP/1.1\r\nHost: localhost\r\nContent-Type: application/json\r\n"
+                    + "Content-Length: " + bytes.length + "\r\nConnection: close\r\n\r\n").getBytes(StandardCharsets.US_ASCII));
+            output.write(bytes, 0, bytes.length / 2);
+            output.flush();
+            Thread.sleep(pauseMillis);
+            output.write(bytes, bytes.length / 2, bytes.length - bytes.length / 2);
+            output.flush();
+            String statusLine = new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.US_ASCII)).readLine();
+            return Integer.parseInt(statusLine.split(" ")[1]);
+        }
+    }
+}
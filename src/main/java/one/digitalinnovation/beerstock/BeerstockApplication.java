@@ -1,13 +1,20 @@
 package one.digitalinnovation.beerstock;
 
 import org.springframework.boot.SpringApplication;
+import org.springframework.boot.WebApplicationType;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.context.ConfigurableApplicationContext;
 
 @SpringBootApplication
 public class BeerstockApplication {
 
 	public static void main(String[] args) {
-		SpringApplication.run(BeerstockApplication.class, args);
+		SpringApplication application = new SpringApplication(BeerstockApplication.class);
+		ConfigurableApplicationContext context = application.run(args);
+		// without a web server there is nothing left to serve once the runners are done
+		if (application.getWebApplicationType() == WebApplicationType.NONE) {
+			System.exit(SpringApplication.exit(context));
+		}
 	}
 
 }
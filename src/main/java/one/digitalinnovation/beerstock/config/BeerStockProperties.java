@@ -0,0 +1,143 @@
+package one.digitalinnovation.beerstock.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.util.unit.DataSize;
+
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Duration;
+
+@Data
+@ConfigurationProperties(prefix = "beerstock")
+public class BeerStockProperties {
+
+    private final NameCache nameCache = new NameCache();
+
+    private final Idempotency idempotency = new Idempotency();
+
+    private final WriteBehind writeBehind = new WriteBehind();
+
+    private final StockEngine stockEngine = new StockEngine();
+
+    private final StockRetry stockRetry = new StockRetry();
+
+    private final VirtualThreads virtualThreads = new VirtualThreads();
+
+    private final StockAlerts stockAlerts = new StockAlerts();
+
+    private final CatalogSnapshot catalogSnapshot = new CatalogSnapshot();
+
+    private final CatalogImport catalogImport = new CatalogImport();
+
+    private final WarmUp warmUp = new WarmUp();
+
+    @Data
+    public static class NameCache {
+
+        private long maximumSize = 10_000;
+
+        private Duration expireAfterWrite = Duration.ofMinutes(10);
+    }
+
+    @Data
+    public static class Idempotency {
+
+        private long maximumSize = 100_000;
+
+        /** How long a retry with the same Idempotency-Key gets the first response back. */
+        private Duration expireAfterWrite = Duration.ofHours(1);
+    }
+
+    @Data
+    public static class CatalogSnapshot {
+
+        /** Also keeps a gzipped copy of the snapshot for clients that accept it. */
+        private boolean gzip = true;
+
+        /** Smaller snapshots are not gzipped, as with server.compression.min-response-size. */
+        private DataSize gzipMinSize = DataSize.ofKilobytes(2);
+    }
+
+    @Data
+    public static class CatalogImport {
+
+        /** Rows created per transaction. */
+        private int chunkSize = 1_000;
+
+        /** CSV or NDJSON file imported at startup by CatalogImportRunner, if set. */
+        private Path file;
+    }
+
+    @Data
+    public static class WarmUp {
+
+        /** Runs StartupWarmUp before the application reports itself ready. */
+        private boolean enabled = true;
+
+        /** Rounds of read-only calls made on the BeerService hot paths. */
+        private int iterations = 10_000;
+
+        /** Readiness is reported after this long even if the iterations are not done. */
+        private Duration maxDuration = Duration.ofSeconds(30);
+    }
+
+    @Data
+    public static class WriteBehind {
+
+        private boolean enabled = false;
+
+        private Duration flushInterval = Duration.ofMillis(200);
+
+        /** Number of beers with pending deltas that triggers an early flush. */
+        private int flushThreshold = 1_000;
+
+        private Path journalDirectory = Paths.get("data", "stock-journal");
+
+        private boolean fsync = true;
+    }
+
+    @Data
+    public static class StockEngine {
+
+        /** Sends increments and decrements through ShardedStockEngine instead of one transaction each. */
+        private boolean sharded = false;
+
+        /** Shards, each with its own writer thread; 0 means one per available processor. */
+        private int shards = 0;
+
+        /** Most commands a shard writes in one transaction. */
+        private int batchSize = 256;
+    }
+
+    @Data
+    public static class StockRetry {
+
+        /** Attempts of a stock write that keeps conflicting with concurrent writes, the first included. */
+        private int maxAttempts = 3;
+
+        /** Cap of the random wait before the first retry, doubled for each further one. */
+        private Duration initialBackoff = Duration.ofMillis(5);
+
+        private Duration maxBackoff = Duration.ofMillis(100);
+    }
+
+    @Data
+    public static class VirtualThreads {
+
+        /** Handles requests on virtual threads instead of Tomcat's worker pool. */
+        private boolean enabled = false;
+    }
+
+    @Data
+    public static class StockAlerts {
+
+        /** A beer is low on stock once quantity - min is at or below this. */
+        private int lowStockHeadroom = 0;
+
+        /** A beer is over-stocked once max - quantity is at or below this. */
+        private int overStockHeadroom = 0;
+
+        private Duration subscriptionTimeout = Duration.ofMinutes(30);
+    }
+}
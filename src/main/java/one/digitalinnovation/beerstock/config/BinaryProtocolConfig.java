@@ -0,0 +1,23 @@
+package one.digitalinnovation.beerstock.config;
+
+import one.digitalinnovation.beerstock.controller.BeerBinaryHttpMessageConverter;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import java.util.List;
+
+/**
+ * Lets the beer endpoints exchange {@code BeerDTO} and {@code QuantityDTO} in the
+ * compact binary layout, chosen through {@code Content-Type} and {@code Accept}.
+ * Appended rather than declared as a bean: Boot puts converter beans ahead of Jackson,
+ * which would make the binary layout the answer to {@code Accept: *}{@code /*}.
+ */
+@Configuration
+public class BinaryProtocolConfig implements WebMvcConfigurer {
+
+    @Override
+    public void extendMessageConverters(List<HttpMessageConverter<?>> converters) {
+        converters.add(new BeerBinaryHttpMessageConverter());
+    }
+}
@@ -0,0 +1,43 @@
+package one.digitalinnovation.beerstock.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import one.digitalinnovation.beerstock.service.BeerNameCache;
+import one.digitalinnovation.beerstock.service.BeerService;
+import one.digitalinnovation.beerstock.service.CatalogSnapshotCache;
+import one.digitalinnovation.beerstock.service.IdempotencyStore;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+
+@Configuration
+@Profile("!reactive")
+@EnableConfigurationProperties(BeerStockProperties.class)
+public class CacheConfig {
+
+    private static final String BEER_NAME_CACHE = "beersByName";
+    private static final String IDEMPOTENCY_KEYS = "idempotencyKeys";
+
+    @Bean
+    public BeerNameCache beerNameCache(BeerStockProperties properties, MeterRegistry meterRegistry) {
+        BeerStockProperties.NameCache nameCache = properties.getNameCache();
+        BeerNameCache beerNameCache = new BeerNameCache(nameCache.getMaximumSize(), nameCache.getExpireAfterWrite());
+        beerNameCache.bindTo(meterRegistry, BEER_NAME_CACHE);
+        return beerNameCache;
+    }
+
+    @Bean
+    public IdempotencyStore idempotencyStore(BeerStockProperties properties, MeterRegistry meterRegistry) {
+        BeerStockProperties.Idempotency idempotency = properties.getIdempotency();
+        IdempotencyStore idempotencyStore = new IdempotencyStore(idempotency.getMaximumSize(), idempotency.getExpireAfterWrite());
+        idempotencyStore.bindTo(meterRegistry, IDEMPOTENCY_KEYS);
+        return idempotencyStore;
+    }
+
+    @Bean
+    public CatalogSnapshotCache catalogSnapshotCache(BeerStockProperties properties, BeerService beerService, ObjectMapper objectMapper) {
+        BeerStockProperties.CatalogSnapshot catalogSnapshot = properties.getCatalogSnapshot();
+        return new CatalogSnapshotCache(beerService, objectMapper, catalogSnapshot.isGzip(), (int) catalogSnapshot.getGzipMinSize().toBytes());
+    }
+}
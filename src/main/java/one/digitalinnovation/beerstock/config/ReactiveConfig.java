@@ -0,0 +1,47 @@
+package one.digitalinnovation.beerstock.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import io.r2dbc.spi.ConnectionFactory;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.web.embedded.netty.NettyReactiveWebServerFactory;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+import org.springframework.r2dbc.connection.R2dbcTransactionManager;
+import org.springframework.transaction.reactive.TransactionalOperator;
+
+/**
+ * Wiring for the {@code reactive} profile. Spring Boot skips the JDBC
+ * {@code DataSource} as soon as an R2DBC {@code ConnectionFactory} exists, but JPA
+ * still creates the schema and runs the ledger jobs, so the DataSource is declared
+ * here explicitly. The R2DBC transaction manager is not a bean, so
+ * {@code @Transactional} keeps resolving to the JPA one. Tomcat is on the class
+ * path for the servlet stack and would be picked by default, so Reactor Netty is
+ * declared as the server.
+ * <p>
+ * Reactive writes go straight to the database, so the servlet side's in-memory stock
+ * views, caches, write paths and their scheduled jobs are {@code !reactive} beans.
+ */
+@Configuration
+@Profile("reactive")
+@EnableConfigurationProperties(DataSourceProperties.class)
+public class ReactiveConfig {
+
+    @Bean
+    public NettyReactiveWebServerFactory nettyReactiveWebServerFactory() {
+        return new NettyReactiveWebServerFactory();
+    }
+
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource dataSource(DataSourceProperties properties) {
+        return properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+    }
+
+    @Bean
+    public TransactionalOperator reactiveTransactionalOperator(ConnectionFactory connectionFactory) {
+        return TransactionalOperator.create(new R2dbcTransactionManager(connectionFactory));
+    }
+}
@@ -0,0 +1,19 @@
+package one.digitalinnovation.beerstock.config;
+
+import one.digitalinnovation.beerstock.repository.BeerRepository;
+import one.digitalinnovation.beerstock.repository.ReactiveBeerRepository;
+import org.springframework.context.annotation.ComponentScan;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.FilterType;
+import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
+
+/**
+ * {@link ReactiveBeerRepository} manages the JPA {@code Beer} entity, so Spring
+ * Data JPA would claim it as well and reject it for being reactive; it is left to
+ * the R2DBC repositories of the {@code reactive} profile.
+ */
+@Configuration
+@EnableJpaRepositories(basePackageClasses = BeerRepository.class,
+        excludeFilters = @ComponentScan.Filter(type = FilterType.ASSIGNABLE_TYPE, classes = ReactiveBeerRepository.class))
+public class RepositoryConfig {
+}
@@ -0,0 +1,31 @@
+package one.digitalinnovation.beerstock.config;
+
+import one.digitalinnovation.beerstock.service.StockAlertBroadcaster;
+import one.digitalinnovation.beerstock.service.StockHeadroomIndex;
+import one.digitalinnovation.beerstock.service.TypeStockStatistics;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+
+@Configuration
+@Profile("!reactive")
+@EnableConfigurationProperties(BeerStockProperties.class)
+public class StockAlertConfig {
+
+    @Bean
+    public StockAlertBroadcaster stockAlertBroadcaster(BeerStockProperties properties) {
+        return new StockAlertBroadcaster(properties.getStockAlerts().getSubscriptionTimeout());
+    }
+
+    @Bean
+    public StockHeadroomIndex stockHeadroomIndex(BeerStockProperties properties, StockAlertBroadcaster stockAlertBroadcaster) {
+        BeerStockProperties.StockAlerts stockAlerts = properties.getStockAlerts();
+        return new StockHeadroomIndex(stockAlerts.getLowStockHeadroom(), stockAlerts.getOverStockHeadroom(), stockAlertBroadcaster);
+    }
+
+    @Bean
+    public TypeStockStatistics typeStockStatistics() {
+        return new TypeStockStatistics();
+    }
+}
@@ -0,0 +1,38 @@
+package one.digitalinnovation.beerstock.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import one.digitalinnovation.beerstock.service.ShardedStockEngine;
+import one.digitalinnovation.beerstock.service.StockLedgerService;
+import one.digitalinnovation.beerstock.service.StockWriteRetry;
+import one.digitalinnovation.beerstock.service.WriteBehindStockBuffer;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+
+@Configuration
+@Profile("!reactive")
+@EnableConfigurationProperties(BeerStockProperties.class)
+public class WriteBehindConfig {
+
+    @Bean
+    public WriteBehindStockBuffer writeBehindStockBuffer(BeerStockProperties properties, StockLedgerService stockLedger) {
+        return new WriteBehindStockBuffer(properties.getWriteBehind(), stockLedger);
+    }
+
+    @Bean
+    public ShardedStockEngine shardedStockEngine(BeerStockProperties properties, StockLedgerService stockLedger,
+                                                 StockWriteRetry stockWriteRetry) {
+        if (properties.getStockEngine().isSharded() && properties.getWriteBehind().isEnabled()) {
+            // the shards' guarded UPDATEs need a database that does not lag behind the counters
+            throw new IllegalStateException("beerstock.stock-engine.sharded and beerstock.write-behind.enabled cannot be combined");
+        }
+        return new ShardedStockEngine(properties.getStockEngine(), stockLedger, stockWriteRetry);
+    }
+
+    @Bean
+    public StockWriteRetry stockWriteRetry(BeerStockProperties properties, MeterRegistry meterRegistry) {
+        BeerStockProperties.StockRetry stockRetry = properties.getStockRetry();
+        return new StockWriteRetry(stockRetry.getMaxAttempts(), stockRetry.getInitialBackoff(), stockRetry.getMaxBackoff(), meterRegistry);
+    }
+}
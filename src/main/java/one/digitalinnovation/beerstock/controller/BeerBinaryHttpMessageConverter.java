@@ -0,0 +1,68 @@
+package one.digitalinnovation.beerstock.controller;
+
+import one.digitalinnovation.beerstock.dto.BeerDTO;
+import one.digitalinnovation.beerstock.dto.QuantityDTO;
+import one.digitalinnovation.beerstock.mapper.BeerBinaryCodec;
+import org.springframework.http.HttpInputMessage;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.AbstractHttpMessageConverter;
+import org.springframework.http.converter.HttpMessageNotReadableException;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+
+/**
+ * Reads and writes {@link BeerDTO} and {@link QuantityDTO} in the {@link BeerBinaryCodec}
+ * layout when a client sends or accepts {@value #APPLICATION_BEERSTOCK_BINARY_VALUE}.
+ * It is registered after the JSON converter, so JSON stays the default.
+ */
+public class BeerBinaryHttpMessageConverter extends AbstractHttpMessageConverter<Object> {
+
+    public static final String APPLICATION_BEERSTOCK_BINARY_VALUE = "application/x-beerstock-binary";
+    public static final MediaType APPLICATION_BEERSTOCK_BINARY = MediaType.parseMediaType(APPLICATION_BEERSTOCK_BINARY_VALUE);
+
+    // a BeerDTO with names of typical length fits in it
+    private static final int INITIAL_BUFFER_SIZE = 64;
+
+    public BeerBinaryHttpMessageConverter() {
+        super(APPLICATION_BEERSTOCK_BINARY);
+    }
+
+    @Override
+    protected boolean supports(Class<?> clazz) {
+        return clazz == BeerDTO.class || clazz == QuantityDTO.class;
+    }
+
+    @Override
+    protected Object readInternal(Class<?> clazz, HttpInputMessage inputMessage) throws IOException {
+        DataInputStream input = new DataInputStream(inputMessage.getBody());
+        try {
+            Object body = clazz == BeerDTO.class ? BeerBinaryCodec.readBeer(input) : BeerBinaryCodec.readQuantity(input);
+            if (input.read() != -1) {
+                throw new IOException("Unexpected bytes after the " + clazz.getSimpleName());
+            }
+            return body;
+        } catch (IOException e) {
+            throw new HttpMessageNotReadableException("Malformed " + APPLICATION_BEERSTOCK_BINARY_VALUE + " " + clazz.getSimpleName(), e, inputMessage);
+        }
+    }
+
+    /**
+     * Encodes into a buffer first so the response carries a {@code Content-Length}.
+     */
+    @Override
+    protected void writeInternal(Object body, HttpOutputMessage outputMessage) throws IOException {
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream(INITIAL_BUFFER_SIZE);
+        DataOutputStream output = new DataOutputStream(buffer);
+        if (body instanceof BeerDTO) {
+            BeerBinaryCodec.writeBeer((BeerDTO) body, output);
+        } else {
+            BeerBinaryCodec.writeQuantity((QuantityDTO) body, output);
+        }
+        outputMessage.getHeaders().setContentLength(buffer.size());
+        buffer.writeTo(outputMessage.getBody());
+    }
+}
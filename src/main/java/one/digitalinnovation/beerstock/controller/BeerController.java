@@ -1,31 +1,78 @@
 package one.digitalinnovation.beerstock.controller;
 
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import lombok.AllArgsConstructor;
 import one.digitalinnovation.beerstock.dto.BeerDTO;
+import one.digitalinnovation.beerstock.dto.BeerPageDTO;
+import one.digitalinnovation.beerstock.dto.BeerStockDTO;
+import one.digitalinnovation.beerstock.dto.CatalogImportReportDTO;
+import one.digitalinnovation.beerstock.dto.BeersDTO;
 import one.digitalinnovation.beerstock.dto.QuantityDTO;
+import one.digitalinnovation.beerstock.dto.StockLedgerEntryDTO;
+import one.digitalinnovation.beerstock.dto.StockLevelDTO;
+import one.digitalinnovation.beerstock.dto.StockMovementResultDTO;
+import one.digitalinnovation.beerstock.dto.StockMovementsDTO;
+import one.digitalinnovation.beerstock.dto.TypeStockStatisticsDTO;
+import one.digitalinnovation.beerstock.enums.BeerType;
+import one.digitalinnovation.beerstock.enums.CatalogFormat;
 import one.digitalinnovation.beerstock.exception.*;
+import one.digitalinnovation.beerstock.mapper.BeerJsonWriter;
 import one.digitalinnovation.beerstock.service.BeerService;
+import one.digitalinnovation.beerstock.service.CatalogImportService;
+import one.digitalinnovation.beerstock.service.CatalogSnapshotCache;
+import one.digitalinnovation.beerstock.service.IdempotencyStore;
+import one.digitalinnovation.beerstock.service.StockAlertBroadcaster;
+import one.digitalinnovation.beerstock.service.StockOutcome;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PatchMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.ResponseStatus;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import javax.servlet.http.HttpServletResponse;
 import javax.validation.Valid;
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.Instant;
 import java.util.List;
+import java.util.function.Supplier;
 
 @RestController
+@Profile("!reactive")
 @RequestMapping("/api/v1/beers")
 @AllArgsConstructor(onConstructor = @__(@Autowired))
 public class BeerController implements BeerControllerDocs {
 
+    public static final String APPLICATION_NDJSON_VALUE = "application/x-ndjson";
+    public static final String TEXT_CSV_VALUE = "text/csv";
+    public static final String IDEMPOTENCY_KEY = "Idempotency-Key";
+    public static final String IDEMPOTENT_REPLAYED = "Idempotent-Replayed";
+    private static final char NDJSON_SEPARATOR = '\n';
+    private static final String GZIP = "gzip";
+    private static final String ANY_CODING = "*";
+
     private final BeerService beerService;
+    private final StockAlertBroadcaster stockAlertBroadcaster;
+    private final ObjectMapper objectMapper;
+    private final CatalogSnapshotCache catalogSnapshotCache;
+    private final CatalogImportService catalogImportService;
+    private final IdempotencyStore idempotencyStore;
 
     @PostMapping
     @ResponseStatus(HttpStatus.CREATED)
@@ -33,14 +80,110 @@ public class BeerController implements BeerControllerDocs {
         return beerService.createBeer(beerDTO);
     }
 
+    @PostMapping("/bulk")
+    @ResponseStatus(HttpStatus.CREATED)
+    public List<BeerDTO> createBeers(@RequestBody @Valid BeersDTO beersDTO) throws BeerAlreadyRegisteredException, BeerStockRequiredFieldException {
+        return beerService.createBeers(beersDTO.getBeers());
+    }
+
+    /**
+     * Imports the CSV or NDJSON catalog in the request body while it is being
+     * uploaded, without buffering it.
+     */
+    @PostMapping(value = "/import", consumes = {TEXT_CSV_VALUE, APPLICATION_NDJSON_VALUE})
+    public CatalogImportReportDTO importCatalog(@RequestHeader(HttpHeaders.CONTENT_TYPE) String contentType, InputStream body) throws IOException, BeerAlreadyRegisteredException {
+        return catalogImportService.importCatalog(body, CatalogFormat.fromMediaType(contentType).orElseThrow());
+    }
+
     @GetMapping("/{name}")
     public BeerDTO findByName(@PathVariable String name) throws BeerNotFoundException {
         return beerService.findByName(name);
     }
 
+    /**
+     * Serves the pre-serialized catalog snapshot. The response carries a strong ETag,
+     * so an {@code If-None-Match} for the current snapshot gets a 304 without the
+     * catalog being queried or serialized again.
+     */
     @GetMapping
-    public List<BeerDTO> listBeers() {
-        return beerService.listAll();
+    public ResponseEntity<byte[]> listBeers(@RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding) throws IOException {
+        CatalogSnapshotCache.CatalogSnapshot snapshot = catalogSnapshotCache.current();
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .cacheControl(CacheControl.noCache())
+                .varyBy(HttpHeaders.ACCEPT_ENCODING);
+        if (snapshot.getGzipped() != null && acceptsGzip(acceptEncoding)) {
+            return response.eTag(snapshot.getGzipEtag())
+                    .header(HttpHeaders.CONTENT_ENCODING, GZIP)
+                    .body(snapshot.getGzipped());
+        }
+        return response.eTag(snapshot.getEtag()).body(snapshot.getJson());
+    }
+
+    @GetMapping(params = "size")
+    public BeerPageDTO listBeersPage(@RequestParam(required = false) Long afterId, @RequestParam int size) {
+        return beerService.listPage(afterId, size);
+    }
+
+    @GetMapping("/brand/{brand}")
+    public List<BeerDTO> findByBrand(@PathVariable String brand) {
+        return beerService.findByBrand(brand);
+    }
+
+    @GetMapping("/type/{type}")
+    public List<BeerDTO> findByType(@PathVariable BeerType type) {
+        return beerService.findByType(type);
+    }
+
+    @GetMapping("/stock/low")
+    public List<BeerStockDTO> listLowStock() {
+        return beerService.listLowStock();
+    }
+
+    @GetMapping("/stock/over")
+    public List<BeerStockDTO> listOverStock() {
+        return beerService.listOverStock();
+    }
+
+    @GetMapping("/stock/near-min")
+    public List<BeerStockDTO> listNearMin(@RequestParam(defaultValue = "10") int limit) {
+        return beerService.listNearMin(limit);
+    }
+
+    @GetMapping("/stock/near-max")
+    public List<BeerStockDTO> listNearMax(@RequestParam(defaultValue = "10") int limit) {
+        return beerService.listNearMax(limit);
+    }
+
+    @GetMapping("/stock/by-type")
+    public List<TypeStockStatisticsDTO> typeStockStatistics() {
+        return beerService.typeStockStatistics();
+    }
+
+    @GetMapping(value = "/stock/alerts", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter stockAlerts() {
+        return stockAlertBroadcaster.subscribe();
+    }
+
+    /**
+     * The content type is set on the response itself, so that Tomcat can tell the
+     * stream is compressible before the first chunk goes out. Each record is followed
+     * by its newline, so an empty catalog is an empty body.
+     */
+    @GetMapping(value = "/catalog/export", produces = APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> exportBeers() {
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(APPLICATION_NDJSON_VALUE))
+                .body(outputStream -> {
+                    JsonGenerator generator = objectMapper.getFactory().createGenerator(outputStream);
+                    generator.setRootValueSeparator(null);
+                    BeerJsonWriter writer = new BeerJsonWriter(generator);
+                    beerService.exportAll((id, name, brand, max, min, quantity, type) -> {
+                        writer.handle(id, name, brand, max, min, quantity, type);
+                        generator.writeRaw(NDJSON_SEPARATOR);
+                    });
+                    generator.flush();
+                });
     }
 
     @DeleteMapping("/{id}")
@@ -49,14 +192,97 @@ public class BeerController implements BeerControllerDocs {
         beerService.deleteById(id);
     }
 
+    /**
+     * Stock-limit rejections come back from the service as a {@link StockOutcome}
+     * and are sent as the same error response the exceptions map to. With an
+     * {@code Idempotency-Key} header, a retry of an applied adjustment gets the first
+     * response back, flagged with {@code Idempotent-Replayed}, and the stock is not touched again.
+     */
     @PatchMapping("/{id}/increment")
-    public BeerDTO increment(@PathVariable Long id, @RequestBody @Valid QuantityDTO quantityDTO) throws BeerNotFoundException, BeerStockExceededException, NegativeInputException {
-        return beerService.increment(id, quantityDTO.getQuantity());
+    public BeerDTO increment(@PathVariable Long id, @RequestBody @Valid QuantityDTO quantityDTO,
+                             @RequestHeader(value = IDEMPOTENCY_KEY, required = false) String idempotencyKey,
+                             HttpServletResponse response) throws IOException, IdempotencyKeyReusedException, IdempotentRequestInProgressException {
+        int quantity = quantityDTO.getQuantity();
+        return appliedOrSendError(idempotent(idempotencyKey, "increment", id, quantity, () -> beerService.tryIncrement(id, quantity)), response);
     }
 
     @PatchMapping("/{id}/decrement")
-    public BeerDTO decrement(@PathVariable Long id, @RequestBody @Valid QuantityDTO quantityDTO) throws BeerNotFoundException, BeerStockMinCapacityExceededException, NegativeInputException {
-        return beerService.decrement(id, quantityDTO.getQuantity());
+    public BeerDTO decrement(@PathVariable Long id, @RequestBody @Valid QuantityDTO quantityDTO,
+                             @RequestHeader(value = IDEMPOTENCY_KEY, required = false) String idempotencyKey,
+                             HttpServletResponse response) throws IOException, IdempotencyKeyReusedException, IdempotentRequestInProgressException {
+        int quantity = quantityDTO.getQuantity();
+        return appliedOrSendError(idempotent(idempotencyKey, "decrement", id, quantity, () -> beerService.tryDecrement(id, quantity)), response);
+    }
+
+    @GetMapping("/{id}/stock")
+    public StockLevelDTO stockLevel(@PathVariable Long id, @RequestParam(required = false) Instant at) throws BeerNotFoundException {
+        return beerService.stockLevel(id, at);
+    }
+
+    @GetMapping("/{id}/movements")
+    public List<StockLedgerEntryDTO> stockMovements(@PathVariable Long id, @RequestParam(defaultValue = "50") int limit) throws BeerNotFoundException {
+        return beerService.stockMovements(id, limit);
     }
 
+    @PostMapping("/stock-movements")
+    public List<StockMovementResultDTO> applyStockMovements(@RequestBody @Valid StockMovementsDTO stockMovementsDTO) {
+        return beerService.applyStockMovements(stockMovementsDTO.getMovements());
+    }
+
+    private StockOutcome idempotent(String idempotencyKey, String operation, Long id, int quantity, Supplier<StockOutcome> adjustment)
+            throws IdempotencyKeyReusedException, IdempotentRequestInProgressException {
+        if (idempotencyKey == null) {
+            return adjustment.get();
+        }
+        return idempotencyStore.execute(idempotencyKey, operation + ' ' + id + ' ' + quantity, adjustment);
+    }
+
+    /**
+     * Whether an {@code Accept-Encoding} header lists {@code gzip}, or failing that
+     * {@code *}, with a non-zero quality.
+     */
+    private static boolean acceptsGzip(String acceptEncoding) {
+        if (acceptEncoding == null) {
+            return false;
+        }
+        Boolean anyCoding = null;
+        for (String element : acceptEncoding.split(",")) {
+            String[] parameters = element.split(";");
+            String coding = parameters[0].trim();
+            boolean accepted = qualityOf(parameters) > 0;
+            if (GZIP.equalsIgnoreCase(coding)) {
+                return accepted;
+            }
+            if (ANY_CODING.equals(coding)) {
+                anyCoding = accepted;
+            }
+        }
+        return Boolean.TRUE.equals(anyCoding);
+    }
+
+    private static double qualityOf(String[] parameters) {
+        for (int i = 1; i < parameters.length; i++) {
+            String parameter = parameters[i].trim();
+            if (parameter.length() > 2 && parameter.substring(0, 2).equalsIgnoreCase("q=")) {
+                try {
+                    return Double.parseDouble(parameter.substring(2).trim());
+                } catch (NumberFormatException e) {
+                    return 0;
+                }
+            }
+        }
+        return 1;
+    }
+
+    private static BeerDTO appliedOrSendError(StockOutcome outcome, HttpServletResponse response) throws IOException {
+        if (outcome.isApplied()) {
+            if (outcome.isReplayed()) {
+                response.setHeader(IDEMPOTENT_REPLAYED, Boolean.TRUE.toString());
+            }
+            return outcome.getBeer();
+        }
+        HttpStatus status = outcome.getStatus() == StockOutcome.Status.NOT_FOUND ? HttpStatus.NOT_FOUND : HttpStatus.BAD_REQUEST;
+        response.sendError(status.value(), outcome.getMessage());
+        return null;
+    }
 }
@@ -5,11 +5,27 @@ import io.swagger.annotations.ApiOperation;
 import io.swagger.annotations.ApiResponse;
 import io.swagger.annotations.ApiResponses;
 import one.digitalinnovation.beerstock.dto.BeerDTO;
+import one.digitalinnovation.beerstock.dto.BeerPageDTO;
+import one.digitalinnovation.beerstock.dto.BeerStockDTO;
+import one.digitalinnovation.beerstock.dto.CatalogImportReportDTO;
+import one.digitalinnovation.beerstock.dto.BeersDTO;
+import one.digitalinnovation.beerstock.dto.StockLedgerEntryDTO;
+import one.digitalinnovation.beerstock.dto.StockLevelDTO;
+import one.digitalinnovation.beerstock.dto.StockMovementResultDTO;
+import one.digitalinnovation.beerstock.dto.StockMovementsDTO;
+import one.digitalinnovation.beerstock.dto.TypeStockStatisticsDTO;
+import one.digitalinnovation.beerstock.enums.BeerType;
 import one.digitalinnovation.beerstock.exception.BeerAlreadyRegisteredException;
 import one.digitalinnovation.beerstock.exception.BeerNotFoundException;
 import one.digitalinnovation.beerstock.exception.BeerStockRequiredFieldException;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.Instant;
 import java.util.List;
 
 @Api("Manages beer stock")
@@ -22,6 +38,21 @@ public interface BeerControllerDocs {
     })
     BeerDTO createBeer(BeerDTO beerDTO) throws BeerAlreadyRegisteredException, BeerStockRequiredFieldException;
 
+    @ApiOperation(value = "Bulk beer creation operation, all or nothing")
+    @ApiResponses(value = {
+            @ApiResponse(code = 201, message = "Success beers creation"),
+            @ApiResponse(code = 400, message = "Missing required fields, wrong field range value or name already registered.")
+    })
+    List<BeerDTO> createBeers(BeersDTO beersDTO) throws BeerAlreadyRegisteredException, BeerStockRequiredFieldException;
+
+    @ApiOperation(value = "Imports a CSV or NDJSON catalog, skipping invalid rows and names already registered")
+    @ApiResponses(value = {
+            @ApiResponse(code = 200, message = "Rows read, imported, duplicated and invalid, with the first errors"),
+            @ApiResponse(code = 400, message = "A name was registered concurrently with the import, twice in a row."),
+            @ApiResponse(code = 415, message = "Body is neither text/csv nor application/x-ndjson.")
+    })
+    CatalogImportReportDTO importCatalog(String contentType, InputStream body) throws IOException, BeerAlreadyRegisteredException;
+
     @ApiOperation(value = "Returns beer found by a given name")
     @ApiResponses(value = {
             @ApiResponse(code = 200, message = "Success beer found in the system"),
@@ -29,11 +60,73 @@ public interface BeerControllerDocs {
     })
     BeerDTO findByName(@PathVariable String name) throws BeerNotFoundException;
 
-    @ApiOperation(value = "Returns a list of all beers registered in the system")
+    @ApiOperation(value = "Returns a list of all beers registered in the system", response = BeerDTO.class, responseContainer = "List")
+    @ApiResponses(value = {
+            @ApiResponse(code = 200, message = "List of all beers registered in the system, with its ETag"),
+            @ApiResponse(code = 304, message = "The catalog has not changed since the ETag sent in If-None-Match"),
+    })
+    ResponseEntity<byte[]> listBeers(String acceptEncoding) throws IOException;
+
+    @ApiOperation(value = "Returns a page of beers with ids greater than afterId, ordered by id")
+    @ApiResponses(value = {
+            @ApiResponse(code = 200, message = "Page of beers and the afterId of the next page, absent on the last page"),
+    })
+    BeerPageDTO listBeersPage(Long afterId, int size);
+
+    @ApiOperation(value = "Returns the beers of a given brand, ordered by id")
+    @ApiResponses(value = {
+            @ApiResponse(code = 200, message = "Beers of the brand, empty when there are none"),
+    })
+    List<BeerDTO> findByBrand(@PathVariable String brand);
+
+    @ApiOperation(value = "Returns the beers of a given type, ordered by id")
+    @ApiResponses(value = {
+            @ApiResponse(code = 200, message = "Beers of the type, empty when there are none"),
+            @ApiResponse(code = 400, message = "Unknown beer type.")
+    })
+    List<BeerDTO> findByType(@PathVariable BeerType type);
+
+    @ApiOperation(value = "Returns the beers whose stock is at or below their min")
+    @ApiResponses(value = {
+            @ApiResponse(code = 200, message = "Stock levels of the beers to restock"),
+    })
+    List<BeerStockDTO> listLowStock();
+
+    @ApiOperation(value = "Returns the beers whose stock is at or above their max")
+    @ApiResponses(value = {
+            @ApiResponse(code = 200, message = "Stock levels of the beers at full capacity"),
+    })
+    List<BeerStockDTO> listOverStock();
+
+    @ApiOperation(value = "Returns the beers with the least stock above their min, closest first")
     @ApiResponses(value = {
-            @ApiResponse(code = 200, message = "List of all beers registered in the system"),
+            @ApiResponse(code = 200, message = "Stock levels of the beers closest to running out"),
     })
-    List<BeerDTO> listBeers();
+    List<BeerStockDTO> listNearMin(int limit);
+
+    @ApiOperation(value = "Returns the beers with the least room below their max, closest first")
+    @ApiResponses(value = {
+            @ApiResponse(code = 200, message = "Stock levels of the beers closest to full capacity"),
+    })
+    List<BeerStockDTO> listNearMax(int limit);
+
+    @ApiOperation(value = "Returns the number of beers and the total, min, max and average stock of every beer type")
+    @ApiResponses(value = {
+            @ApiResponse(code = 200, message = "Stock statistics of every beer type, kept up to date in memory"),
+    })
+    List<TypeStockStatisticsDTO> typeStockStatistics();
+
+    @ApiOperation(value = "Subscribes to low-stock and over-stock alerts as Server-Sent Events")
+    @ApiResponses(value = {
+            @ApiResponse(code = 200, message = "One event per threshold crossing, named after the alert type"),
+    })
+    SseEmitter stockAlerts();
+
+    @ApiOperation(value = "Streams every beer registered in the system as newline-delimited JSON")
+    @ApiResponses(value = {
+            @ApiResponse(code = 200, message = "One JSON beer per line, ordered by id"),
+    })
+    ResponseEntity<StreamingResponseBody> exportBeers();
 
     @ApiOperation(value = "Delete a beer found by a given valid Id")
     @ApiResponses(value = {
@@ -41,4 +134,25 @@ public interface BeerControllerDocs {
             @ApiResponse(code = 404, message = "Beer with given id not found.")
     })
     void deleteById(@PathVariable Long id) throws BeerNotFoundException;
+
+    @ApiOperation(value = "Returns the stock of a beer computed from its movement ledger, now or at a given instant")
+    @ApiResponses(value = {
+            @ApiResponse(code = 200, message = "Stock of the beer at the requested instant"),
+            @ApiResponse(code = 404, message = "Beer with given id not found.")
+    })
+    StockLevelDTO stockLevel(@PathVariable Long id, Instant at) throws BeerNotFoundException;
+
+    @ApiOperation(value = "Returns the latest stock movements of a beer, newest first")
+    @ApiResponses(value = {
+            @ApiResponse(code = 200, message = "Latest stock movements of the beer"),
+            @ApiResponse(code = 404, message = "Beer with given id not found.")
+    })
+    List<StockLedgerEntryDTO> stockMovements(@PathVariable Long id, int limit) throws BeerNotFoundException;
+
+    @ApiOperation(value = "Applies a batch of stock movements in a single transaction")
+    @ApiResponses(value = {
+            @ApiResponse(code = 200, message = "Result of each movement, with the error code of the rejected ones"),
+            @ApiResponse(code = 400, message = "Missing required fields or wrong field range value.")
+    })
+    List<StockMovementResultDTO> applyStockMovements(StockMovementsDTO stockMovementsDTO);
 }
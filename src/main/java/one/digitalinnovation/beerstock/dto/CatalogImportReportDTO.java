@@ -0,0 +1,28 @@
+package one.digitalinnovation.beerstock.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class CatalogImportReportDTO {
+
+    private Long rows;
+
+    private Long imported;
+
+    private Long duplicates;
+
+    private Long invalid;
+
+    private Long elapsedMillis;
+
+    /** The first errors found, up to {@code CatalogImportService.MAX_REPORTED_ERRORS}. */
+    private List<CatalogImportErrorDTO> errors;
+}
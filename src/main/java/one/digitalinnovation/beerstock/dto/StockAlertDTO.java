@@ -0,0 +1,30 @@
+package one.digitalinnovation.beerstock.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import one.digitalinnovation.beerstock.enums.StockAlertType;
+
+import java.time.Instant;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class StockAlertDTO {
+
+    private StockAlertType type;
+
+    private Long id;
+
+    private String name;
+
+    private Integer quantity;
+
+    private Integer min;
+
+    private Integer max;
+
+    private Instant at;
+}
@@ -0,0 +1,26 @@
+package one.digitalinnovation.beerstock.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import one.digitalinnovation.beerstock.enums.StockMovementReason;
+
+import java.time.Instant;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class StockLedgerEntryDTO {
+
+    private Long id;
+
+    private Long beerId;
+
+    private Integer delta;
+
+    private StockMovementReason reason;
+
+    private Instant createdAt;
+}
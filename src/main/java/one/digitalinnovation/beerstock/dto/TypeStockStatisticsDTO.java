@@ -0,0 +1,26 @@
+package one.digitalinnovation.beerstock.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import one.digitalinnovation.beerstock.enums.BeerType;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class TypeStockStatisticsDTO {
+
+    private BeerType type;
+
+    private Long beers;
+
+    private Long total;
+
+    private Integer min;
+
+    private Integer max;
+
+    private Double average;
+}
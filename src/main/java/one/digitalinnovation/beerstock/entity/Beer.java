@@ -11,18 +11,36 @@ import javax.persistence.Enumerated;
 import javax.persistence.GeneratedValue;
 import javax.persistence.GenerationType;
 import javax.persistence.Id;
+import javax.persistence.Index;
+import javax.persistence.SequenceGenerator;
+import javax.persistence.Table;
+import javax.persistence.UniqueConstraint;
+import javax.persistence.Version;
 
 @Data
 @Entity
 @NoArgsConstructor
 @AllArgsConstructor
+@Table(uniqueConstraints = @UniqueConstraint(name = Beer.NAME_UNIQUE_CONSTRAINT, columnNames = "name"),
+        indexes = {
+                @Index(name = "idx_beer_brand", columnList = "brand"),
+                @Index(name = "idx_beer_type", columnList = "type"),
+                // the low/over-stock filters compare columns with each other, so no index can seek
+                // on them; this one lets them scan the narrow index instead of every row
+                @Index(name = "idx_beer_stock_levels", columnList = "quantity, min, max")
+        })
 public class Beer {
 
+    public static final String NAME_UNIQUE_CONSTRAINT = "uk_beer_name";
+
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    // also maps the id for ReactiveBeerRepository
+    @org.springframework.data.annotation.Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "beer_sequence")
+    @SequenceGenerator(name = "beer_sequence", sequenceName = "beer_sequence", allocationSize = 50)
     private Long id;
 
-    @Column(nullable = false, unique = true)
+    @Column(nullable = false)
     private String name;
 
     @Column(nullable = false)
@@ -41,4 +59,13 @@ public class Beer {
     @Column(nullable = false)
     private BeerType type;
 
+    // bumped by the guarded stock UPDATEs too, so a stale entity can never be saved over them;
+    // the default fills rows that predate the column and the reactive inserts
+    @Version
+    @Column(nullable = false, columnDefinition = "bigint default 0")
+    private long version;
+
+    public Beer(Long id, String name, String brand, int max, int min, int quantity, BeerType type) {
+        this(id, name, brand, max, min, quantity, type, 0);
+    }
 }
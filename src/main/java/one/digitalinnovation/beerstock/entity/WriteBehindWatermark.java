@@ -0,0 +1,28 @@
+package one.digitalinnovation.beerstock.entity;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import javax.persistence.Column;
+import javax.persistence.Entity;
+import javax.persistence.Id;
+
+/**
+ * Last segment of a write-behind journal whose deltas are in the database. It is
+ * written in the same transaction as those deltas, so it never disagrees with them.
+ */
+@Data
+@Entity
+@NoArgsConstructor
+@AllArgsConstructor
+public class WriteBehindWatermark {
+
+    public static final String STOCK_DELTAS = "stock-deltas";
+
+    @Id
+    private String journal;
+
+    @Column(nullable = false)
+    private long lastAppliedSegment;
+}
@@ -0,0 +1,32 @@
+package one.digitalinnovation.beerstock.enums;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import org.springframework.http.MediaType;
+
+import java.util.Arrays;
+import java.util.Optional;
+
+@Getter
+@AllArgsConstructor
+public enum CatalogFormat {
+
+    CSV("text/csv", ".csv"),
+    NDJSON("application/x-ndjson", ".ndjson");
+
+    private final String mediaType;
+    private final String fileExtension;
+
+    public static Optional<CatalogFormat> fromMediaType(String contentType) {
+        MediaType mediaType = MediaType.parseMediaType(contentType);
+        return Arrays.stream(values())
+                .filter(format -> MediaType.parseMediaType(format.mediaType).includes(mediaType))
+                .findFirst();
+    }
+
+    public static Optional<CatalogFormat> fromFileName(String fileName) {
+        return Arrays.stream(values())
+                .filter(format -> fileName.toLowerCase().endsWith(format.fileExtension))
+                .findFirst();
+    }
+}
@@ -0,0 +1,16 @@
+package one.digitalinnovation.beerstock.enums;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+@Getter
+@AllArgsConstructor
+public enum StockAlertType {
+
+    LOW_STOCK("Stock dropped to the low-stock threshold"),
+    LOW_STOCK_CLEARED("Stock rose back above the low-stock threshold"),
+    OVER_STOCK("Stock rose to the over-stock threshold"),
+    OVER_STOCK_CLEARED("Stock dropped back below the over-stock threshold");
+
+    private final String description;
+}
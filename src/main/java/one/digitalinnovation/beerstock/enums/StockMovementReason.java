@@ -0,0 +1,17 @@
+package one.digitalinnovation.beerstock.enums;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+@Getter
+@AllArgsConstructor
+public enum StockMovementReason {
+
+    CREATION("Initial stock of a new beer"),
+    INCREMENT("Single increment"),
+    DECREMENT("Single decrement"),
+    BATCH("Batch stock movement"),
+    COALESCED("Coalesced write-behind deltas");
+
+    private final String description;
+}
@@ -6,11 +6,14 @@ import org.springframework.web.bind.annotation.ResponseStatus;
 @ResponseStatus(HttpStatus.NOT_FOUND)
 public class BeerNotFoundException extends Exception {
 
+    public static final String NAME_MESSAGE = "Beer with name %s not found in the system.";
+    public static final String ID_MESSAGE = "Beer with id %s not found in the system.";
+
     public BeerNotFoundException(String beerName) {
-        super(String.format("Beer with name %s not found in the system.", beerName));
+        super(String.format(NAME_MESSAGE, beerName));
     }
 
     public BeerNotFoundException(Long id) {
-        super(String.format("Beer with id %s not found in the system.", id));
+        super(String.format(ID_MESSAGE, id));
     }
 }
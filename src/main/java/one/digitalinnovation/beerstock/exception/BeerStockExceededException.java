@@ -6,8 +6,10 @@ import org.springframework.web.bind.annotation.ResponseStatus;
 @ResponseStatus(HttpStatus.BAD_REQUEST)
 public class BeerStockExceededException extends Exception {
 
+    public static final String MESSAGE = "Beers with %s ID to increment informed exceeds the max stock capacity: %s";
+
     public BeerStockExceededException(Long id, int quantityToIncrement) {
-        super(String.format("Beers with %s ID to increment informed exceeds the max stock capacity: %s", id, quantityToIncrement));
+        super(String.format(MESSAGE, id, quantityToIncrement));
     }
 
 }
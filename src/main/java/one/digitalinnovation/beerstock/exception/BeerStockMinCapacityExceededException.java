@@ -6,8 +6,10 @@ import org.springframework.web.bind.annotation.ResponseStatus;
 @ResponseStatus(HttpStatus.BAD_REQUEST)
 public class BeerStockMinCapacityExceededException extends Exception {
 
+    public static final String MESSAGE = "Beers with %s ID to decrement informed exceeds the max stock capacity: %s";
+
     public BeerStockMinCapacityExceededException(Long id, int quantityToDecrement) {
-        super(String.format("Beers with %s ID to decrement informed exceeds the max stock capacity: %s", id, quantityToDecrement));
+        super(String.format(MESSAGE, id, quantityToDecrement));
     }
 }
 
@@ -0,0 +1,12 @@
+package one.digitalinnovation.beerstock.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+@ResponseStatus(HttpStatus.CONFLICT)
+public class IdempotentRequestInProgressException extends Exception {
+
+    public IdempotentRequestInProgressException(String idempotencyKey) {
+        super(String.format("A request with idempotency key %s is still being processed.", idempotencyKey));
+    }
+}
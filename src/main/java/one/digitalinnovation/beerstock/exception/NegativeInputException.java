@@ -5,7 +5,9 @@ import org.springframework.web.bind.annotation.ResponseStatus;
 
 @ResponseStatus(HttpStatus.BAD_REQUEST)
 public class NegativeInputException extends Exception{
+    public static final String MESSAGE = " Exceeds the min stock capacity: %s";
+
     public NegativeInputException(int quantity) {
-    super(String.format(" Exceeds the min stock capacity: %s",quantity));
+    super(String.format(MESSAGE,quantity));
 }
 }
\ No newline at end of file
@@ -0,0 +1,121 @@
+package one.digitalinnovation.beerstock.mapper;
+
+import one.digitalinnovation.beerstock.dto.BeerDTO;
+import one.digitalinnovation.beerstock.dto.QuantityDTO;
+import one.digitalinnovation.beerstock.enums.BeerType;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * Compact binary layout of {@link BeerDTO} and {@link QuantityDTO}, big-endian as
+ * written by {@link DataOutput}. Each message starts with one byte of presence flags,
+ * one bit per field in declaration order, followed by the present fields only:
+ * <pre>
+ * BeerDTO     u8 flags | i64 id | utf name | utf brand | i32 max | i32 min | i32 quantity | u8 type
+ * QuantityDTO u8 flags | i32 quantity
+ * </pre>
+ * Strings are {@link DataOutput#writeUTF(String) length-prefixed modified UTF-8}. Beer
+ * types travel as the fixed codes of {@link #TYPES_BY_CODE}, not as ordinals, so
+ * reordering {@link BeerType} does not change the wire format; new types are appended.
+ */
+public final class BeerBinaryCodec {
+
+    private static final BeerType[] TYPES_BY_CODE = {
+            BeerType.LAGER, BeerType.MALZBIER, BeerType.WITBIER, BeerType.WEISS, BeerType.ALE, BeerType.IPA, BeerType.STOUT
+    };
+    private static final Map<BeerType, Integer> CODES_BY_TYPE = new EnumMap<>(BeerType.class);
+
+    private static final int ID = 1;
+    private static final int NAME = 1 << 1;
+    private static final int BRAND = 1 << 2;
+    private static final int MAX = 1 << 3;
+    private static final int MIN = 1 << 4;
+    private static final int QUANTITY = 1 << 5;
+    private static final int TYPE = 1 << 6;
+
+    static {
+        for (int code = 0; code < TYPES_BY_CODE.length; code++) {
+            CODES_BY_TYPE.put(TYPES_BY_CODE[code], code);
+        }
+    }
+
+    private BeerBinaryCodec() {
+    }
+
+    public static void writeBeer(BeerDTO beer, DataOutput output) throws IOException {
+        output.writeByte(flag(beer.getId(), ID) | flag(beer.getName(), NAME) | flag(beer.getBrand(), BRAND)
+                | flag(beer.getMax(), MAX) | flag(beer.getMin(), MIN) | flag(beer.getQuantity(), QUANTITY) | flag(beer.getType(), TYPE));
+        if (beer.getId() != null) {
+            output.writeLong(beer.getId());
+        }
+        if (beer.getName() != null) {
+            output.writeUTF(beer.getName());
+        }
+        if (beer.getBrand() != null) {
+            output.writeUTF(beer.getBrand());
+        }
+        if (beer.getMax() != null) {
+            output.writeInt(beer.getMax());
+        }
+        if (beer.getMin() != null) {
+            output.writeInt(beer.getMin());
+        }
+        if (beer.getQuantity() != null) {
+            output.writeInt(beer.getQuantity());
+        }
+        if (beer.getType() != null) {
+            output.writeByte(CODES_BY_TYPE.get(beer.getType()));
+        }
+    }
+
+    public static BeerDTO readBeer(DataInput input) throws IOException {
+        int flags = input.readUnsignedByte();
+        BeerDTO beer = new BeerDTO();
+        if ((flags & ID) != 0) {
+            beer.setId(input.readLong());
+        }
+        if ((flags & NAME) != 0) {
+            beer.setName(input.readUTF());
+        }
+        if ((flags & BRAND) != 0) {
+            beer.setBrand(input.readUTF());
+        }
+        if ((flags & MAX) != 0) {
+            beer.setMax(input.readInt());
+        }
+        if ((flags & MIN) != 0) {
+            beer.setMin(input.readInt());
+        }
+        if ((flags & QUANTITY) != 0) {
+            beer.setQuantity(input.readInt());
+        }
+        if ((flags & TYPE) != 0) {
+            int code = input.readUnsignedByte();
+            if (code >= TYPES_BY_CODE.length) {
+                throw new IOException("Unknown beer type code " + code);
+            }
+            beer.setType(TYPES_BY_CODE[code]);
+        }
+        return beer;
+    }
+
+    public static void writeQuantity(QuantityDTO quantity, DataOutput output) throws IOException {
+        output.writeByte(flag(quantity.getQuantity(), 1));
+        if (quantity.getQuantity() != null) {
+            output.writeInt(quantity.getQuantity());
+        }
+    }
+
+    public static QuantityDTO readQuantity(DataInput input) throws IOException {
+        int flags = input.readUnsignedByte();
+        return new QuantityDTO((flags & 1) != 0 ? input.readInt() : null);
+    }
+
+    private static int flag(Object field, int bit) {
+        return field != null ? bit : 0;
+    }
+}
@@ -0,0 +1,51 @@
+package one.digitalinnovation.beerstock.mapper;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.SerializableString;
+import com.fasterxml.jackson.core.io.SerializedString;
+import one.digitalinnovation.beerstock.enums.BeerType;
+import one.digitalinnovation.beerstock.repository.BeerRowHandler;
+
+import java.io.IOException;
+
+/**
+ * Writes beer rows as the same JSON objects Jackson produces for a {@code BeerDTO}
+ * (same field names and order), straight from the columns: the numbers are written
+ * as primitives and the field names are pre-encoded once.
+ */
+public class BeerJsonWriter implements BeerRowHandler {
+
+    private static final SerializableString ID = new SerializedString("id");
+    private static final SerializableString NAME = new SerializedString("name");
+    private static final SerializableString BRAND = new SerializedString("brand");
+    private static final SerializableString MAX = new SerializedString("max");
+    private static final SerializableString MIN = new SerializedString("min");
+    private static final SerializableString QUANTITY = new SerializedString("quantity");
+    private static final SerializableString TYPE = new SerializedString("type");
+
+    private final JsonGenerator generator;
+
+    public BeerJsonWriter(JsonGenerator generator) {
+        this.generator = generator;
+    }
+
+    @Override
+    public void handle(long id, String name, String brand, int max, int min, int quantity, BeerType type) throws IOException {
+        generator.writeStartObject();
+        generator.writeFieldName(ID);
+        generator.writeNumber(id);
+        generator.writeFieldName(NAME);
+        generator.writeString(name);
+        generator.writeFieldName(BRAND);
+        generator.writeString(brand);
+        generator.writeFieldName(MAX);
+        generator.writeNumber(max);
+        generator.writeFieldName(MIN);
+        generator.writeNumber(min);
+        generator.writeFieldName(QUANTITY);
+        generator.writeNumber(quantity);
+        generator.writeFieldName(TYPE);
+        generator.writeString(type.name());
+        generator.writeEndObject();
+    }
+}
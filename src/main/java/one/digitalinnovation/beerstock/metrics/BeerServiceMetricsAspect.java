@@ -0,0 +1,68 @@
+package one.digitalinnovation.beerstock.metrics;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import one.digitalinnovation.beerstock.service.StockOutcome;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.aspectj.lang.annotation.Pointcut;
+import org.springframework.stereotype.Component;
+
+/**
+ * Times the public {@code BeerService} operations with a percentile histogram and
+ * counts the exceptions they throw, tagged by method and exception name. Rejected
+ * {@link StockOutcome}s are counted under the exception they stand in for. Getters
+ * such as {@code getCatalogVersion}, read on every catalog request, and the startup
+ * seeding and warm-up are left out.
+ */
+@Aspect
+@Component
+public class BeerServiceMetricsAspect {
+
+    static final String SERVICE_TIMER = "beerstock.service";
+    static final String EXCEPTION_COUNTER = "beerstock.exceptions";
+    private static final String NONE = "none";
+
+    private final MeterRegistry meterRegistry;
+
+    public BeerServiceMetricsAspect(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Pointcut("execution(public * one.digitalinnovation.beerstock.service.BeerService.*(..))")
+    void publicServiceMethod() {
+    }
+
+    @Pointcut("execution(* one.digitalinnovation.beerstock.service.BeerService.get*(..))"
+            + " || execution(* one.digitalinnovation.beerstock.service.BeerService.seedInMemoryStockViews(..))"
+            + " || execution(* one.digitalinnovation.beerstock.service.BeerService.preloadNameCache(..))")
+    void housekeepingMethod() {
+    }
+
+    @Around("publicServiceMethod() && !housekeepingMethod()")
+    public Object timeServiceMethod(ProceedingJoinPoint joinPoint) throws Throwable {
+        String method = joinPoint.getSignature().getName();
+        Timer.Sample sample = Timer.start(meterRegistry);
+        String exception = NONE;
+        try {
+            Object result = joinPoint.proceed();
+            if (result instanceof StockOutcome && !((StockOutcome) result).isApplied()) {
+                exception = ((StockOutcome) result).getStatus().getException().getSimpleName();
+                meterRegistry.counter(EXCEPTION_COUNTER, "method", method, "exception", exception).increment();
+            }
+            return result;
+        } catch (Throwable e) {
+            exception = e.getClass().getSimpleName();
+            meterRegistry.counter(EXCEPTION_COUNTER, "method", method, "exception", exception).increment();
+            throw e;
+        } finally {
+            sample.stop(Timer.builder(SERVICE_TIMER)
+                    .description("Time spent in BeerService methods")
+                    .tag("method", method)
+                    .tag("exception", exception)
+                    .publishPercentileHistogram()
+                    .register(meterRegistry));
+        }
+    }
+}
@@ -0,0 +1,52 @@
+package one.digitalinnovation.beerstock.metrics;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import one.digitalinnovation.beerstock.enums.BeerType;
+import one.digitalinnovation.beerstock.repository.BeerRepository;
+import one.digitalinnovation.beerstock.repository.TypeStockTotal;
+import org.springframework.context.annotation.Profile;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Publishes the total stock per {@link BeerType} and the number of beers at or below
+ * their minimum. The values are refreshed from the database on a fixed delay, so a
+ * scrape never runs a query.
+ */
+@Component
+@Profile("!reactive")
+public class StockGauges {
+
+    private final BeerRepository beerRepository;
+    private final AtomicLongArray totalsByType = new AtomicLongArray(BeerType.values().length);
+    private final AtomicLong understocked = new AtomicLong();
+
+    public StockGauges(BeerRepository beerRepository, MeterRegistry meterRegistry) {
+        this.beerRepository = beerRepository;
+        for (BeerType type : BeerType.values()) {
+            Gauge.builder("beerstock.stock.quantity", totalsByType, totals -> totals.get(type.ordinal()))
+                    .description("Total stock of the beers of a type")
+                    .tag("type", type.name())
+                    .register(meterRegistry);
+        }
+        Gauge.builder("beerstock.beers.understocked", understocked, AtomicLong::get)
+                .description("Beers whose stock is at or below their minimum")
+                .register(meterRegistry);
+    }
+
+    @Scheduled(fixedDelayString = "${beerstock.metrics.stock-gauges-refresh-ms:15000}")
+    public void refresh() {
+        long[] totals = new long[BeerType.values().length];
+        for (TypeStockTotal typeStockTotal : beerRepository.sumQuantityByType()) {
+            totals[typeStockTotal.getType().ordinal()] = typeStockTotal.getTotal();
+        }
+        for (int i = 0; i < totals.length; i++) {
+            totalsByType.set(i, totals[i]);
+        }
+        understocked.set(beerRepository.countAtOrBelowMin());
+    }
+}
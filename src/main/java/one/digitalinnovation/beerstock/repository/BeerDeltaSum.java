@@ -0,0 +1,10 @@
+package one.digitalinnovation.beerstock.repository;
+
+public interface BeerDeltaSum {
+
+    Long getBeerId();
+
+    Long getTotal();
+
+    Long getLastMovementId();
+}
@@ -1,11 +1,90 @@
 package one.digitalinnovation.beerstock.repository;
 
+import one.digitalinnovation.beerstock.dto.BeerDTO;
+import one.digitalinnovation.beerstock.dto.BeerStockDTO;
 import one.digitalinnovation.beerstock.entity.Beer;
+import one.digitalinnovation.beerstock.enums.BeerType;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
-public interface BeerRepository extends JpaRepository<Beer, Long> {
+public interface BeerRepository extends JpaRepository<Beer, Long>, BeerStockBatchRepository, BeerRowRepository {
 
     Optional<Beer> findByName(String name);
+
+    @Query("select b.name from Beer b where b.name in :names")
+    List<String> findNamesIn(@Param("names") Collection<String> names);
+
+    @Query("select b.type as type, sum(b.quantity) as total from Beer b group by b.type")
+    List<TypeStockTotal> sumQuantityByType();
+
+    @Query("select b.type as type, b.quantity as quantity, count(b) as beers from Beer b group by b.type, b.quantity")
+    List<TypeQuantityCount> countByTypeAndQuantity();
+
+    @Query("select count(b) from Beer b where b.quantity <= b.min")
+    long countAtOrBelowMin();
+
+    List<Beer> findByIdGreaterThanOrderByIdAsc(Long id, Pageable pageable);
+
+    @Query("select new one.digitalinnovation.beerstock.dto.BeerDTO(b.id, b.name, b.brand, b.max, b.min, b.quantity, b.type) from Beer b where b.brand = :brand order by b.id")
+    List<BeerDTO> findAllByBrandOrderedById(@Param("brand") String brand);
+
+    @Query("select new one.digitalinnovation.beerstock.dto.BeerDTO(b.id, b.name, b.brand, b.max, b.min, b.quantity, b.type) from Beer b where b.type = :type order by b.id")
+    List<BeerDTO> findAllByTypeOrderedById(@Param("type") BeerType type);
+
+    /**
+     * Beers at or below their {@code min}, reading only the columns a restock needs.
+     */
+    @Query("select new one.digitalinnovation.beerstock.dto.BeerStockDTO(b.id, b.name, b.quantity, b.min, b.max) from Beer b where b.quantity <= b.min order by b.id")
+    List<BeerStockDTO> findStockAtOrBelowMin();
+
+    /**
+     * Beers at or above their {@code max}, reading only the columns a restock needs.
+     */
+    @Query("select new one.digitalinnovation.beerstock.dto.BeerStockDTO(b.id, b.name, b.quantity, b.min, b.max) from Beer b where b.quantity >= b.max order by b.id")
+    List<BeerStockDTO> findStockAtOrAboveMax();
+
+    @Query("select new one.digitalinnovation.beerstock.dto.BeerStockDTO(b.id, b.name, b.quantity, b.min, b.max) from Beer b")
+    List<BeerStockDTO> findAllStockLevels();
+
+    @Query("select b.quantity from Beer b where b.id = :id")
+    Optional<Integer> findQuantityById(@Param("id") Long id);
+
+    /**
+     * Adds {@code quantity} to the stock in a single statement, guarded by {@code max}.
+     *
+     * @return 1 when the row was updated, 0 when the beer does not exist or the guard failed
+     */
+    @Transactional
+    @Modifying
+    @Query("update Beer b set b.quantity = b.quantity + :quantity, b.version = b.version + 1 where b.id = :id and b.quantity + :quantity <= b.max")
+    int incrementQuantity(@Param("id") Long id, @Param("quantity") int quantity);
+
+    /**
+     * Subtracts {@code quantity} from the stock in a single statement, guarded by {@code min}.
+     *
+     * @return 1 when the row was updated, 0 when the beer does not exist or the guard failed
+     */
+    @Transactional
+    @Modifying
+    @Query("update Beer b set b.quantity = b.quantity - :quantity, b.version = b.version + 1 where b.id = :id and b.quantity - :quantity >= b.min")
+    int decrementQuantity(@Param("id") Long id, @Param("quantity") int quantity);
+
+    /**
+     * Deletes the beer in a single statement that ignores its version, so a stock
+     * adjustment committed after the beer was read cannot fail the delete.
+     *
+     * @return 1 when the row was deleted, 0 when the beer does not exist
+     */
+    @Transactional
+    @Modifying
+    @Query("delete from Beer b where b.id = :id")
+    int removeById(@Param("id") Long id);
 }
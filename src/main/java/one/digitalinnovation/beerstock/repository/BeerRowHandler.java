@@ -0,0 +1,15 @@
+package one.digitalinnovation.beerstock.repository;
+
+import one.digitalinnovation.beerstock.enums.BeerType;
+
+import java.io.IOException;
+
+/**
+ * Receives one beer row column by column, so a read path can consume the catalog
+ * without building a {@code Beer} or a {@code BeerDTO} and without boxing the quantities.
+ */
+@FunctionalInterface
+public interface BeerRowHandler {
+
+    void handle(long id, String name, String brand, int max, int min, int quantity, BeerType type) throws IOException;
+}
@@ -0,0 +1,12 @@
+package one.digitalinnovation.beerstock.repository;
+
+import java.io.IOException;
+
+public interface BeerRowRepository {
+
+    /**
+     * Scrolls the whole beer table ordered by id through plain JDBC, handing each
+     * row to {@code handler} before the next one is read.
+     */
+    void scanAllOrderedById(BeerRowHandler handler) throws IOException;
+}
@@ -0,0 +1,37 @@
+package one.digitalinnovation.beerstock.repository;
+
+import one.digitalinnovation.beerstock.enums.BeerType;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+
+public class BeerRowRepositoryImpl implements BeerRowRepository {
+
+    private static final String SELECT_ALL_ORDERED_BY_ID = "select id, name, brand, max, min, quantity, type from beer order by id";
+    private static final int FETCH_SIZE = 500;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public BeerRowRepositoryImpl(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @Override
+    public void scanAllOrderedById(BeerRowHandler handler) throws IOException {
+        try {
+            jdbcTemplate.query(SELECT_ALL_ORDERED_BY_ID,
+                    statement -> statement.setFetchSize(FETCH_SIZE),
+                    resultSet -> {
+                        try {
+                            handler.handle(resultSet.getLong(1), resultSet.getString(2), resultSet.getString(3),
+                                    resultSet.getInt(4), resultSet.getInt(5), resultSet.getInt(6), BeerType.valueOf(resultSet.getString(7)));
+                        } catch (IOException e) {
+                            throw new UncheckedIOException(e);
+                        }
+                    });
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+}
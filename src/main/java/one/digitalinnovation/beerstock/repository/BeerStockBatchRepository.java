@@ -0,0 +1,15 @@
+package one.digitalinnovation.beerstock.repository;
+
+import java.util.Map;
+import java.util.Set;
+
+public interface BeerStockBatchRepository {
+
+    /**
+     * Applies one net delta per beer through JDBC batches, each statement guarded by
+     * {@code max} for positive deltas and by {@code min} for negative ones.
+     *
+     * @return the ids whose row was not updated, because it does not exist or the guard failed
+     */
+    Set<Long> applyQuantityDeltas(Map<Long, Integer> deltasById);
+}
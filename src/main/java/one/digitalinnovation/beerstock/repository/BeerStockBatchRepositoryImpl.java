@@ -0,0 +1,56 @@
+package one.digitalinnovation.beerstock.repository;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+public class BeerStockBatchRepositoryImpl implements BeerStockBatchRepository {
+
+    private static final String INCREMENT_QUANTITY = "update beer set quantity = quantity + ?, version = version + 1 where id = ? and quantity + ? <= max";
+    private static final String DECREMENT_QUANTITY = "update beer set quantity = quantity - ?, version = version + 1 where id = ? and quantity - ? >= min";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public BeerStockBatchRepositoryImpl(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @Override
+    public Set<Long> applyQuantityDeltas(Map<Long, Integer> deltasById) {
+        List<Long> incrementIds = new ArrayList<>();
+        List<Object[]> increments = new ArrayList<>();
+        List<Long> decrementIds = new ArrayList<>();
+        List<Object[]> decrements = new ArrayList<>();
+        deltasById.forEach((id, delta) -> {
+            int quantity = Math.abs(delta);
+            if (delta >= 0) {
+                incrementIds.add(id);
+                increments.add(new Object[]{quantity, id, quantity});
+            } else {
+                decrementIds.add(id);
+                decrements.add(new Object[]{quantity, id, quantity});
+            }
+        });
+
+        Set<Long> rejectedIds = new HashSet<>();
+        collectRejected(incrementIds, batchUpdate(INCREMENT_QUANTITY, increments), rejectedIds);
+        collectRejected(decrementIds, batchUpdate(DECREMENT_QUANTITY, decrements), rejectedIds);
+        return rejectedIds;
+    }
+
+    private int[] batchUpdate(String sql, List<Object[]> arguments) {
+        return arguments.isEmpty() ? new int[0] : jdbcTemplate.batchUpdate(sql, arguments);
+    }
+
+    private static void collectRejected(List<Long> ids, int[] updateCounts, Set<Long> rejectedIds) {
+        for (int i = 0; i < updateCounts.length; i++) {
+            if (updateCounts[i] == 0) {
+                rejectedIds.add(ids.get(i));
+            }
+        }
+    }
+}
@@ -0,0 +1,45 @@
+package one.digitalinnovation.beerstock.repository;
+
+import one.digitalinnovation.beerstock.entity.Beer;
+import org.springframework.data.r2dbc.repository.Modifying;
+import org.springframework.data.r2dbc.repository.Query;
+import org.springframework.data.r2dbc.repository.R2dbcRepository;
+import org.springframework.data.repository.query.Param;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * R2DBC counterpart of {@link BeerRepository} for the {@code reactive} profile. It
+ * works on the same tables, so ids are taken from the same sequence and stock is
+ * changed with the same guarded UPDATEs.
+ */
+public interface ReactiveBeerRepository extends R2dbcRepository<Beer, Long> {
+
+    Mono<Beer> findByName(String name);
+
+    Flux<Beer> findAllByOrderByIdAsc();
+
+    /**
+     * Each value is used as a single id. Hibernate's pooled optimizer only hands out
+     * ids above the sequence values it fetched itself, so the two never collide.
+     */
+    @Query("select next value for beer_sequence")
+    Mono<Long> nextId();
+
+    @Modifying
+    @Query("insert into beer (id, name, brand, max, min, quantity, type) values (:id, :name, :brand, :max, :min, :quantity, :type)")
+    Mono<Integer> insert(@Param("id") Long id, @Param("name") String name, @Param("brand") String brand,
+                         @Param("max") int max, @Param("min") int min, @Param("quantity") int quantity, @Param("type") String type);
+
+    @Modifying
+    @Query("update beer set quantity = quantity + :quantity, version = version + 1 where id = :id and quantity + :quantity <= max")
+    Mono<Integer> incrementQuantity(@Param("id") Long id, @Param("quantity") int quantity);
+
+    @Modifying
+    @Query("update beer set quantity = quantity - :quantity, version = version + 1 where id = :id and quantity - :quantity >= min")
+    Mono<Integer> decrementQuantity(@Param("id") Long id, @Param("quantity") int quantity);
+
+    @Modifying
+    @Query("insert into stock_movement (id, beer_id, delta, reason, created_at) values (next value for stock_movement_sequence, :beerId, :delta, :reason, current_timestamp)")
+    Mono<Integer> recordMovement(@Param("beerId") Long beerId, @Param("delta") int delta, @Param("reason") String reason);
+}
@@ -0,0 +1,29 @@
+package one.digitalinnovation.beerstock.repository;
+
+import one.digitalinnovation.beerstock.entity.StockMovement;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.Instant;
+import java.util.List;
+
+public interface StockMovementRepository extends JpaRepository<StockMovement, Long> {
+
+    List<StockMovement> findByBeerIdOrderByIdDesc(Long beerId, Pageable pageable);
+
+    @Query("select coalesce(sum(m.delta), 0) from StockMovement m where m.beerId = :beerId and m.id > :afterId")
+    long sumDeltasAfter(@Param("beerId") Long beerId, @Param("afterId") long afterId);
+
+    @Query("select coalesce(sum(m.delta), 0) from StockMovement m where m.beerId = :beerId and m.createdAt <= :at")
+    long sumDeltasUntil(@Param("beerId") Long beerId, @Param("at") Instant at);
+
+    /**
+     * Sums, per beer, the committed movements after the last one folded into its snapshot.
+     */
+    @Query("select m.beerId as beerId, sum(m.delta) as total, max(m.id) as lastMovementId from StockMovement m"
+            + " left join StockSnapshot s on s.beerId = m.beerId"
+            + " where m.id > coalesce(s.lastMovementId, 0) group by m.beerId")
+    List<BeerDeltaSum> sumUnfoldedDeltasByBeer();
+}
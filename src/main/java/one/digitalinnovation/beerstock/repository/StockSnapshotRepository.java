@@ -0,0 +1,7 @@
+package one.digitalinnovation.beerstock.repository;
+
+import one.digitalinnovation.beerstock.entity.StockSnapshot;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+public interface StockSnapshotRepository extends JpaRepository<StockSnapshot, Long> {
+}
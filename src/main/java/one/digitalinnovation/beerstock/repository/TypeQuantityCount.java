@@ -0,0 +1,12 @@
+package one.digitalinnovation.beerstock.repository;
+
+import one.digitalinnovation.beerstock.enums.BeerType;
+
+public interface TypeQuantityCount {
+
+    BeerType getType();
+
+    Integer getQuantity();
+
+    Long getBeers();
+}
@@ -0,0 +1,10 @@
+package one.digitalinnovation.beerstock.repository;
+
+import one.digitalinnovation.beerstock.enums.BeerType;
+
+public interface TypeStockTotal {
+
+    BeerType getType();
+
+    Long getTotal();
+}
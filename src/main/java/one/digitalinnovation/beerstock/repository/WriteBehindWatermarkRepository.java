@@ -0,0 +1,7 @@
+package one.digitalinnovation.beerstock.repository;
+
+import one.digitalinnovation.beerstock.entity.WriteBehindWatermark;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+public interface WriteBehindWatermarkRepository extends JpaRepository<WriteBehindWatermark, String> {
+}
@@ -0,0 +1,52 @@
+package one.digitalinnovation.beerstock.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+
+import java.time.Duration;
+
+/**
+ * Bounded cache of beers by name. Entries are the beers' {@link BoundedStockCounter}s,
+ * so a cached beer always reports the live quantity and increments or decrements
+ * never leave a stale entry behind; only creation and deletion have to touch it.
+ */
+public class BeerNameCache {
+
+    private final Cache<String, BoundedStockCounter> cache;
+
+    public BeerNameCache(long maximumSize, Duration expireAfterWrite) {
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(expireAfterWrite)
+                .recordStats()
+                .build();
+    }
+
+    public BoundedStockCounter get(String name) {
+        return cache.getIfPresent(name);
+    }
+
+    public void put(String name, BoundedStockCounter counter) {
+        cache.put(name, counter);
+    }
+
+    public void evict(String name) {
+        cache.invalidate(name);
+    }
+
+    /**
+     * Evicts {@code name} only while it is still cached with {@code counter}.
+     */
+    public void evict(String name, BoundedStockCounter counter) {
+        cache.asMap().remove(name, counter);
+    }
+
+    /**
+     * Publishes the hit, miss, eviction and size metrics of this cache.
+     */
+    public void bindTo(MeterRegistry meterRegistry, String cacheName) {
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, cacheName);
+    }
+}
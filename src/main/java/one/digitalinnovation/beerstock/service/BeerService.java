@@ -2,35 +2,244 @@ package one.digitalinnovation.beerstock.service;
 
 import lombok.AllArgsConstructor;
 import one.digitalinnovation.beerstock.dto.BeerDTO;
+import one.digitalinnovation.beerstock.dto.BeerPageDTO;
+import one.digitalinnovation.beerstock.dto.BeerStockDTO;
+import one.digitalinnovation.beerstock.dto.StockLedgerEntryDTO;
+import one.digitalinnovation.beerstock.dto.StockLevelDTO;
+import one.digitalinnovation.beerstock.dto.StockMovementDTO;
+import one.digitalinnovation.beerstock.dto.StockMovementResultDTO;
+import one.digitalinnovation.beerstock.dto.TypeStockStatisticsDTO;
 import one.digitalinnovation.beerstock.entity.Beer;
+import one.digitalinnovation.beerstock.entity.StockMovement;
+import one.digitalinnovation.beerstock.enums.BeerType;
+import one.digitalinnovation.beerstock.enums.StockMovementReason;
 import one.digitalinnovation.beerstock.exception.*;
 import one.digitalinnovation.beerstock.mapper.BeerMapper;
+import one.digitalinnovation.beerstock.mapper.StockMovementMapper;
 import one.digitalinnovation.beerstock.repository.BeerRepository;
+import one.digitalinnovation.beerstock.repository.BeerRowHandler;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.hibernate.exception.ConstraintViolationException;
+import org.springframework.context.annotation.Profile;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.annotation.PostConstruct;
+
+import java.io.IOException;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.stream.Collectors;
 
 @Service
+@Profile("!reactive")
 @AllArgsConstructor(onConstructor = @__(@Autowired))
 public class BeerService {
 
+    public static final int MAX_PAGE_SIZE = 1000;
+
     private final BeerRepository beerRepository;
+    private final BeerNameCache beerNameCache;
+    private final StockLedgerService stockLedger;
+    private final WriteBehindStockBuffer writeBehindStockBuffer;
+    private final StockHeadroomIndex stockHeadroomIndex;
+    private final TypeStockStatistics typeStockStatistics;
+    private final ShardedStockEngine shardedStockEngine;
+    private final StockWriteRetry stockWriteRetry;
     private final BeerMapper beerMapper = BeerMapper.INSTANCE;
+    private final StockMovementMapper stockMovementMapper = StockMovementMapper.INSTANCE;
+    private final StockCounterRegistry stockCounters = new StockCounterRegistry();
+    private final AtomicLong catalogVersion = new AtomicLong();
+    private final AtomicLong deletions = new AtomicLong();
+
+    /**
+     * Loads every beer into the {@link StockHeadroomIndex} and the {@link TypeStockStatistics}
+     * before requests are served. Depends on the write-behind buffer, so deltas
+     * journaled before a crash are already in the database by now.
+     */
+    @PostConstruct
+    public void seedInMemoryStockViews() {
+        beerRepository.findAllStockLevels().forEach(stockHeadroomIndex::put);
+        typeStockStatistics.reconcile(beerRepository.countByTypeAndQuantity());
+        // in write-behind mode listAll only sees an adjustment once it is flushed
+        writeBehindStockBuffer.addFlushListener(catalogVersion::incrementAndGet);
+    }
 
+    /**
+     * Inserts the beer straight away and relies on the unique constraint on its name
+     * to detect duplicates, instead of looking the name up first.
+     */
+    @Transactional(rollbackFor = BeerAlreadyRegisteredException.class)
     public BeerDTO createBeer(BeerDTO beerDTO) throws BeerAlreadyRegisteredException, BeerStockRequiredFieldException {
-        verifyIfIsAlreadyRegistered(beerDTO.getName());
         verifyIfFieldsAreNotNull(beerDTO);
         Beer beer = beerMapper.toModel(beerDTO);
-        Beer savedBeer = beerRepository.save(beer);
-        return beerMapper.toDTO(savedBeer);
+        beer.setId(null);
+        typeStockStatistics.beginWrite();
+        try {
+            Beer savedBeer;
+            try {
+                savedBeer = beerRepository.saveAndFlush(beer);
+            } catch (DataIntegrityViolationException e) {
+                throw alreadyRegisteredOrRethrow(e, beerDTO.getName());
+            }
+            stockLedger.record(savedBeer.getId(), savedBeer.getQuantity(), StockMovementReason.CREATION);
+            afterCommit(() -> {
+                beerNameCache.put(savedBeer.getName(), stockCounters.counterFor(savedBeer));
+                beerAdded(savedBeer);
+            });
+            return beerMapper.toDTO(savedBeer);
+        } finally {
+            endStatisticsWrite();
+        }
+    }
+
+    /**
+     * Creates all the given beers in one transaction, inserted with JDBC batching.
+     * Names are checked for duplicates within the request and against the catalog with
+     * a single query; nothing is created if any of them is already registered.
+     */
+    @Transactional(rollbackFor = BeerAlreadyRegisteredException.class)
+    public List<BeerDTO> createBeers(List<BeerDTO> beerDTOs) throws BeerAlreadyRegisteredException, BeerStockRequiredFieldException {
+        Set<String> names = new HashSet<>();
+        for (BeerDTO beerDTO : beerDTOs) {
+            verifyIfFieldsAreNotNull(beerDTO);
+            if (!names.add(beerDTO.getName())) {
+                throw new BeerAlreadyRegisteredException(beerDTO.getName());
+            }
+        }
+        List<String> registeredNames = beerRepository.findNamesIn(names);
+        if (!registeredNames.isEmpty()) {
+            throw new BeerAlreadyRegisteredException(registeredNames.get(0));
+        }
+        return insertBeers(beerDTOs);
+    }
+
+    /**
+     * Creates, in one transaction, the given beers whose name is not registered yet,
+     * found with a single query; the others are skipped. The beers must have distinct
+     * names and pass the checks {@link #createBeers} makes.
+     *
+     * @return the beers created
+     * @throws BeerAlreadyRegisteredException when one of the names was registered concurrently
+     */
+    @Transactional(rollbackFor = BeerAlreadyRegisteredException.class)
+    public List<BeerDTO> createUnregisteredBeers(List<BeerDTO> beerDTOs) throws BeerAlreadyRegisteredException {
+        Set<String> registeredNames = new HashSet<>(beerRepository.findNamesIn(beerDTOs.stream()
+                .map(BeerDTO::getName)
+                .collect(Collectors.toList())));
+        if (registeredNames.isEmpty()) {
+            return insertBeers(beerDTOs);
+        }
+        return insertBeers(beerDTOs.stream()
+                .filter(beerDTO -> !registeredNames.contains(beerDTO.getName()))
+                .collect(Collectors.toList()));
+    }
+
+    private List<BeerDTO> insertBeers(List<BeerDTO> beerDTOs) throws BeerAlreadyRegisteredException {
+        if (beerDTOs.isEmpty()) {
+            return new ArrayList<>();
+        }
+        List<Beer> beers = new ArrayList<>(beerDTOs.size());
+        for (BeerDTO beerDTO : beerDTOs) {
+            Beer beer = beerMapper.toModel(beerDTO);
+            beer.setId(null);
+            beers.add(beer);
+        }
+        typeStockStatistics.beginWrite();
+        try {
+            List<Beer> savedBeers;
+            try {
+                savedBeers = beerRepository.saveAll(beers);
+                beerRepository.flush();
+            } catch (DataIntegrityViolationException e) {
+                throw alreadyRegisteredOrRethrow(e, beerDTOs.stream().map(BeerDTO::getName).collect(Collectors.joining(", ")));
+            }
+            List<StockMovement> initialStock = new ArrayList<>(savedBeers.size());
+            for (Beer savedBeer : savedBeers) {
+                initialStock.add(new StockMovement(savedBeer.getId(), savedBeer.getQuantity(), StockMovementReason.CREATION));
+            }
+            stockLedger.recordAll(initialStock);
+            afterCommit(() -> savedBeers.forEach(this::beerAdded));
+            return savedBeers.stream()
+                    .map(beerMapper::toDTO)
+                    .collect(Collectors.toList());
+        } finally {
+            endStatisticsWrite();
+        }
     }
 
     public BeerDTO findByName(String name) throws BeerNotFoundException {
-        Beer foundBeer = beerRepository.findByName(name)
-                .orElseThrow(() -> new BeerNotFoundException(name));
-        return beerMapper.toDTO(foundBeer);
+        BoundedStockCounter counter = beerNameCache.get(name);
+        if (counter == null) {
+            long deletionsBefore = deletions.get();
+            Beer foundBeer = beerRepository.findByName(name)
+                    .orElseThrow(() -> new BeerNotFoundException(name));
+            counter = cacheByName(foundBeer, deletionsBefore);
+        }
+        return beerMapper.toDTO(counter.toBeer(counter.get()));
+    }
+
+    /**
+     * Caches {@code beer}, read from the database after {@code deletionsBefore} was taken,
+     * under its name. A delete that finished in between may have evicted the beer before
+     * it got cached here, so the beer is then checked again and dropped if it is gone.
+     */
+    private BoundedStockCounter cacheByName(Beer beer, long deletionsBefore) {
+        BoundedStockCounter counter = stockCounters.counterFor(beer);
+        beerNameCache.put(beer.getName(), counter);
+        if (deletions.get() != deletionsBefore && !beerRepository.existsById(beer.getId())) {
+            stockCounters.evict(beer.getId());
+            beerNameCache.evict(beer.getName(), counter);
+        }
+        return counter;
+    }
+
+    /**
+     * Loads up to {@code limit} beers, in id order, into the name cache so the first
+     * lookups after a restart do not each pay a query.
+     *
+     * @return the names loaded
+     */
+    public List<String> preloadNameCache(int limit) {
+        List<String> names = new ArrayList<>();
+        long afterId = 0;
+        while (names.size() < limit) {
+            int pageSize = Math.min(MAX_PAGE_SIZE, limit - names.size());
+            long deletionsBefore = deletions.get();
+            List<Beer> beers = beerRepository.findByIdGreaterThanOrderByIdAsc(afterId, PageRequest.of(0, pageSize));
+            for (Beer beer : beers) {
+                cacheByName(beer, deletionsBefore);
+                names.add(beer.getName());
+            }
+            if (beers.size() < pageSize) {
+                break;
+            }
+            afterId = beers.get(beers.size() - 1).getId();
+        }
+        return names;
+    }
+
+    /**
+     * Version of what {@link #listAll()} returns, bumped after every committed change
+     * to a beer or its stock. Equal versions mean {@code listAll} would return the same beers.
+     */
+    public long getCatalogVersion() {
+        return catalogVersion.get();
     }
 
     public List<BeerDTO> listAll() {
@@ -40,9 +249,93 @@ public class BeerService {
                 .collect(Collectors.toList());
     }
 
+    /**
+     * Returns the beers whose id is greater than {@code afterId}, seeking on the primary
+     * key instead of using an offset. {@code size} is capped at {@link #MAX_PAGE_SIZE}.
+     */
+    public BeerPageDTO listPage(Long afterId, int size) {
+        int pageSize = Math.max(1, Math.min(size, MAX_PAGE_SIZE));
+        List<BeerDTO> beers = beerRepository.findByIdGreaterThanOrderByIdAsc(afterId == null ? 0L : afterId, PageRequest.of(0, pageSize))
+                .stream()
+                .map(beerMapper::toDTO)
+                .collect(Collectors.toList());
+        Long nextAfterId = beers.size() == pageSize ? beers.get(pageSize - 1).getId() : null;
+        return new BeerPageDTO(beers, nextAfterId);
+    }
+
+    public List<BeerDTO> findByBrand(String brand) {
+        return beerRepository.findAllByBrandOrderedById(brand);
+    }
+
+    public List<BeerDTO> findByType(BeerType type) {
+        return beerRepository.findAllByTypeOrderedById(type);
+    }
+
+    /**
+     * Beers whose stock is at or below their {@code min}. Read from the database, so
+     * in write-behind mode it can lag the counters by up to one flush interval.
+     */
+    public List<BeerStockDTO> listLowStock() {
+        return beerRepository.findStockAtOrBelowMin();
+    }
+
+    /**
+     * Beers whose stock is at or above their {@code max}, with the same lag as
+     * {@link #listLowStock()}.
+     */
+    public List<BeerStockDTO> listOverStock() {
+        return beerRepository.findStockAtOrAboveMax();
+    }
+
+    /**
+     * Number of beers and total, min, max and average stock of every type, served from
+     * the incrementally maintained {@link TypeStockStatistics}.
+     */
+    public List<TypeStockStatisticsDTO> typeStockStatistics() {
+        return typeStockStatistics.getAll();
+    }
+
+    /**
+     * Beers with the least stock above their {@code min}, closest first, read from the
+     * in-memory {@link StockHeadroomIndex}. {@code limit} is capped at {@link #MAX_PAGE_SIZE}.
+     */
+    public List<BeerStockDTO> listNearMin(int limit) {
+        return stockHeadroomIndex.closestToMin(Math.max(1, Math.min(limit, MAX_PAGE_SIZE)));
+    }
+
+    /**
+     * Beers with the least room below their {@code max}, closest first, read from the
+     * in-memory {@link StockHeadroomIndex}. {@code limit} is capped at {@link #MAX_PAGE_SIZE}.
+     */
+    public List<BeerStockDTO> listNearMax(int limit) {
+        return stockHeadroomIndex.closestToMax(Math.max(1, Math.min(limit, MAX_PAGE_SIZE)));
+    }
+
+    /**
+     * Hands every beer, ordered by id, to {@code handler} one row at a time while the
+     * underlying result set is scrolled. Neither entities nor DTOs are built, which
+     * keeps the full-catalog reads (the snapshot and the export) cheap to allocate.
+     */
+    public void exportAll(BeerRowHandler handler) throws IOException {
+        beerRepository.scanAllOrderedById(handler);
+    }
+
     public void deleteById(Long id) throws BeerNotFoundException {
-        verifyIfExists(id);
-        beerRepository.deleteById(id);
+        Beer beerToDelete = verifyIfExists(id);
+        typeStockStatistics.beginWrite();
+        try {
+            if (beerRepository.removeById(id) == 0) {
+                throw new BeerNotFoundException(id);
+            }
+            // before the evictions, so a lookup that read the beer earlier and caches it after them sees it
+            deletions.incrementAndGet();
+            evictStockCounter(id);
+            stockHeadroomIndex.remove(id, quantity -> typeStockStatistics.remove(beerToDelete.getType(), quantity));
+        } finally {
+            typeStockStatistics.endWrite();
+        }
+        catalogVersion.incrementAndGet();
+        beerNameCache.evict(beerToDelete.getName());
     }
 
     private void verifyIfFieldsAreNotNull(BeerDTO beerDTO) throws BeerStockRequiredFieldException {
@@ -50,10 +343,20 @@ public class BeerService {
          throw new BeerStockRequiredFieldException(beerDTO);
     }
 
-    private void verifyIfIsAlreadyRegistered(String name) throws BeerAlreadyRegisteredException {
-        Optional<Beer> optSavedBeer = beerRepository.findByName(name);
-        if (optSavedBeer.isPresent()) {
-            throw new BeerAlreadyRegisteredException(name);
+    private static BeerAlreadyRegisteredException alreadyRegisteredOrRethrow(DataIntegrityViolationException e, String name) {
+        Throwable cause = e.getCause();
+        if (cause instanceof ConstraintViolationException) {
+            String constraintName = ((ConstraintViolationException) cause).getConstraintName();
+            if (constraintName != null && constraintName.toLowerCase().contains(Beer.NAME_UNIQUE_CONSTRAINT)) {
+                return new BeerAlreadyRegisteredException(name);
+            }
+        }
+        throw e;
+    }
+
+    private void verifyIfIsRegistered(Long id) throws BeerNotFoundException {
+        if (!beerRepository.existsById(id)) {
+            throw new BeerNotFoundException(id);
         }
     }
 
@@ -62,32 +365,399 @@ public class BeerService {
                 .orElseThrow(() -> new BeerNotFoundException(id));
     }
 
-    private void verifyIfTheInputIsNotNegative(int quantity) throws NegativeInputException {
-        if(quantity < 0) {
-            throw new NegativeInputException(quantity);
+    public BeerDTO increment(Long id, int quantityToIncrement) throws BeerNotFoundException, BeerStockExceededException, NegativeInputException {
+        StockOutcome outcome = tryIncrement(id, quantityToIncrement);
+        switch (outcome.getStatus()) {
+            case NOT_FOUND:
+                throw new BeerNotFoundException(id);
+            case NEGATIVE_INPUT:
+                throw new NegativeInputException(quantityToIncrement);
+            case MAX_EXCEEDED:
+                throw new BeerStockExceededException(id, quantityToIncrement);
+            default:
+                return outcome.getBeer();
         }
     }
 
-    public BeerDTO increment(Long id, int quantityToIncrement) throws BeerNotFoundException, BeerStockExceededException, NegativeInputException {
-        Beer beerToIncrementStock = verifyIfExists(id);
-        verifyIfTheInputIsNotNegative(quantityToIncrement);
-        int quantityAfterIncrement = quantityToIncrement + beerToIncrementStock.getQuantity();
-        if (quantityAfterIncrement <= beerToIncrementStock.getMax()) {
-            beerToIncrementStock.setQuantity(beerToIncrementStock.getQuantity() + quantityToIncrement);
-            Beer incrementedBeerStock = beerRepository.save(beerToIncrementStock);
-            return beerMapper.toDTO(incrementedBeerStock);
+    public BeerDTO decrement(Long id, int quantityToDecrement) throws BeerNotFoundException, BeerStockMinCapacityExceededException, NegativeInputException {
+        StockOutcome outcome = tryDecrement(id, quantityToDecrement);
+        switch (outcome.getStatus()) {
+            case NOT_FOUND:
+                throw new BeerNotFoundException(id);
+            case NEGATIVE_INPUT:
+                throw new NegativeInputException(quantityToDecrement);
+            case MIN_EXCEEDED:
+                throw new BeerStockMinCapacityExceededException(id, quantityToDecrement);
+            default:
+                return outcome.getBeer();
         }
-        throw new BeerStockExceededException(id, quantityToIncrement);
     }
-    public BeerDTO decrement(Long id, int quantityToDecrement) throws BeerNotFoundException, BeerStockMinCapacityExceededException, NegativeInputException {
-        Beer beerToDecrementStock = verifyIfExists(id);
-        verifyIfTheInputIsNotNegative(quantityToDecrement);
-        int quantityAfterDecrement = beerToDecrementStock.getQuantity() - quantityToDecrement;
-        if (quantityAfterDecrement >= beerToDecrementStock.getMin()) {
-            beerToDecrementStock.setQuantity(beerToDecrementStock.getQuantity() - quantityToDecrement);
-            Beer decrementedBeerStock = beerRepository.save(beerToDecrementStock);
-            return beerMapper.toDTO(decrementedBeerStock);
-        } else{
-        throw new BeerStockMinCapacityExceededException(id, quantityToDecrement);}
+
+    /**
+     * Same as {@link #increment} but reports rejections as a {@link StockOutcome}
+     * instead of throwing.
+     */
+    public StockOutcome tryIncrement(Long id, int quantityToIncrement) {
+        return tryAdjust(id, quantityToIncrement, quantityToIncrement, StockOutcome.Status.MAX_EXCEEDED, StockMovementReason.INCREMENT);
+    }
+
+    /**
+     * Same as {@link #decrement} but reports rejections as a {@link StockOutcome}
+     * instead of throwing.
+     */
+    public StockOutcome tryDecrement(Long id, int quantityToDecrement) {
+        return tryAdjust(id, quantityToDecrement, -quantityToDecrement, StockOutcome.Status.MIN_EXCEEDED, StockMovementReason.DECREMENT);
+    }
+
+    private StockOutcome tryAdjust(Long id, int quantity, int delta, StockOutcome.Status limitExceeded, StockMovementReason reason) {
+        BoundedStockCounter counter = stockCounters.get(id);
+        if (counter == null) {
+            Optional<Beer> beer = beerRepository.findById(id);
+            if (beer.isEmpty()) {
+                return StockOutcome.rejected(StockOutcome.Status.NOT_FOUND, id, quantity);
+            }
+            counter = stockCounters.counterFor(beer.get());
+        }
+        if (quantity < 0) {
+            return StockOutcome.rejected(StockOutcome.Status.NEGATIVE_INPUT, id, quantity);
+        }
+        typeStockStatistics.beginWrite();
+        try {
+            return shardedStockEngine.isEnabled()
+                    ? tryAdjustOnShard(id, counter, quantity, delta, limitExceeded, reason)
+                    : tryAdjustDirectly(id, counter, quantity, delta, limitExceeded, reason);
+        } finally {
+            typeStockStatistics.endWrite();
+        }
+    }
+
+    private StockOutcome tryAdjustDirectly(Long id, BoundedStockCounter counter, int quantity, int delta,
+                                           StockOutcome.Status limitExceeded, StockMovementReason reason) {
+        int quantityAfterAdjustment = counter.tryAdd(delta);
+        if (quantityAfterAdjustment == BoundedStockCounter.REJECTED) {
+            return StockOutcome.rejected(limitExceeded, id, quantity);
+        }
+        if (!writeStockDelta(id, counter, delta, reason)) {
+            return StockOutcome.rejected(stillExists(id) ? limitExceeded : StockOutcome.Status.NOT_FOUND, id, quantity);
+        }
+        stockAdjusted(counter);
+        return StockOutcome.applied(beerMapper.toDTO(counter.toBeer(quantityAfterAdjustment)));
+    }
+
+    /**
+     * Hands the adjustment to the {@link ShardedStockEngine}, which checks it against the
+     * counter and writes it together with the rest of its shard's batch.
+     */
+    private StockOutcome tryAdjustOnShard(Long id, BoundedStockCounter counter, int quantity, int delta,
+                                          StockOutcome.Status limitExceeded, StockMovementReason reason) {
+        int quantityAfterAdjustment;
+        try {
+            quantityAfterAdjustment = shardedStockEngine.submit(counter, delta, reason).join();
+        } catch (CompletionException e) {
+            // the shard already took the delta back from the counter
+            throw e.getCause() instanceof RuntimeException ? (RuntimeException) e.getCause() : e;
+        }
+        if (quantityAfterAdjustment == BoundedStockCounter.REJECTED) {
+            return StockOutcome.rejected(limitExceeded, id, quantity);
+        }
+        if (quantityAfterAdjustment == ShardedStockEngine.NOT_WRITTEN) {
+            return StockOutcome.rejected(stillExists(id) ? limitExceeded : StockOutcome.Status.NOT_FOUND, id, quantity);
+        }
+        stockAdjusted(counter);
+        return StockOutcome.applied(beerMapper.toDTO(counter.toBeer(quantityAfterAdjustment)));
+    }
+
+    /**
+     * Makes a delta the counter already accepted durable: journaled for the next
+     * write-behind flush when that mode is on, otherwise written with the guarded
+     * UPDATE and appended to the ledger in one transaction, retried by
+     * {@link StockWriteRetry} when it conflicts with a concurrent write.
+     *
+     * @return false when the guarded UPDATE rejected the delta
+     */
+    private boolean writeStockDelta(Long id, BoundedStockCounter counter, int delta, StockMovementReason reason) {
+        try {
+            if (writeBehindStockBuffer.isEnabled()) {
+                writeBehindStockBuffer.submit(id, delta);
+                return true;
+            }
+            return stockWriteRetry.call(id, () -> stockLedger.applyAndRecord(id, delta, reason));
+        } catch (RuntimeException e) {
+            if (writeBehindStockBuffer.isEnabled()) {
+                // the database lags behind the counter in this mode, so it cannot be reseeded from it
+                counter.revert(delta);
+            } else {
+                evictStockCounter(id);
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * Applies a batch of stock movements in one transaction. Each movement is checked
+     * against its beer's counter in order, the accepted ones are summed into one net
+     * delta per beer and written with JDBC batching. Rejected movements are reported
+     * with the name of the exception the single-item endpoints would have thrown.
+     * <p>
+     * With the {@link ShardedStockEngine} the movements are handed to the shards owning
+     * their beers instead, so the shard threads stay the only writers of those counters;
+     * movements of beers on different shards then commit in separate transactions, and
+     * those of a shard batch that could not be written are reported with its exception.
+     */
+    public List<StockMovementResultDTO> applyStockMovements(List<StockMovementDTO> movements) {
+        typeStockStatistics.beginWrite();
+        try {
+            Map<Long, BoundedStockCounter> counters = stockCountersFor(movements);
+            return shardedStockEngine.isEnabled()
+                    ? applyStockMovementsOnShards(movements, counters)
+                    : applyStockMovementsDirectly(movements, counters);
+        } finally {
+            typeStockStatistics.endWrite();
+        }
+    }
+
+    private List<StockMovementResultDTO> applyStockMovementsDirectly(List<StockMovementDTO> movements, Map<Long, BoundedStockCounter> counters) {
+        Map<Long, Integer> netDeltas = new LinkedHashMap<>();
+        List<StockMovementResultDTO> results = new ArrayList<>(movements.size());
+        for (StockMovementDTO movement : movements) {
+            BoundedStockCounter counter = counters.get(movement.getId());
+            if (counter == null) {
+                results.add(rejectedMovement(movement, new BeerNotFoundException(movement.getId())));
+                continue;
+            }
+            int quantityAfterMovement = counter.tryAdd(movement.getDelta());
+            if (quantityAfterMovement == BoundedStockCounter.REJECTED) {
+                results.add(rejectedMovement(movement, stockLimitException(movement)));
+                continue;
+            }
+            netDeltas.merge(movement.getId(), movement.getDelta(), Integer::sum);
+            results.add(StockMovementResultDTO.builder()
+                    .id(movement.getId())
+                    .delta(movement.getDelta())
+                    .quantity(quantityAfterMovement)
+                    .build());
+        }
+
+        if (writeBehindStockBuffer.isEnabled()) {
+            submitNetDeltas(netDeltas, counters);
+            results.forEach(result -> movementApplied(result, counters));
+            return results;
+        }
+        List<StockMovement> acceptedMovements = new ArrayList<>(results.size());
+        for (StockMovementResultDTO result : results) {
+            if (result.getError() == null) {
+                acceptedMovements.add(new StockMovement(result.getId(), result.getDelta(), StockMovementReason.BATCH));
+            }
+        }
+        Set<Long> rejectedIds;
+        try {
+            rejectedIds = acceptedMovements.isEmpty() ? Set.of() : stockLedger.applyAndRecordEach(acceptedMovements);
+        } catch (RuntimeException e) {
+            // the counters are ahead of a database that rolled back, they are reseeded on the next adjustment
+            netDeltas.keySet().forEach(this::evictStockCounter);
+            throw e;
+        }
+        if (!rejectedIds.isEmpty()) {
+            Set<Long> deletedIds = rejectedIds.stream()
+                    .filter(id -> !stillExists(id))
+                    .collect(Collectors.toSet());
+            for (int i = 0; i < results.size(); i++) {
+                StockMovementDTO movement = movements.get(i);
+                if (rejectedIds.contains(movement.getId()) && results.get(i).getError() == null) {
+                    results.set(i, rejectedMovement(movement, deletedIds.contains(movement.getId())
+                            ? new BeerNotFoundException(movement.getId())
+                            : stockLimitException(movement)));
+                }
+            }
+        }
+        results.forEach(result -> movementApplied(result, counters));
+        return results;
+    }
+
+    /**
+     * Submits every movement to its beer's shard, all of a shard's at once, and waits
+     * for them. Each one is checked against the counter by the shard in order.
+     */
+    private List<StockMovementResultDTO> applyStockMovementsOnShards(List<StockMovementDTO> movements, Map<Long, BoundedStockCounter> counters) {
+        List<BoundedStockCounter> submittedCounters = new ArrayList<>(movements.size());
+        List<Integer> submittedDeltas = new ArrayList<>(movements.size());
+        for (StockMovementDTO movement : movements) {
+            BoundedStockCounter counter = counters.get(movement.getId());
+            if (counter != null) {
+                submittedCounters.add(counter);
+                submittedDeltas.add(movement.getDelta());
+            }
+        }
+        Iterator<CompletableFuture<Integer>> submitted = shardedStockEngine
+                .submitAll(submittedCounters, submittedDeltas, StockMovementReason.BATCH)
+                .iterator();
+        Map<Long, Boolean> stillExisting = new HashMap<>();
+        List<StockMovementResultDTO> results = new ArrayList<>(movements.size());
+        for (StockMovementDTO movement : movements) {
+            if (counters.get(movement.getId()) == null) {
+                results.add(rejectedMovement(movement, new BeerNotFoundException(movement.getId())));
+                continue;
+            }
+            int quantityAfterMovement;
+            try {
+                quantityAfterMovement = submitted.next().join();
+            } catch (CompletionException e) {
+                // the shard already took the batch back from the counter
+                results.add(rejectedMovement(movement, e.getCause() instanceof Exception ? (Exception) e.getCause() : e));
+                continue;
+            }
+            if (quantityAfterMovement == BoundedStockCounter.REJECTED) {
+                results.add(rejectedMovement(movement, stockLimitException(movement)));
+            } else if (quantityAfterMovement == ShardedStockEngine.NOT_WRITTEN) {
+                results.add(rejectedMovement(movement, stillExisting.computeIfAbsent(movement.getId(), this::stillExists)
+                        ? stockLimitException(movement)
+                        : new BeerNotFoundException(movement.getId())));
+            } else {
+                results.add(StockMovementResultDTO.builder()
+                        .id(movement.getId())
+                        .delta(movement.getDelta())
+                        .quantity(quantityAfterMovement)
+                        .build());
+            }
+        }
+        results.forEach(result -> movementApplied(result, counters));
+        return results;
+    }
+
+    private void submitNetDeltas(Map<Long, Integer> netDeltas, Map<Long, BoundedStockCounter> counters) {
+        Iterator<Map.Entry<Long, Integer>> pending = netDeltas.entrySet().iterator();
+        try {
+            while (pending.hasNext()) {
+                Map.Entry<Long, Integer> netDelta = pending.next();
+                writeStockDelta(netDelta.getKey(), counters.get(netDelta.getKey()), netDelta.getValue(), StockMovementReason.BATCH);
+            }
+        } catch (RuntimeException e) {
+            pending.forEachRemaining(netDelta -> counters.get(netDelta.getKey()).revert(netDelta.getValue()));
+            throw e;
+        }
+    }
+
+    /**
+     * Returns the stock of a beer computed from the ledger, either now (latest snapshot
+     * plus the movements after it) or at a past instant {@code at}.
+     */
+    public StockLevelDTO stockLevel(Long id, Instant at) throws BeerNotFoundException {
+        verifyIfIsRegistered(id);
+        long quantity = at == null ? stockLedger.currentQuantity(id) : stockLedger.quantityAt(id, at);
+        return new StockLevelDTO(id, quantity, at == null ? Instant.now() : at);
+    }
+
+    public List<StockLedgerEntryDTO> stockMovements(Long id, int limit) throws BeerNotFoundException {
+        verifyIfIsRegistered(id);
+        return stockLedger.history(id, Math.max(1, Math.min(limit, MAX_PAGE_SIZE)))
+                .stream()
+                .map(stockMovementMapper::toDTO)
+                .collect(Collectors.toList());
+    }
+
+    private Map<Long, BoundedStockCounter> stockCountersFor(List<StockMovementDTO> movements) {
+        Map<Long, BoundedStockCounter> counters = new HashMap<>();
+        List<Long> idsToLoad = new ArrayList<>();
+        for (StockMovementDTO movement : movements) {
+            Long id = movement.getId();
+            if (!counters.containsKey(id)) {
+                BoundedStockCounter counter = stockCounters.get(id);
+                counters.put(id, counter);
+                if (counter == null) {
+                    idsToLoad.add(id);
+                }
+            }
+        }
+        if (!idsToLoad.isEmpty()) {
+            beerRepository.findAllById(idsToLoad)
+                    .forEach(beer -> counters.put(beer.getId(), stockCounters.counterFor(beer)));
+        }
+        return counters;
+    }
+
+    private static Exception stockLimitException(StockMovementDTO movement) {
+        return movement.getDelta() >= 0
+                ? new BeerStockExceededException(movement.getId(), movement.getDelta())
+                : new BeerStockMinCapacityExceededException(movement.getId(), -movement.getDelta());
+    }
+
+    private static StockMovementResultDTO rejectedMovement(StockMovementDTO movement, Exception error) {
+        return StockMovementResultDTO.builder()
+                .id(movement.getId())
+                .delta(movement.getDelta())
+                .error(error.getClass().getSimpleName())
+                .message(error.getMessage())
+                .build();
+    }
+
+    /**
+     * Called when the guarded UPDATE rejected a delta the counter accepted: the
+     * counter is stale, so it is dropped and reseeded on the next adjustment.
+     */
+    private boolean stillExists(Long id) {
+        evictStockCounter(id);
+        return beerRepository.findQuantityById(id).isPresent();
+    }
+
+    private void evictStockCounter(Long id) {
+        BoundedStockCounter counter = stockCounters.evict(id);
+        if (counter != null) {
+            beerNameCache.evict(counter.getName());
+        }
+    }
+
+    private void beerAdded(Beer beer) {
+        stockHeadroomIndex.put(beerMapper.toStockDTO(beer));
+        typeStockStatistics.add(beer.getType(), beer.getQuantity());
+        catalogVersion.incrementAndGet();
+    }
+
+    /**
+     * The statistics follow the quantity indexed for the beer, under its index entry,
+     * so an adjustment still in flight when the beer is deleted cannot move it back in.
+     */
+    private void stockAdjusted(BoundedStockCounter counter) {
+        stockHeadroomIndex.refresh(counter, (fromQuantity, toQuantity) -> typeStockStatistics.move(counter.getType(), fromQuantity, toQuantity));
+        catalogVersion.incrementAndGet();
+    }
+
+    private void movementApplied(StockMovementResultDTO result, Map<Long, BoundedStockCounter> counters) {
+        if (result.getError() == null) {
+            stockAdjusted(counters.get(result.getId()));
+        }
+    }
+
+    /**
+     * Ends the write begun on the {@link TypeStockStatistics} once the current transaction
+     * completes, after the statistics are updated on commit, or right away when there is none.
+     */
+    private void endStatisticsWrite() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    typeStockStatistics.endWrite();
+                }
+            });
+        } else {
+            typeStockStatistics.endWrite();
+        }
+    }
+
+    /**
+     * Runs {@code action} once the current transaction commits, or right away when
+     * there is none.
+     */
+    private static void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
     }
 }
@@ -0,0 +1,102 @@
+package one.digitalinnovation.beerstock.service;
+
+import one.digitalinnovation.beerstock.entity.Beer;
+import one.digitalinnovation.beerstock.enums.BeerType;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Lock-free stock counter for a single beer. Every adjustment is applied with a
+ * compare-and-set loop, so concurrent increments and decrements never overwrite
+ * each other and the {@code min}/{@code max} limits hold at every instant.
+ * The counter also keeps a detached copy of the beer it was seeded from, so an
+ * adjusted beer can be rendered without reading it back from the database.
+ */
+public class BoundedStockCounter {
+
+    public static final int REJECTED = Integer.MIN_VALUE;
+
+    private final int min;
+    private final int max;
+    private final AtomicInteger quantity;
+    private final Beer beer;
+
+    public BoundedStockCounter(int min, int max, int quantity) {
+        this(min, max, quantity, null);
+    }
+
+    public BoundedStockCounter(Beer beer) {
+        this(beer.getMin(), beer.getMax(), beer.getQuantity(), copyOf(beer, beer.getQuantity()));
+    }
+
+    private BoundedStockCounter(int min, int max, int quantity, Beer beer) {
+        this.min = min;
+        this.max = max;
+        this.quantity = new AtomicInteger(quantity);
+        this.beer = beer;
+    }
+
+    /**
+     * Adds {@code delta} to the counter. Positive deltas are checked against
+     * {@code max} and negative ones against {@code min}, the same rules the
+     * increment and decrement operations apply.
+     *
+     * @return the quantity after the adjustment, or {@link #REJECTED} when it would cross a limit
+     */
+    public int tryAdd(int delta) {
+        while (true) {
+            int current = quantity.get();
+            long next = (long) current + delta;
+            if (delta > 0 ? next > max : next < min) {
+                return REJECTED;
+            }
+            if (quantity.compareAndSet(current, (int) next)) {
+                return (int) next;
+            }
+        }
+    }
+
+    /**
+     * Takes back a delta returned by a successful {@link #tryAdd} that could not be
+     * made durable. Limits are not checked: the counter goes back to what it would
+     * have been had the delta never been accepted.
+     */
+    public void revert(int delta) {
+        quantity.addAndGet(-delta);
+    }
+
+    public int get() {
+        return quantity.get();
+    }
+
+    public Long getId() {
+        return beer.getId();
+    }
+
+    public String getName() {
+        return beer.getName();
+    }
+
+    public BeerType getType() {
+        return beer.getType();
+    }
+
+    public int getMin() {
+        return min;
+    }
+
+    public int getMax() {
+        return max;
+    }
+
+    /**
+     * Returns a new {@link Beer} with the seeded attributes and the given quantity.
+     */
+    public Beer toBeer(int quantity) {
+        return copyOf(beer, quantity);
+    }
+
+    private static Beer copyOf(Beer beer, int quantity) {
+        return new Beer(beer.getId(), beer.getName(), beer.getBrand(), beer.getMax(), beer.getMin(), quantity, beer.getType());
+    }
+}
@@ -0,0 +1,81 @@
+package one.digitalinnovation.beerstock.service;
+
+import lombok.AllArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import one.digitalinnovation.beerstock.config.BeerStockProperties;
+import one.digitalinnovation.beerstock.dto.CatalogImportErrorDTO;
+import one.digitalinnovation.beerstock.dto.CatalogImportReportDTO;
+import one.digitalinnovation.beerstock.enums.CatalogFormat;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.ExitCodeGenerator;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Profile;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * Imports {@code beerstock.catalog-import.file} at startup. Combined with
+ * {@code spring.main.web-application-type=none} the application exits once the import is
+ * done, closing the context and so flushing the write-behind stock buffer, which makes it a
+ * command-line loader; the exit code is {@value #ROWS_SKIPPED_EXIT_CODE} if any row was
+ * skipped. Files ending in {@code .gz} are decompressed on the fly.
+ */
+@Slf4j
+@Component
+@Profile("!reactive")
+// before StartupWarmUp, so the warm-up sees the imported catalog
+@Order(Ordered.HIGHEST_PRECEDENCE)
+@ConditionalOnProperty(prefix = "beerstock.catalog-import", name = "file")
+@AllArgsConstructor(onConstructor = @__(@Autowired))
+public class CatalogImportRunner implements ApplicationRunner, ExitCodeGenerator {
+
+    static final int ROWS_SKIPPED_EXIT_CODE = 1;
+
+    private static final String GZIP_EXTENSION = ".gz";
+
+    private final CatalogImportService catalogImportService;
+    private final BeerStockProperties properties;
+    private final AtomicInteger exitCode = new AtomicInteger();
+
+    @Override
+    public void run(ApplicationArguments args) throws Exception {
+        Path file = properties.getCatalogImport().getFile();
+        String fileName = file.getFileName().toString();
+        boolean gzipped = fileName.endsWith(GZIP_EXTENSION);
+        String formatName = gzipped ? fileName.substring(0, fileName.length() - GZIP_EXTENSION.length()) : fileName;
+        CatalogFormat format = CatalogFormat.fromFileName(formatName)
+                .orElseThrow(() -> new IllegalArgumentException("Unknown catalog format, expected .csv or .ndjson: " + file));
+        log.info("Importing {} catalog from {}", format, file);
+        CatalogImportReportDTO report;
+        try (InputStream input = open(file, gzipped)) {
+            report = catalogImportService.importCatalog(input, format);
+        }
+        for (CatalogImportErrorDTO error : report.getErrors()) {
+            log.warn("Row {} ({}) skipped: {}", error.getRow(), error.getName(), error.getMessage());
+        }
+        if (!report.getErrors().isEmpty()) {
+            exitCode.set(ROWS_SKIPPED_EXIT_CODE);
+        }
+    }
+
+    @Override
+    public int getExitCode() {
+        return exitCode.get();
+    }
+
+    private static InputStream open(Path file, boolean gzipped) throws IOException {
+        InputStream input = new BufferedInputStream(Files.newInputStream(file), 1 << 16);
+        return gzipped ? new GZIPInputStream(input, 1 << 16) : input;
+    }
+}
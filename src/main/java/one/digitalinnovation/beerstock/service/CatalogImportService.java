@@ -0,0 +1,171 @@
+package one.digitalinnovation.beerstock.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.dataformat.csv.CsvMapper;
+import com.fasterxml.jackson.dataformat.csv.CsvParser;
+import com.fasterxml.jackson.dataformat.csv.CsvSchema;
+import lombok.AllArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import one.digitalinnovation.beerstock.config.BeerStockProperties;
+import one.digitalinnovation.beerstock.dto.BeerDTO;
+import one.digitalinnovation.beerstock.dto.CatalogImportErrorDTO;
+import one.digitalinnovation.beerstock.dto.CatalogImportReportDTO;
+import one.digitalinnovation.beerstock.enums.CatalogFormat;
+import one.digitalinnovation.beerstock.exception.BeerAlreadyRegisteredException;
+import one.digitalinnovation.beerstock.exception.BeerStockRequiredFieldException;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Service;
+
+import javax.persistence.EntityManager;
+import javax.validation.ConstraintViolation;
+import javax.validation.Validator;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Imports a distributor catalog streamed as CSV (with a header row naming the
+ * {@link BeerDTO} fields) or as newline-delimited JSON. Rows are parsed one at a time
+ * and written in chunks through {@link BeerService#createUnregisteredBeers}: one
+ * {@code IN} query to skip the names already registered, then one transaction and a
+ * few JDBC batches per chunk. Only the current chunk and the
+ * names seen so far are kept in memory.
+ * <p>
+ * Invalid rows and names already registered, or repeated in the file, are skipped
+ * and counted; the chunks imported before a fatal parse error stay imported.
+ */
+@Slf4j
+@Service
+@Profile("!reactive")
+@AllArgsConstructor(onConstructor = @__(@Autowired))
+public class CatalogImportService {
+
+    public static final int MAX_REPORTED_ERRORS = 100;
+    private static final long PROGRESS_LOG_INTERVAL = 50_000;
+
+    private final BeerService beerService;
+    private final Validator validator;
+    private final ObjectMapper objectMapper;
+    private final EntityManager entityManager;
+    private final BeerStockProperties properties;
+    private final CsvMapper csvMapper = new CsvMapper();
+
+    public CatalogImportReportDTO importCatalog(InputStream input, CatalogFormat format) throws IOException, BeerAlreadyRegisteredException {
+        long start = System.nanoTime();
+        int chunkSize = properties.getCatalogImport().getChunkSize();
+        Progress progress = new Progress();
+        Set<String> namesInFile = new HashSet<>();
+        List<BeerDTO> chunk = new ArrayList<>(chunkSize);
+        try (MappingIterator<?> rows = readerFor(format).readValues(input)) {
+            while (rows.hasNextValue()) {
+                long row = ++progress.rows;
+                BeerDTO beerDTO = toValidBeer(row, rows.nextValue(), progress);
+                if (beerDTO == null) {
+                    continue;
+                }
+                if (!namesInFile.add(beerDTO.getName())) {
+                    progress.duplicates++;
+                    continue;
+                }
+                chunk.add(beerDTO);
+                if (chunk.size() == chunkSize) {
+                    importChunk(chunk, progress);
+                    chunk.clear();
+                }
+            }
+        }
+        importChunk(chunk, progress);
+        CatalogImportReportDTO report = progress.toReport((System.nanoTime() - start) / 1_000_000);
+        log.info("Catalog import finished: {} rows, {} imported, {} duplicates, {} invalid in {} ms",
+                report.getRows(), report.getImported(), report.getDuplicates(), report.getInvalid(), report.getElapsedMillis());
+        return report;
+    }
+
+    private ObjectReader readerFor(CatalogFormat format) {
+        if (format == CatalogFormat.CSV) {
+            return csvMapper.readerFor(Map.class)
+                    .with(CsvSchema.emptySchema().withHeader())
+                    .with(CsvParser.Feature.EMPTY_STRING_AS_NULL);
+        }
+        return objectMapper.readerFor(JsonNode.class);
+    }
+
+    /**
+     * Binds a parsed row to a {@link BeerDTO} and checks it like {@code POST /api/v1/beers}
+     * would, recording why it is rejected.
+     *
+     * @return the beer, or null when the row is invalid
+     */
+    private BeerDTO toValidBeer(long row, Object value, Progress progress) {
+        BeerDTO beerDTO;
+        try {
+            beerDTO = objectMapper.convertValue(value, BeerDTO.class);
+        } catch (IllegalArgumentException e) {
+            progress.reject(row, null, e.getMessage());
+            return null;
+        }
+        beerDTO.setId(null);
+        Set<ConstraintViolation<BeerDTO>> violations = validator.validate(beerDTO);
+        if (!violations.isEmpty()) {
+            progress.reject(row, beerDTO.getName(), violations.stream()
+                    .map(violation -> violation.getPropertyPath() + " " + violation.getMessage())
+                    .sorted()
+                    .collect(Collectors.joining(", ")));
+            return null;
+        }
+        if (beerDTO.getBrand() == null) {
+            progress.reject(row, beerDTO.getName(), new BeerStockRequiredFieldException(beerDTO).getMessage());
+            return null;
+        }
+        return beerDTO;
+    }
+
+    private void importChunk(List<BeerDTO> chunk, Progress progress) throws BeerAlreadyRegisteredException {
+        if (chunk.isEmpty()) {
+            return;
+        }
+        int created;
+        try {
+            created = beerService.createUnregisteredBeers(chunk).size();
+        } catch (BeerAlreadyRegisteredException e) {
+            // a name was registered since the lookup, so look them up again
+            created = beerService.createUnregisteredBeers(chunk).size();
+        }
+        progress.imported += created;
+        progress.duplicates += chunk.size() - created;
+        // the chunk's entities are not needed anymore, even if a request-wide persistence context is open
+        entityManager.clear();
+        if (progress.rows / PROGRESS_LOG_INTERVAL != (progress.rows - chunk.size()) / PROGRESS_LOG_INTERVAL) {
+            log.info("Catalog import progress: {} rows read, {} imported", progress.rows, progress.imported);
+        }
+    }
+
+    private static final class Progress {
+
+        private long rows;
+        private long imported;
+        private long duplicates;
+        private long invalid;
+        private final List<CatalogImportErrorDTO> errors = new ArrayList<>();
+
+        private void reject(long row, String name, String message) {
+            invalid++;
+            if (errors.size() < MAX_REPORTED_ERRORS) {
+                errors.add(new CatalogImportErrorDTO(row, name, message));
+            }
+        }
+
+        private CatalogImportReportDTO toReport(long elapsedMillis) {
+            return new CatalogImportReportDTO(rows, imported, duplicates, invalid, elapsedMillis, errors);
+        }
+    }
+}
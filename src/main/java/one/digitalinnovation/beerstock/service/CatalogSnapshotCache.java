@@ -0,0 +1,119 @@
+package one.digitalinnovation.beerstock.service;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import one.digitalinnovation.beerstock.mapper.BeerJsonWriter;
+import org.springframework.util.DigestUtils;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Serialized form of the whole catalog, as returned by {@link BeerService#listAll()},
+ * built at most once per {@link BeerService#getCatalogVersion() catalog version}.
+ * The rows are written straight into the JSON array by a {@link BeerJsonWriter}, into
+ * a buffer sized after the previous snapshot, so no entity or DTO list is built.
+ * Reads between two writes share the same bytes and ETag; the first read after a
+ * write rebuilds the snapshot while concurrent readers wait for it.
+ */
+public class CatalogSnapshotCache {
+
+    private final BeerService beerService;
+    private final ObjectMapper objectMapper;
+    private final boolean gzip;
+    private final int gzipMinSize;
+    // not synchronized: rebuilding queries the database, which would pin virtual threads
+    private final ReentrantLock rebuildLock = new ReentrantLock();
+    private volatile CatalogSnapshot snapshot = new CatalogSnapshot(-1, null, null, null);
+
+    public CatalogSnapshotCache(BeerService beerService, ObjectMapper objectMapper, boolean gzip, int gzipMinSize) {
+        this.beerService = beerService;
+        this.objectMapper = objectMapper;
+        this.gzip = gzip;
+        this.gzipMinSize = gzipMinSize;
+    }
+
+    public CatalogSnapshot current() throws IOException {
+        CatalogSnapshot current = snapshot;
+        if (current.getVersion() == beerService.getCatalogVersion()) {
+            return current;
+        }
+        rebuildLock.lock();
+        try {
+            // read before listing: a write that lands meanwhile bumps it and forces another rebuild
+            long version = beerService.getCatalogVersion();
+            if (snapshot.getVersion() != version) {
+                byte[] json = serializeCatalog();
+                snapshot = new CatalogSnapshot(version, json, gzip && json.length >= gzipMinSize ? gzip(json) : null, '"' + DigestUtils.md5DigestAsHex(json) + '"');
+            }
+            return snapshot;
+        } finally {
+            rebuildLock.unlock();
+        }
+    }
+
+    private byte[] serializeCatalog() throws IOException {
+        byte[] previous = snapshot.getJson();
+        ByteArrayOutputStream json = new ByteArrayOutputStream(previous != null ? previous.length + previous.length / 8 : 8192);
+        try (JsonGenerator generator = objectMapper.getFactory().createGenerator(json)) {
+            generator.writeStartArray();
+            beerService.exportAll(new BeerJsonWriter(generator));
+            generator.writeEndArray();
+        }
+        return json.toByteArray();
+    }
+
+    private static byte[] gzip(byte[] json) throws IOException {
+        ByteArrayOutputStream gzipped = new ByteArrayOutputStream(json.length / 4);
+        try (GZIPOutputStream output = new GZIPOutputStream(gzipped)) {
+            output.write(json);
+        }
+        return gzipped.toByteArray();
+    }
+
+    public static final class CatalogSnapshot {
+
+        private final long version;
+        private final byte[] json;
+        private final byte[] gzipped;
+        private final String etag;
+
+        private CatalogSnapshot(long version, byte[] json, byte[] gzipped, String etag) {
+            this.version = version;
+            this.json = json;
+            this.gzipped = gzipped;
+            this.etag = etag;
+        }
+
+        public long getVersion() {
+            return version;
+        }
+
+        public byte[] getJson() {
+            return json;
+        }
+
+        /**
+         * @return the gzipped JSON, or null when pre-gzipping is disabled or the JSON is too small
+         */
+        public byte[] getGzipped() {
+            return gzipped;
+        }
+
+        /**
+         * Strong ETag of the JSON, derived from its content.
+         */
+        public String getEtag() {
+            return etag;
+        }
+
+        /**
+         * Strong ETag of the gzipped JSON: a different representation, so a different tag.
+         */
+        public String getGzipEtag() {
+            return etag.substring(0, etag.length() - 1) + "-gzip\"";
+        }
+    }
+}
@@ -0,0 +1,93 @@
+package one.digitalinnovation.beerstock.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import one.digitalinnovation.beerstock.dto.BeerDTO;
+import one.digitalinnovation.beerstock.exception.IdempotencyKeyReusedException;
+import one.digitalinnovation.beerstock.exception.IdempotentRequestInProgressException;
+
+import java.time.Duration;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.Supplier;
+
+/**
+ * Bounded, expiring record of the stock adjustments made under an {@code Idempotency-Key},
+ * so that a client retrying after a timeout gets the first response back instead of
+ * adjusting the stock twice. The key is claimed before the adjustment runs; a retry
+ * arriving while it still runs is turned away rather than run a second time.
+ * <p>
+ * Only applied adjustments are remembered. A rejection left the stock as it was, so
+ * its key is released and a retry is evaluated again. A key evicted because the store
+ * is full, or expired, is treated as new.
+ */
+public class IdempotencyStore {
+
+    private final Cache<String, Entry> cache;
+    private final ConcurrentMap<String, Entry> entries;
+
+    public IdempotencyStore(long maximumSize, Duration expireAfterWrite) {
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(expireAfterWrite)
+                .recordStats()
+                .build();
+        this.entries = cache.asMap();
+    }
+
+    /**
+     * Runs {@code adjustment} unless {@code idempotencyKey} was already used for it.
+     *
+     * @param request identifies what the key was used for; the same key sent with a
+     *                different request is refused
+     * @return the outcome of the adjustment, or the remembered one marked as replayed
+     * @throws IdempotencyKeyReusedException        when the key belongs to another request
+     * @throws IdempotentRequestInProgressException when the first request with the key has not finished yet
+     */
+    public StockOutcome execute(String idempotencyKey, String request, Supplier<StockOutcome> adjustment)
+            throws IdempotencyKeyReusedException, IdempotentRequestInProgressException {
+        Entry claim = new Entry(request, null);
+        Entry existing = entries.putIfAbsent(idempotencyKey, claim);
+        if (existing != null) {
+            if (!existing.request.equals(request)) {
+                throw new IdempotencyKeyReusedException(idempotencyKey);
+            }
+            if (existing.response == null) {
+                throw new IdempotentRequestInProgressException(idempotencyKey);
+            }
+            return StockOutcome.replayed(existing.response);
+        }
+        StockOutcome outcome;
+        try {
+            outcome = adjustment.get();
+        } catch (RuntimeException e) {
+            entries.remove(idempotencyKey, claim);
+            throw e;
+        }
+        if (outcome.isApplied()) {
+            entries.replace(idempotencyKey, claim, new Entry(request, outcome.getBeer()));
+        } else {
+            entries.remove(idempotencyKey, claim);
+        }
+        return outcome;
+    }
+
+    /**
+     * Publishes the hit, miss, eviction and size metrics of this store.
+     */
+    public void bindTo(MeterRegistry meterRegistry, String cacheName) {
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, cacheName);
+    }
+
+    private static final class Entry {
+
+        private final String request;
+        private final BeerDTO response;
+
+        private Entry(String request, BeerDTO response) {
+            this.request = request;
+            this.response = response;
+        }
+    }
+}
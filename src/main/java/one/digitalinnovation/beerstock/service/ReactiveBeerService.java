@@ -0,0 +1,110 @@
+package one.digitalinnovation.beerstock.service;
+
+import one.digitalinnovation.beerstock.dto.BeerDTO;
+import one.digitalinnovation.beerstock.entity.Beer;
+import one.digitalinnovation.beerstock.enums.StockMovementReason;
+import one.digitalinnovation.beerstock.exception.BeerAlreadyRegisteredException;
+import one.digitalinnovation.beerstock.exception.BeerNotFoundException;
+import one.digitalinnovation.beerstock.exception.BeerStockExceededException;
+import one.digitalinnovation.beerstock.exception.BeerStockMinCapacityExceededException;
+import one.digitalinnovation.beerstock.exception.BeerStockRequiredFieldException;
+import one.digitalinnovation.beerstock.exception.NegativeInputException;
+import one.digitalinnovation.beerstock.mapper.BeerMapper;
+import one.digitalinnovation.beerstock.repository.ReactiveBeerRepository;
+import org.springframework.context.annotation.Profile;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.reactive.TransactionalOperator;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Non-blocking variant of {@link BeerService} for the {@code reactive} profile.
+ * There are no in-memory counters here: stock changes go straight to the guarded
+ * UPDATEs, and each one is appended to the same ledger inside one R2DBC transaction.
+ */
+@Service
+@Profile("reactive")
+public class ReactiveBeerService {
+
+    private final ReactiveBeerRepository beerRepository;
+    private final TransactionalOperator transactionalOperator;
+    private final BeerMapper beerMapper = BeerMapper.INSTANCE;
+
+    public ReactiveBeerService(ReactiveBeerRepository beerRepository, TransactionalOperator reactiveTransactionalOperator) {
+        this.beerRepository = beerRepository;
+        this.transactionalOperator = reactiveTransactionalOperator;
+    }
+
+    public Mono<BeerDTO> createBeer(BeerDTO beerDTO) {
+        if (beerDTO.getQuantity() == null || beerDTO.getName() == null || beerDTO.getType() == null || beerDTO.getBrand() == null) {
+            return Mono.error(new BeerStockRequiredFieldException(beerDTO));
+        }
+        Beer beer = beerMapper.toModel(beerDTO);
+        return beerRepository.nextId()
+                .flatMap(id -> {
+                    beer.setId(id);
+                    return beerRepository.insert(id, beer.getName(), beer.getBrand(), beer.getMax(), beer.getMin(), beer.getQuantity(), beer.getType().name());
+                })
+                .then(Mono.defer(() -> beerRepository.recordMovement(beer.getId(), beer.getQuantity(), StockMovementReason.CREATION.name())))
+                .as(transactionalOperator::transactional)
+                .onErrorMap(DataIntegrityViolationException.class, e -> isNameViolation(e) ? new BeerAlreadyRegisteredException(beer.getName()) : e)
+                .thenReturn(beer)
+                .map(beerMapper::toDTO);
+    }
+
+    public Mono<BeerDTO> findByName(String name) {
+        return beerRepository.findByName(name)
+                .switchIfEmpty(Mono.error(() -> new BeerNotFoundException(name)))
+                .map(beerMapper::toDTO);
+    }
+
+    public Flux<BeerDTO> listAll() {
+        return beerRepository.findAllByOrderByIdAsc()
+                .map(beerMapper::toDTO);
+    }
+
+    public Mono<Void> deleteById(Long id) {
+        return beerRepository.existsById(id)
+                .flatMap(exists -> exists ? beerRepository.deleteById(id) : Mono.error(new BeerNotFoundException(id)));
+    }
+
+    public Mono<BeerDTO> increment(Long id, int quantityToIncrement) {
+        if (quantityToIncrement < 0) {
+            return verifyIfExists(id).then(Mono.error(new NegativeInputException(quantityToIncrement)));
+        }
+        return adjust(id, beerRepository.incrementQuantity(id, quantityToIncrement), quantityToIncrement, StockMovementReason.INCREMENT)
+                .switchIfEmpty(Mono.error(() -> new BeerStockExceededException(id, quantityToIncrement)));
+    }
+
+    public Mono<BeerDTO> decrement(Long id, int quantityToDecrement) {
+        if (quantityToDecrement < 0) {
+            return verifyIfExists(id).then(Mono.error(new NegativeInputException(quantityToDecrement)));
+        }
+        return adjust(id, beerRepository.decrementQuantity(id, quantityToDecrement), -quantityToDecrement, StockMovementReason.DECREMENT)
+                .switchIfEmpty(Mono.error(() -> new BeerStockMinCapacityExceededException(id, quantityToDecrement)));
+    }
+
+    /**
+     * Runs the guarded UPDATE and records the movement. Completes empty when the
+     * guard rejected the delta, so the caller can pick the matching exception.
+     */
+    private Mono<BeerDTO> adjust(Long id, Mono<Integer> guardedUpdate, int delta, StockMovementReason reason) {
+        return guardedUpdate
+                .flatMap(updated -> updated == 0
+                        ? verifyIfExists(id).then(Mono.<Beer>empty())
+                        : beerRepository.recordMovement(id, delta, reason.name()).then(beerRepository.findById(id)))
+                .as(transactionalOperator::transactional)
+                .map(beerMapper::toDTO);
+    }
+
+    private Mono<Beer> verifyIfExists(Long id) {
+        return beerRepository.findById(id)
+                .switchIfEmpty(Mono.error(() -> new BeerNotFoundException(id)));
+    }
+
+    private static boolean isNameViolation(DataIntegrityViolationException e) {
+        String message = e.getMessage();
+        return message != null && message.toLowerCase().contains(Beer.NAME_UNIQUE_CONSTRAINT);
+    }
+}
@@ -0,0 +1,240 @@
+package one.digitalinnovation.beerstock.service;
+
+import lombok.extern.slf4j.Slf4j;
+import one.digitalinnovation.beerstock.config.BeerStockProperties;
+import one.digitalinnovation.beerstock.entity.StockMovement;
+import one.digitalinnovation.beerstock.enums.StockMovementReason;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Alternative stock engine where every beer belongs to one of {@code shards}
+ * single-threaded writers, picked by hashing its id. Callers enqueue adjustment
+ * commands on the shard's lock-free queue and wait for the result; the shard thread
+ * is the only one applying them to the counters of its beers, so no compare-and-set
+ * ever retries, and it writes whatever accumulated while it was busy as one batch:
+ * one guarded UPDATE per beer and one ledger movement per command, in a single
+ * transaction. Under load that turns one commit per request into one commit per
+ * batch, and a hot beer costs one shard its time instead of contending with all of them.
+ * Batches of movements are split by shard with {@link #submitAll}, so they keep to
+ * the same single writer per counter.
+ * <p>
+ * A command is only acknowledged once its batch committed. A batch that conflicts
+ * with another writer (a lock timeout, a deadlock) is retried through
+ * {@link StockWriteRetry}; if the transaction still fails, the shard takes the batch
+ * back from the counters and fails every command in it.
+ */
+@Slf4j
+public class ShardedStockEngine {
+
+    /**
+     * Result of a command the counter accepted but the guarded UPDATE rejected: the
+     * counter disagrees with the database, typically because the beer was deleted.
+     */
+    public static final int NOT_WRITTEN = Integer.MIN_VALUE + 1;
+
+    private final BeerStockProperties.StockEngine properties;
+    private final StockLedgerService stockLedger;
+    private final StockWriteRetry stockWriteRetry;
+    private Shard[] shards;
+
+    public ShardedStockEngine(BeerStockProperties.StockEngine properties, StockLedgerService stockLedger,
+                              StockWriteRetry stockWriteRetry) {
+        this.properties = properties;
+        this.stockLedger = stockLedger;
+        this.stockWriteRetry = stockWriteRetry;
+    }
+
+    public boolean isEnabled() {
+        return properties.isSharded();
+    }
+
+    @PostConstruct
+    public void start() {
+        if (!isEnabled()) {
+            return;
+        }
+        int shardCount = properties.getShards() > 0 ? properties.getShards() : Runtime.getRuntime().availableProcessors();
+        shards = new Shard[shardCount];
+        for (int i = 0; i < shardCount; i++) {
+            shards[i] = new Shard(i);
+            shards[i].thread.start();
+        }
+        log.info("Sharded stock engine started with {} shards", shardCount);
+    }
+
+    /**
+     * Queues {@code delta} for the shard owning the counter's beer.
+     *
+     * @return completes with the quantity after the adjustment, {@link BoundedStockCounter#REJECTED}
+     * when it would cross a limit or {@link #NOT_WRITTEN}; completes exceptionally when
+     * its batch could not be written
+     */
+    public CompletableFuture<Integer> submit(BoundedStockCounter counter, int delta, StockMovementReason reason) {
+        Command command = new Command(counter, delta, reason);
+        shardOf(counter).submit(Collections.singletonList(command));
+        return command.result;
+    }
+
+    /**
+     * Queues the {@code deltas} of the matching {@code counters}, the commands of each
+     * shard together and in order, so the shard can take them in one batch.
+     *
+     * @return one result per delta, as {@link #submit} returns it
+     */
+    public List<CompletableFuture<Integer>> submitAll(List<BoundedStockCounter> counters, List<Integer> deltas, StockMovementReason reason) {
+        List<CompletableFuture<Integer>> results = new ArrayList<>(counters.size());
+        Map<Shard, List<Command>> commandsByShard = new LinkedHashMap<>();
+        for (int i = 0; i < counters.size(); i++) {
+            Command command = new Command(counters.get(i), deltas.get(i), reason);
+            commandsByShard.computeIfAbsent(shardOf(command.counter), shard -> new ArrayList<>()).add(command);
+            results.add(command.result);
+        }
+        commandsByShard.forEach(Shard::submit);
+        return results;
+    }
+
+    private Shard shardOf(BoundedStockCounter counter) {
+        return shards[Math.floorMod(Long.hashCode(counter.getId()), shards.length)];
+    }
+
+    /**
+     * Stops accepting commands and waits until every shard has written what it had queued.
+     */
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        if (shards == null) {
+            return;
+        }
+        for (Shard shard : shards) {
+            shard.running = false;
+            LockSupport.unpark(shard.thread);
+        }
+        for (Shard shard : shards) {
+            shard.thread.join();
+            shard.rejectQueued();
+        }
+    }
+
+    private final class Shard implements Runnable {
+
+        private final Queue<Command> queue = new ConcurrentLinkedQueue<>();
+        private final List<Command> batch = new ArrayList<>();
+        private final Thread thread;
+        private volatile boolean running = true;
+
+        private Shard(int index) {
+            thread = new Thread(this, "stock-shard-" + index);
+            thread.setDaemon(true);
+        }
+
+        private void submit(List<Command> commands) {
+            commands.forEach(queue::offer);
+            if (!running) {
+                for (Command command : commands) {
+                    if (queue.remove(command)) {
+                        // queued after the shard's last look at the queue, nobody else will see it
+                        command.reject();
+                    }
+                }
+            }
+            // the shard re-checks the queue before parking, and a permit given early is kept
+            LockSupport.unpark(thread);
+        }
+
+        private void rejectQueued() {
+            Command command;
+            while ((command = queue.poll()) != null) {
+                command.reject();
+            }
+        }
+
+        @Override
+        public void run() {
+            while (true) {
+                Command command;
+                while (batch.size() < properties.getBatchSize() && (command = queue.poll()) != null) {
+                    batch.add(command);
+                }
+                if (!batch.isEmpty()) {
+                    apply();
+                    batch.clear();
+                } else if (!running) {
+                    return;
+                } else {
+                    LockSupport.park(this);
+                }
+            }
+        }
+
+        private void apply() {
+            List<Command> accepted = new ArrayList<>(batch.size());
+            for (Command command : batch) {
+                int quantityAfterAdjustment = command.counter.tryAdd(command.delta);
+                if (quantityAfterAdjustment == BoundedStockCounter.REJECTED) {
+                    command.result.complete(BoundedStockCounter.REJECTED);
+                    continue;
+                }
+                command.quantityAfterAdjustment = quantityAfterAdjustment;
+                accepted.add(command);
+            }
+            if (accepted.isEmpty()) {
+                return;
+            }
+            Set<Long> rejectedIds;
+            try {
+                // new movements on every attempt, a rolled-back one leaves its ids on those it saved
+                rejectedIds = stockWriteRetry.callBatch(thread.getName(), () -> stockLedger.applyAndRecordEach(movementsOf(accepted)));
+            } catch (RuntimeException e) {
+                log.error("Stock shard {} could not write a batch of {} adjustments", thread.getName(), accepted.size(), e);
+                for (int i = accepted.size() - 1; i >= 0; i--) {
+                    accepted.get(i).counter.revert(accepted.get(i).delta);
+                }
+                accepted.forEach(command -> command.result.completeExceptionally(e));
+                return;
+            }
+            for (Command command : accepted) {
+                command.result.complete(rejectedIds.contains(command.counter.getId()) ? NOT_WRITTEN : command.quantityAfterAdjustment);
+            }
+        }
+    }
+
+    private static List<StockMovement> movementsOf(List<Command> commands) {
+        List<StockMovement> movements = new ArrayList<>(commands.size());
+        for (Command command : commands) {
+            movements.add(new StockMovement(command.counter.getId(), command.delta, command.reason));
+        }
+        return movements;
+    }
+
+    private static final class Command {
+
+        private final BoundedStockCounter counter;
+        private final int delta;
+        private final StockMovementReason reason;
+        private final CompletableFuture<Integer> result = new CompletableFuture<>();
+        private int quantityAfterAdjustment;
+
+        private Command(BoundedStockCounter counter, int delta, StockMovementReason reason) {
+            this.counter = counter;
+            this.delta = delta;
+            this.reason = reason;
+        }
+
+        private void reject() {
+            result.completeExceptionally(new RejectedExecutionException("Sharded stock engine is stopped"));
+        }
+    }
+}
@@ -0,0 +1,74 @@
+package one.digitalinnovation.beerstock.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.AllArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import one.digitalinnovation.beerstock.config.BeerStockProperties;
+import one.digitalinnovation.beerstock.exception.BeerNotFoundException;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Profile;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * Warms the application up before it reports itself ready. Spring Boot only moves
+ * readiness to {@code ACCEPTING_TRAFFIC} once every {@link ApplicationRunner} has
+ * returned, so {@code /actuator/health/readiness} stays {@code OUT_OF_SERVICE} while
+ * this runs. It preloads the catalog snapshot and the name cache, then repeats the
+ * read-only {@link BeerService} calls (and their JSON serialization) that requests
+ * hit the most, until the JIT has compiled them or {@code beerstock.warm-up.max-duration}
+ * runs out. Nothing is written, so it is safe against a live database.
+ */
+@Slf4j
+@Component
+@Profile("!reactive")
+@Order(Ordered.LOWEST_PRECEDENCE)
+@ConditionalOnProperty(prefix = "beerstock.warm-up", name = "enabled", havingValue = "true", matchIfMissing = true)
+@AllArgsConstructor(onConstructor = @__(@Autowired))
+public class StartupWarmUp implements ApplicationRunner {
+
+    private static final int PAGE_SIZE = 20;
+    private static final int NEAR_LIMIT = 10;
+
+    private final BeerService beerService;
+    private final CatalogSnapshotCache catalogSnapshotCache;
+    private final ObjectMapper objectMapper;
+    private final BeerStockProperties properties;
+
+    @Override
+    public void run(ApplicationArguments args) throws IOException {
+        BeerStockProperties.WarmUp warmUp = properties.getWarmUp();
+        long start = System.nanoTime();
+        long deadline = start + warmUp.getMaxDuration().toNanos();
+        int catalogBytes = catalogSnapshotCache.current().getJson().length;
+        List<String> names = beerService.preloadNameCache((int) properties.getNameCache().getMaximumSize());
+        int iterations = 0;
+        while (iterations < warmUp.getIterations() && System.nanoTime() < deadline) {
+            exerciseHotPaths(names, iterations++);
+        }
+        log.info("Warm-up done in {} ms: catalog snapshot of {} bytes, {} names cached, {} iterations",
+                (System.nanoTime() - start) / 1_000_000, catalogBytes, names.size(), iterations);
+    }
+
+    private void exerciseHotPaths(List<String> names, int iteration) throws IOException {
+        if (!names.isEmpty()) {
+            try {
+                objectMapper.writeValueAsBytes(beerService.findByName(names.get(iteration % names.size())));
+            } catch (BeerNotFoundException e) {
+                // deleted since it was cached, which only makes this round a bit shorter
+            }
+        }
+        objectMapper.writeValueAsBytes(beerService.listPage(null, PAGE_SIZE));
+        objectMapper.writeValueAsBytes(beerService.listNearMin(NEAR_LIMIT));
+        objectMapper.writeValueAsBytes(beerService.listNearMax(NEAR_LIMIT));
+        objectMapper.writeValueAsBytes(beerService.typeStockStatistics());
+        catalogSnapshotCache.current();
+    }
+}
@@ -0,0 +1,78 @@
+package one.digitalinnovation.beerstock.service;
+
+import lombok.extern.slf4j.Slf4j;
+import one.digitalinnovation.beerstock.dto.StockAlertDTO;
+import org.springframework.http.MediaType;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import javax.annotation.PreDestroy;
+import java.io.IOException;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Consumer;
+
+/**
+ * Pushes {@link StockAlertDTO}s to every subscribed Server-Sent Events stream.
+ * Alerts are queued to a single sender thread, so they reach subscribers in the
+ * order the {@link StockHeadroomIndex} raised them and a slow subscriber never
+ * holds up a stock adjustment. Subscribers that fail are dropped.
+ */
+@Slf4j
+public class StockAlertBroadcaster implements Consumer<StockAlertDTO> {
+
+    private final long subscriptionTimeoutMillis;
+    private final List<SseEmitter> subscribers = new CopyOnWriteArrayList<>();
+    private final ExecutorService sender = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "stock-alerts");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    public StockAlertBroadcaster(Duration subscriptionTimeout) {
+        this.subscriptionTimeoutMillis = subscriptionTimeout.toMillis();
+    }
+
+    public SseEmitter subscribe() {
+        SseEmitter subscriber = new SseEmitter(subscriptionTimeoutMillis);
+        subscriber.onCompletion(() -> subscribers.remove(subscriber));
+        subscriber.onTimeout(subscriber::complete);
+        subscriber.onError(e -> subscribers.remove(subscriber));
+        subscribers.add(subscriber);
+        return subscriber;
+    }
+
+    @Override
+    public void accept(StockAlertDTO alert) {
+        if (!subscribers.isEmpty()) {
+            sender.execute(() -> send(alert));
+        }
+    }
+
+    public int subscriberCount() {
+        return subscribers.size();
+    }
+
+    @PreDestroy
+    public void stop() {
+        sender.shutdownNow();
+        subscribers.forEach(SseEmitter::complete);
+    }
+
+    private void send(StockAlertDTO alert) {
+        SseEmitter.SseEventBuilder event = SseEmitter.event()
+                .name(alert.getType().name())
+                .data(alert, MediaType.APPLICATION_JSON);
+        for (SseEmitter subscriber : subscribers) {
+            try {
+                subscriber.send(event);
+            } catch (IOException | IllegalStateException e) {
+                log.debug("Dropping stock alert subscriber", e);
+                subscribers.remove(subscriber);
+                subscriber.completeWithError(e);
+            }
+        }
+    }
+}
@@ -0,0 +1,28 @@
+package one.digitalinnovation.beerstock.service;
+
+import one.digitalinnovation.beerstock.entity.Beer;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Keeps one {@link BoundedStockCounter} per beer id. A counter is seeded from the
+ * persisted {@link Beer} the first time the beer is adjusted and stays the
+ * authoritative in-memory quantity until the beer is deleted.
+ */
+public class StockCounterRegistry {
+
+    private final ConcurrentMap<Long, BoundedStockCounter> counters = new ConcurrentHashMap<>();
+
+    public BoundedStockCounter get(Long id) {
+        return counters.get(id);
+    }
+
+    public BoundedStockCounter counterFor(Beer beer) {
+        return counters.computeIfAbsent(beer.getId(), id -> new BoundedStockCounter(beer));
+    }
+
+    public BoundedStockCounter evict(Long id) {
+        return counters.remove(id);
+    }
+}
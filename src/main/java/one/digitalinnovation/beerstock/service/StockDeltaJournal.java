@@ -0,0 +1,177 @@
+package one.digitalinnovation.beerstock.service;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Append-only file journal of acknowledged stock deltas that have not reached the
+ * database yet. Records are fixed-size (beer id, delta) pairs written to numbered
+ * segment files; the active segment is rotated before each flush and the rotated
+ * segments are deleted once their deltas are committed. A crash can leave segments
+ * behind on either side of that commit, so the journal is opened with the last
+ * segment the database has applied: segments up to it are deleted, the others hold
+ * exactly the deltas that still have to be applied, and numbering continues after both.
+ */
+public class StockDeltaJournal implements AutoCloseable {
+
+    private static final String SEGMENT_PREFIX = "stock-deltas-";
+    private static final String SEGMENT_SUFFIX = ".journal";
+    private static final int RECORD_SIZE = Long.BYTES + Integer.BYTES;
+
+    private final Path directory;
+    private final boolean fsync;
+    private final ByteBuffer record = ByteBuffer.allocate(RECORD_SIZE);
+    private final List<Path> closedSegments = new ArrayList<>();
+    // not synchronized: appends fsync while holding it, which would pin virtual threads
+    private final ReentrantLock lock = new ReentrantLock();
+    private long nextSegment;
+    private FileChannel activeChannel;
+
+    /**
+     * @param lastAppliedSegment the last segment whose deltas are committed, -1 if none
+     */
+    public StockDeltaJournal(Path directory, boolean fsync, long lastAppliedSegment) throws IOException {
+        this.directory = directory;
+        this.fsync = fsync;
+        Files.createDirectories(directory);
+        for (Path segment : existingSegments()) {
+            if (segmentNumber(segment) <= lastAppliedSegment) {
+                Files.delete(segment);
+            } else {
+                closedSegments.add(segment);
+            }
+        }
+        nextSegment = closedSegments.isEmpty()
+                ? lastAppliedSegment + 1
+                : segmentNumber(closedSegments.get(closedSegments.size() - 1)) + 1;
+        openNextSegment();
+    }
+
+    /**
+     * Sums, per beer id, the deltas of the segments left behind by a previous run.
+     * A record cut short by a crash was never acknowledged and is ignored.
+     */
+    public Map<Long, Integer> pendingDeltas() throws IOException {
+        lock.lock();
+        try {
+            Map<Long, Integer> deltas = new HashMap<>();
+            for (Path segment : closedSegments) {
+                ByteBuffer records = ByteBuffer.wrap(Files.readAllBytes(segment));
+                while (records.remaining() >= RECORD_SIZE) {
+                    deltas.merge(records.getLong(), records.getInt(), Integer::sum);
+                }
+            }
+            return deltas;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Appends one delta; once this returns the delta survives a crash (provided
+     * {@code fsync} is enabled).
+     */
+    public void append(Long beerId, int delta) throws IOException {
+        lock.lock();
+        try {
+            record.clear();
+            record.putLong(beerId).putInt(delta).flip();
+            while (record.hasRemaining()) {
+                activeChannel.write(record);
+            }
+            if (fsync) {
+                activeChannel.force(false);
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Closes the active segment and starts a new one.
+     *
+     * @return every segment whose deltas have not been committed yet, oldest first
+     */
+    public List<Path> rotate() throws IOException {
+        lock.lock();
+        try {
+            activeChannel.close();
+            closedSegments.add(segmentPath(nextSegment - 1));
+            openNextSegment();
+            return new ArrayList<>(closedSegments);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public boolean hasClosedSegments() {
+        lock.lock();
+        try {
+            return !closedSegments.isEmpty();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Deletes segments returned by {@link #rotate()} once their deltas are committed.
+     */
+    public void delete(List<Path> segments) throws IOException {
+        lock.lock();
+        try {
+            for (Path segment : segments) {
+                Files.deleteIfExists(segment);
+            }
+            closedSegments.removeAll(segments);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        lock.lock();
+        try {
+            activeChannel.close();
+            if (Files.size(segmentPath(nextSegment - 1)) == 0) {
+                Files.delete(segmentPath(nextSegment - 1));
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void openNextSegment() throws IOException {
+        activeChannel = FileChannel.open(segmentPath(nextSegment++),
+                StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+    }
+
+    private Path segmentPath(long number) {
+        return directory.resolve(String.format("%s%019d%s", SEGMENT_PREFIX, number, SEGMENT_SUFFIX));
+    }
+
+    private List<Path> existingSegments() throws IOException {
+        List<Path> segments = new ArrayList<>();
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory, SEGMENT_PREFIX + "*" + SEGMENT_SUFFIX)) {
+            stream.forEach(segments::add);
+        }
+        segments.sort(Comparator.comparingLong(StockDeltaJournal::segmentNumber));
+        return segments;
+    }
+
+    static long segmentNumber(Path segment) {
+        String fileName = segment.getFileName().toString();
+        return Long.parseLong(fileName.substring(SEGMENT_PREFIX.length(), fileName.length() - SEGMENT_SUFFIX.length()));
+    }
+}
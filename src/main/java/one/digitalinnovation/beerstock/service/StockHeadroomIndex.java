@@ -0,0 +1,198 @@
+package one.digitalinnovation.beerstock.service;
+
+import one.digitalinnovation.beerstock.dto.BeerStockDTO;
+import one.digitalinnovation.beerstock.dto.StockAlertDTO;
+import one.digitalinnovation.beerstock.entity.Beer;
+import one.digitalinnovation.beerstock.enums.StockAlertType;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NavigableSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.function.Consumer;
+import java.util.function.IntConsumer;
+
+/**
+ * In-memory index of every beer ordered by stock headroom, both towards {@code min}
+ * ({@code quantity - min}) and towards {@code max} ({@code max - quantity}). The
+ * beers closest to either limit are read off the head of a skip list, in
+ * O(log n + limit), without touching the database.
+ * <p>
+ * Each beer is updated under its own map entry, which is also where threshold
+ * crossings are detected: {@code alertListener} is called there, in order per beer,
+ * so it must only hand the alert off.
+ */
+public class StockHeadroomIndex {
+
+    private static final Comparator<Entry> BY_LOW_HEADROOM = Comparator.comparingInt(Entry::lowHeadroom).thenComparing(Entry::getId);
+    private static final Comparator<Entry> BY_HIGH_HEADROOM = Comparator.comparingInt(Entry::highHeadroom).thenComparing(Entry::getId);
+
+    private final int lowStockHeadroom;
+    private final int overStockHeadroom;
+    private final Consumer<StockAlertDTO> alertListener;
+    private final ConcurrentHashMap<Long, Entry> entries = new ConcurrentHashMap<>();
+    private final NavigableSet<Entry> byLowHeadroom = new ConcurrentSkipListSet<>(BY_LOW_HEADROOM);
+    private final NavigableSet<Entry> byHighHeadroom = new ConcurrentSkipListSet<>(BY_HIGH_HEADROOM);
+
+    /**
+     * @param lowStockHeadroom  a beer is low on stock once {@code quantity - min} is at or below this
+     * @param overStockHeadroom a beer is over-stocked once {@code max - quantity} is at or below this
+     */
+    public StockHeadroomIndex(int lowStockHeadroom, int overStockHeadroom, Consumer<StockAlertDTO> alertListener) {
+        this.lowStockHeadroom = lowStockHeadroom;
+        this.overStockHeadroom = overStockHeadroom;
+        this.alertListener = alertListener;
+    }
+
+    /**
+     * Adds a beer, or replaces what is indexed for it.
+     */
+    public void put(BeerStockDTO stock) {
+        Entry entry = new Entry(stock.getId(), stock.getName(), stock.getQuantity(), stock.getMin(), stock.getMax());
+        entries.compute(entry.getId(), (id, previous) -> replace(previous, entry));
+    }
+
+    /**
+     * Re-reads the quantity of an indexed beer from its counter. The counter is read
+     * under the beer's entry, so whichever of two concurrent refreshes runs last
+     * leaves the latest quantity behind. Beers no longer indexed, because they were
+     * deleted meanwhile, are not added back.
+     *
+     * @param quantityChange called under the entry with the quantity indexed so far and the new one
+     */
+    public void refresh(BoundedStockCounter counter, QuantityChange quantityChange) {
+        entries.computeIfPresent(counter.getId(), (id, previous) -> {
+            Beer beer = counter.toBeer(counter.get());
+            quantityChange.changed(previous.getQuantity(), beer.getQuantity());
+            return replace(previous, new Entry(id, beer.getName(), beer.getQuantity(), beer.getMin(), beer.getMax()));
+        });
+    }
+
+    /**
+     * @param removedQuantity called under the entry with the last quantity indexed, if the beer was indexed
+     */
+    public void remove(Long id, IntConsumer removedQuantity) {
+        entries.computeIfPresent(id, (beerId, previous) -> {
+            byLowHeadroom.remove(previous);
+            byHighHeadroom.remove(previous);
+            removedQuantity.accept(previous.getQuantity());
+            return null;
+        });
+    }
+
+    /**
+     * @return up to {@code limit} beers with the least stock above their {@code min}, closest first
+     */
+    public List<BeerStockDTO> closestToMin(int limit) {
+        return head(byLowHeadroom, limit);
+    }
+
+    /**
+     * @return up to {@code limit} beers with the least room below their {@code max}, closest first
+     */
+    public List<BeerStockDTO> closestToMax(int limit) {
+        return head(byHighHeadroom, limit);
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    private Entry replace(Entry previous, Entry entry) {
+        if (previous != null) {
+            byLowHeadroom.remove(previous);
+            byHighHeadroom.remove(previous);
+        }
+        byLowHeadroom.add(entry);
+        byHighHeadroom.add(entry);
+        boolean wasLow = previous != null && isLow(previous);
+        boolean wasOver = previous != null && isOver(previous);
+        if (isLow(entry) != wasLow) {
+            alertListener.accept(alert(wasLow ? StockAlertType.LOW_STOCK_CLEARED : StockAlertType.LOW_STOCK, entry));
+        }
+        if (isOver(entry) != wasOver) {
+            alertListener.accept(alert(wasOver ? StockAlertType.OVER_STOCK_CLEARED : StockAlertType.OVER_STOCK, entry));
+        }
+        return entry;
+    }
+
+    private boolean isLow(Entry entry) {
+        return entry.lowHeadroom() <= lowStockHeadroom;
+    }
+
+    private boolean isOver(Entry entry) {
+        return entry.highHeadroom() <= overStockHeadroom;
+    }
+
+    private static StockAlertDTO alert(StockAlertType type, Entry entry) {
+        return new StockAlertDTO(type, entry.getId(), entry.getName(), entry.getQuantity(), entry.getMin(), entry.getMax(), Instant.now());
+    }
+
+    private static List<BeerStockDTO> head(NavigableSet<Entry> index, int limit) {
+        List<BeerStockDTO> head = new ArrayList<>();
+        Iterator<Entry> iterator = index.iterator();
+        while (head.size() < limit && iterator.hasNext()) {
+            Entry entry = iterator.next();
+            head.add(new BeerStockDTO(entry.getId(), entry.getName(), entry.getQuantity(), entry.getMin(), entry.getMax()));
+        }
+        return head;
+    }
+
+    /**
+     * Observer of an indexed quantity, called in order per beer.
+     */
+    @FunctionalInterface
+    public interface QuantityChange {
+
+        void changed(int fromQuantity, int toQuantity);
+    }
+
+    private static final class Entry {
+
+        private final Long id;
+        private final String name;
+        private final int quantity;
+        private final int min;
+        private final int max;
+
+        private Entry(Long id, String name, int quantity, int min, int max) {
+            this.id = id;
+            this.name = name;
+            this.quantity = quantity;
+            this.min = min;
+            this.max = max;
+        }
+
+        Long getId() {
+            return id;
+        }
+
+        String getName() {
+            return name;
+        }
+
+        int getQuantity() {
+            return quantity;
+        }
+
+        int getMin() {
+            return min;
+        }
+
+        int getMax() {
+            return max;
+        }
+
+        int lowHeadroom() {
+            return quantity - min;
+        }
+
+        int highHeadroom() {
+            return max - quantity;
+        }
+    }
+}
@@ -0,0 +1,171 @@
+package one.digitalinnovation.beerstock.service;
+
+import lombok.AllArgsConstructor;
+import one.digitalinnovation.beerstock.entity.StockMovement;
+import one.digitalinnovation.beerstock.entity.StockSnapshot;
+import one.digitalinnovation.beerstock.entity.WriteBehindWatermark;
+import one.digitalinnovation.beerstock.enums.StockMovementReason;
+import one.digitalinnovation.beerstock.repository.BeerDeltaSum;
+import one.digitalinnovation.beerstock.repository.BeerRepository;
+import one.digitalinnovation.beerstock.repository.StockMovementRepository;
+import one.digitalinnovation.beerstock.repository.StockSnapshotRepository;
+import one.digitalinnovation.beerstock.repository.WriteBehindWatermarkRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Append-only ledger of stock movements. The current stock of a beer is its latest
+ * snapshot plus the movements appended after it, and snapshots are folded forward
+ * periodically so that tail stays short.
+ * <p>
+ * A movement gets its id after the guarded UPDATE locked its beer's row, or, for the
+ * creation movement, before the row is visible to anyone else. The movements of one
+ * beer therefore commit in id order, which is what lets a snapshot stand for every
+ * movement of its beer up to {@code lastMovementId}; ids of different beers carry no
+ * such guarantee.
+ */
+@Service
+@AllArgsConstructor(onConstructor = @__(@Autowired))
+public class StockLedgerService {
+
+    private final BeerRepository beerRepository;
+    private final StockMovementRepository stockMovementRepository;
+    private final StockSnapshotRepository stockSnapshotRepository;
+    private final WriteBehindWatermarkRepository writeBehindWatermarkRepository;
+
+    /**
+     * Applies {@code delta} with the guarded UPDATE and appends the movement in the
+     * same transaction.
+     *
+     * @return false when the beer is gone or the delta would cross one of its limits
+     */
+    @Transactional
+    public boolean applyAndRecord(Long beerId, int delta, StockMovementReason reason) {
+        int updated = delta >= 0
+                ? beerRepository.incrementQuantity(beerId, delta)
+                : beerRepository.decrementQuantity(beerId, -delta);
+        if (updated == 0) {
+            return false;
+        }
+        record(beerId, delta, reason);
+        return true;
+    }
+
+    /**
+     * Batched form of {@link #applyAndRecord}: one net delta per beer, one movement
+     * appended for each delta that was applied.
+     *
+     * @return the ids whose delta was rejected
+     */
+    @Transactional
+    public Set<Long> applyAndRecordAll(Map<Long, Integer> netDeltas, StockMovementReason reason) {
+        Set<Long> rejectedIds = beerRepository.applyQuantityDeltas(netDeltas);
+        List<StockMovement> movements = new ArrayList<>(netDeltas.size());
+        netDeltas.forEach((beerId, delta) -> {
+            if (!rejectedIds.contains(beerId)) {
+                movements.add(new StockMovement(beerId, delta, reason));
+            }
+        });
+        recordAll(movements);
+        return rejectedIds;
+    }
+
+    /**
+     * {@link #applyAndRecordAll} for the deltas of the write-behind journal segments up
+     * to {@code lastSegment}, recording in the same transaction that those segments are applied.
+     *
+     * @return the ids whose delta was rejected
+     */
+    @Transactional
+    public Set<Long> applyJournaledDeltas(Map<Long, Integer> netDeltas, long lastSegment) {
+        Set<Long> rejectedIds = applyAndRecordAll(netDeltas, StockMovementReason.COALESCED);
+        writeBehindWatermarkRepository.save(new WriteBehindWatermark(WriteBehindWatermark.STOCK_DELTAS, lastSegment));
+        return rejectedIds;
+    }
+
+    /**
+     * @return the last write-behind journal segment whose deltas are applied, -1 if none
+     */
+    @Transactional(readOnly = true)
+    public long lastAppliedJournalSegment() {
+        return writeBehindWatermarkRepository.findById(WriteBehindWatermark.STOCK_DELTAS)
+                .map(WriteBehindWatermark::getLastAppliedSegment)
+                .orElse(-1L);
+    }
+
+    /**
+     * Batched form of {@link #applyAndRecord} for movements of several beers: one net
+     * delta per beer, and every movement of a beer whose net delta was applied appended.
+     *
+     * @return the ids whose net delta was rejected
+     */
+    @Transactional
+    public Set<Long> applyAndRecordEach(List<StockMovement> movements) {
+        Map<Long, Integer> netDeltas = new HashMap<>();
+        movements.forEach(movement -> netDeltas.merge(movement.getBeerId(), movement.getDelta(), Integer::sum));
+        Set<Long> rejectedIds = beerRepository.applyQuantityDeltas(netDeltas);
+        if (rejectedIds.isEmpty()) {
+            recordAll(movements);
+        } else {
+            recordAll(movements.stream()
+                    .filter(movement -> !rejectedIds.contains(movement.getBeerId()))
+                    .collect(Collectors.toList()));
+        }
+        return rejectedIds;
+    }
+
+    public void record(Long beerId, int delta, StockMovementReason reason) {
+        stockMovementRepository.save(new StockMovement(beerId, delta, reason));
+    }
+
+    public void recordAll(List<StockMovement> movements) {
+        if (!movements.isEmpty()) {
+            stockMovementRepository.saveAll(movements);
+        }
+    }
+
+    @Transactional(readOnly = true)
+    public long currentQuantity(Long beerId) {
+        return stockSnapshotRepository.findById(beerId)
+                .map(snapshot -> snapshot.getQuantity() + stockMovementRepository.sumDeltasAfter(beerId, snapshot.getLastMovementId()))
+                .orElseGet(() -> stockMovementRepository.sumDeltasAfter(beerId, 0L));
+    }
+
+    public long quantityAt(Long beerId, Instant at) {
+        return stockMovementRepository.sumDeltasUntil(beerId, at);
+    }
+
+    public List<StockMovement> history(Long beerId, int limit) {
+        return stockMovementRepository.findByBeerIdOrderByIdDesc(beerId, PageRequest.of(0, limit));
+    }
+
+    /**
+     * Folds the movements committed since each beer's snapshot into it, up to the last
+     * one seen for that beer. A movement still in flight has a higher id than every
+     * committed movement of its beer, so it is left to a later run instead of skipped.
+     */
+    @Scheduled(fixedDelayString = "${beerstock.ledger.snapshot-interval-ms:60000}")
+    @Transactional
+    public void takeSnapshots() {
+        Instant now = Instant.now();
+        for (BeerDeltaSum deltaSum : stockMovementRepository.sumUnfoldedDeltasByBeer()) {
+            StockSnapshot snapshot = stockSnapshotRepository.findById(deltaSum.getBeerId())
+                    .orElseGet(() -> new StockSnapshot(deltaSum.getBeerId(), 0L, 0L, now));
+            snapshot.setQuantity(snapshot.getQuantity() + deltaSum.getTotal());
+            snapshot.setLastMovementId(deltaSum.getLastMovementId());
+            snapshot.setTakenAt(now);
+            stockSnapshotRepository.save(snapshot);
+        }
+    }
+}
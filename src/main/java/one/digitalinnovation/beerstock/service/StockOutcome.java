@@ -0,0 +1,81 @@
+package one.digitalinnovation.beerstock.service;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import one.digitalinnovation.beerstock.dto.BeerDTO;
+import one.digitalinnovation.beerstock.exception.BeerNotFoundException;
+import one.digitalinnovation.beerstock.exception.BeerStockExceededException;
+import one.digitalinnovation.beerstock.exception.BeerStockMinCapacityExceededException;
+import one.digitalinnovation.beerstock.exception.NegativeInputException;
+
+/**
+ * Result of a stock adjustment. Rejections are expected under load, so they are
+ * returned as values instead of thrown: no stack trace is filled and the message
+ * is only built if someone asks for it. {@link Status#getException()} names the
+ * exception the throwing variants of the operation use for the same rejection.
+ */
+@Getter
+public final class StockOutcome {
+
+    @Getter
+    @AllArgsConstructor
+    public enum Status {
+
+        APPLIED(null),
+        NOT_FOUND(BeerNotFoundException.class),
+        NEGATIVE_INPUT(NegativeInputException.class),
+        MAX_EXCEEDED(BeerStockExceededException.class),
+        MIN_EXCEEDED(BeerStockMinCapacityExceededException.class);
+
+        private final Class<? extends Exception> exception;
+    }
+
+    private final Status status;
+    private final Long id;
+    private final int quantity;
+    private final BeerDTO beer;
+    /** True when this is the remembered outcome of an earlier request with the same idempotency key. */
+    private final boolean replayed;
+
+    private StockOutcome(Status status, Long id, int quantity, BeerDTO beer, boolean replayed) {
+        this.status = status;
+        this.id = id;
+        this.quantity = quantity;
+        this.beer = beer;
+        this.replayed = replayed;
+    }
+
+    public static StockOutcome applied(BeerDTO beer) {
+        return new StockOutcome(Status.APPLIED, beer.getId(), 0, beer, false);
+    }
+
+    public static StockOutcome replayed(BeerDTO beer) {
+        return new StockOutcome(Status.APPLIED, beer.getId(), 0, beer, true);
+    }
+
+    public static StockOutcome rejected(Status status, Long id, int quantity) {
+        return new StockOutcome(status, id, quantity, null, false);
+    }
+
+    public boolean isApplied() {
+        return status == Status.APPLIED;
+    }
+
+    /**
+     * Same text as the message of the matching exception, built from its format.
+     */
+    public String getMessage() {
+        switch (status) {
+            case NOT_FOUND:
+                return String.format(BeerNotFoundException.ID_MESSAGE, id);
+            case NEGATIVE_INPUT:
+                return String.format(NegativeInputException.MESSAGE, quantity);
+            case MAX_EXCEEDED:
+                return String.format(BeerStockExceededException.MESSAGE, id, quantity);
+            case MIN_EXCEEDED:
+                return String.format(BeerStockMinCapacityExceededException.MESSAGE, id, quantity);
+            default:
+                return null;
+        }
+    }
+}
@@ -0,0 +1,95 @@
+package one.digitalinnovation.beerstock.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.ConcurrencyFailureException;
+
+import java.time.Duration;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Supplier;
+
+/**
+ * Retries a stock write that lost a race for its beer's row: an optimistic version
+ * conflict, a lock wait that timed out or a deadlock, all of which Spring reports as
+ * {@link ConcurrencyFailureException}. Each write is attempted at most
+ * {@code maxAttempts} times; between attempts it sleeps a random time up to an
+ * exponentially growing cap ("full jitter"), so contending writers spread out instead
+ * of colliding again in lockstep.
+ * <p>
+ * Every conflict is counted in {@value #CONFLICT_COUNTER}, tagged {@code retried} or
+ * {@code exhausted}. A sustained conflict rate means the hot beers should move to the
+ * sharded stock engine, whose single writer per beer cannot conflict.
+ */
+@Slf4j
+public class StockWriteRetry {
+
+    static final String CONFLICT_COUNTER = "beerstock.stock.conflicts";
+
+    private final int maxAttempts;
+    private final long initialBackoffNanos;
+    private final long maxBackoffNanos;
+    private final Counter retried;
+    private final Counter exhausted;
+
+    public StockWriteRetry(int maxAttempts, Duration initialBackoff, Duration maxBackoff, MeterRegistry meterRegistry) {
+        this.maxAttempts = Math.max(1, maxAttempts);
+        this.initialBackoffNanos = initialBackoff.toNanos();
+        this.maxBackoffNanos = maxBackoff.toNanos();
+        this.retried = conflictCounter(meterRegistry, "retried");
+        this.exhausted = conflictCounter(meterRegistry, "exhausted");
+    }
+
+    /**
+     * Runs {@code write}, which must be a whole transaction of its own, until it does
+     * not conflict or the attempts run out; the last conflict is then rethrown.
+     */
+    public <T> T call(Long beerId, Supplier<T> write) {
+        return call("beer", beerId, write);
+    }
+
+    /**
+     * Same as {@link #call(Long, Supplier)} for a write covering several beers, such as
+     * a shard's batch; {@code writer} names it in the logs.
+     */
+    public <T> T callBatch(String writer, Supplier<T> write) {
+        return call("batch of", writer, write);
+    }
+
+    private <T> T call(String kind, Object target, Supplier<T> write) {
+        for (int attempt = 1; ; attempt++) {
+            try {
+                return write.get();
+            } catch (ConcurrencyFailureException e) {
+                if (attempt >= maxAttempts) {
+                    exhausted.increment();
+                    log.warn("Stock write for {} {} still conflicting after {} attempts: {}", kind, target, attempt, e.getMessage());
+                    throw e;
+                }
+                retried.increment();
+                log.debug("Stock write for {} {} conflicted on attempt {}, retrying", kind, target, attempt);
+                backOff(attempt, e);
+            }
+        }
+    }
+
+    private void backOff(int attempt, ConcurrencyFailureException conflict) {
+        long cap = Math.min(maxBackoffNanos, initialBackoffNanos << Math.min(attempt - 1, 30));
+        if (cap <= 0) {
+            return;
+        }
+        try {
+            Thread.sleep(Duration.ofNanos(ThreadLocalRandom.current().nextLong(cap + 1)));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw conflict;
+        }
+    }
+
+    private static Counter conflictCounter(MeterRegistry meterRegistry, String outcome) {
+        return Counter.builder(CONFLICT_COUNTER)
+                .description("Stock writes that conflicted with a concurrent write to the same beer")
+                .tag("outcome", outcome)
+                .register(meterRegistry);
+    }
+}
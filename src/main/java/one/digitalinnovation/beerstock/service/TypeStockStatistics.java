@@ -0,0 +1,189 @@
+package one.digitalinnovation.beerstock.service;
+
+import one.digitalinnovation.beerstock.dto.TypeStockStatisticsDTO;
+import one.digitalinnovation.beerstock.enums.BeerType;
+import one.digitalinnovation.beerstock.repository.TypeQuantityCount;
+
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Number of beers, total, min, max and average stock per {@link BeerType}, kept up to
+ * date by the stock-mutation paths instead of being recomputed from the table.
+ * Everything is stored in arrays indexed by the type's ordinal; besides the count and
+ * total, each type keeps how many beers sit at every quantity, so min and max are the
+ * first and last non-empty buckets. Updates are a few atomic adds and never block.
+ * <p>
+ * Bean validation keeps quantities within [0, {@value #MAX_TRACKED_QUANTITY}]; a
+ * quantity outside that range is bucketed at the nearest end, which only affects
+ * min and max.
+ * <p>
+ * A write to the beers is bracketed by {@link #beginWrite()} and {@link #endWrite()},
+ * from before it reaches the database until its statistics are updated. A
+ * reconciliation only applies counts queried while no write started, seqlock-style:
+ * it takes a {@link #writeStamp()} when none is in flight and hands it back to
+ * {@link #reconcile(List, long)}, which skips if another write began since.
+ */
+public class TypeStockStatistics {
+
+    public static final int MAX_TRACKED_QUANTITY = 500;
+
+    private static final BeerType[] TYPES = BeerType.values();
+    private static final int BUCKETS = MAX_TRACKED_QUANTITY + 1;
+
+    private final AtomicLongArray beers = new AtomicLongArray(TYPES.length);
+    private final AtomicLongArray totals = new AtomicLongArray(TYPES.length);
+    private final AtomicLongArray beersAtQuantity = new AtomicLongArray(TYPES.length * BUCKETS);
+    private final AtomicLong writesBegun = new AtomicLong();
+    private final AtomicLong writesEnded = new AtomicLong();
+    private final ReadWriteLock reconciliationLock = new ReentrantReadWriteLock();
+
+    /**
+     * Announces a write to the beers, before it reaches the database. Waits for a
+     * reconciliation being applied, so its statistics cannot be overwritten by it.
+     */
+    public void beginWrite() {
+        reconciliationLock.readLock().lock();
+        try {
+            writesBegun.incrementAndGet();
+        } finally {
+            reconciliationLock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Ends a write announced with {@link #beginWrite()}, once its statistics are
+     * updated or it failed.
+     */
+    public void endWrite() {
+        writesEnded.incrementAndGet();
+    }
+
+    /**
+     * @return a stamp for {@link #reconcile(List, long)}, or empty while a write is in flight
+     */
+    public Optional<Long> writeStamp() {
+        long ended = writesEnded.get();
+        long begun = writesBegun.get();
+        // ended never passes begun, so equal values mean none was in flight once begun was read
+        return begun == ended ? Optional.of(begun) : Optional.empty();
+    }
+
+    public void add(BeerType type, int quantity) {
+        beers.incrementAndGet(type.ordinal());
+        totals.addAndGet(type.ordinal(), quantity);
+        beersAtQuantity.incrementAndGet(bucket(type, quantity));
+    }
+
+    public void remove(BeerType type, int quantity) {
+        beers.decrementAndGet(type.ordinal());
+        totals.addAndGet(type.ordinal(), -quantity);
+        beersAtQuantity.decrementAndGet(bucket(type, quantity));
+    }
+
+    /**
+     * Records one accepted adjustment of a beer's stock. Adjustments of the same beer
+     * may be recorded in any order: each one moves the beer out of the bucket its
+     * counter left and into the one it reached, so they add up to the same state.
+     */
+    public void move(BeerType type, int fromQuantity, int toQuantity) {
+        totals.addAndGet(type.ordinal(), toQuantity - fromQuantity);
+        beersAtQuantity.decrementAndGet(bucket(type, fromQuantity));
+        beersAtQuantity.incrementAndGet(bucket(type, toQuantity));
+    }
+
+    public List<TypeStockStatisticsDTO> getAll() {
+        List<TypeStockStatisticsDTO> statistics = new ArrayList<>(TYPES.length);
+        for (BeerType type : TYPES) {
+            statistics.add(get(type));
+        }
+        return statistics;
+    }
+
+    public TypeStockStatisticsDTO get(BeerType type) {
+        long beerCount = beers.get(type.ordinal());
+        long total = totals.get(type.ordinal());
+        Integer min = null;
+        Integer max = null;
+        int offset = type.ordinal() * BUCKETS;
+        for (int quantity = 0; quantity < BUCKETS; quantity++) {
+            if (beersAtQuantity.get(offset + quantity) > 0) {
+                min = min == null ? quantity : min;
+                max = quantity;
+            }
+        }
+        Double average = beerCount > 0 ? (double) total / beerCount : null;
+        return new TypeStockStatisticsDTO(type, beerCount, total, min, max, average);
+    }
+
+    /**
+     * Same as {@link #reconcile(List)}, unless a write began since {@code writeStamp}
+     * was taken: {@code counts} may then already include a write whose statistics are
+     * not updated yet.
+     *
+     * @return empty when skipped
+     */
+    public Optional<Map<BeerType, TypeStockStatisticsDTO>> reconcile(List<TypeQuantityCount> counts, long writeStamp) {
+        reconciliationLock.writeLock().lock();
+        try {
+            if (writesBegun.get() != writeStamp) {
+                return Optional.empty();
+            }
+            return Optional.of(reconcile(counts));
+        } finally {
+            reconciliationLock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Replaces the statistics with the ones computed from {@code counts}, one row per
+     * type and quantity, by adding the difference to each cell.
+     *
+     * @return for each type that had drifted, the statistics as they were before
+     */
+    public Map<BeerType, TypeStockStatisticsDTO> reconcile(List<TypeQuantityCount> counts) {
+        long[] actualBeers = new long[TYPES.length];
+        long[] actualTotals = new long[TYPES.length];
+        long[] actualBeersAtQuantity = new long[TYPES.length * BUCKETS];
+        for (TypeQuantityCount count : counts) {
+            int type = count.getType().ordinal();
+            actualBeers[type] += count.getBeers();
+            actualTotals[type] += count.getQuantity() * count.getBeers();
+            actualBeersAtQuantity[bucket(count.getType(), count.getQuantity())] += count.getBeers();
+        }
+        Map<BeerType, TypeStockStatisticsDTO> drifted = new EnumMap<>(BeerType.class);
+        for (BeerType type : TYPES) {
+            TypeStockStatisticsDTO before = get(type);
+            boolean drift = correct(beers, type.ordinal(), actualBeers[type.ordinal()]);
+            drift |= correct(totals, type.ordinal(), actualTotals[type.ordinal()]);
+            int offset = type.ordinal() * BUCKETS;
+            for (int quantity = 0; quantity < BUCKETS; quantity++) {
+                drift |= correct(beersAtQuantity, offset + quantity, actualBeersAtQuantity[offset + quantity]);
+            }
+            if (drift) {
+                drifted.put(type, before);
+            }
+        }
+        return drifted;
+    }
+
+    private static boolean correct(AtomicLongArray cells, int index, long actual) {
+        long difference = actual - cells.get(index);
+        if (difference == 0) {
+            return false;
+        }
+        cells.addAndGet(index, difference);
+        return true;
+    }
+
+    private static int bucket(BeerType type, int quantity) {
+        return type.ordinal() * BUCKETS + Math.max(0, Math.min(quantity, MAX_TRACKED_QUANTITY));
+    }
+}
@@ -0,0 +1,75 @@
+package one.digitalinnovation.beerstock.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import one.digitalinnovation.beerstock.dto.TypeStockStatisticsDTO;
+import one.digitalinnovation.beerstock.enums.BeerType;
+import one.digitalinnovation.beerstock.repository.BeerRepository;
+import one.digitalinnovation.beerstock.repository.TypeQuantityCount;
+import org.springframework.context.annotation.Profile;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Periodically recomputes the {@link TypeStockStatistics} from the database and
+ * corrects them, logging and counting every type whose statistics had drifted.
+ * Pending write-behind deltas are flushed first so the database is comparable with
+ * the counters. A run that starts while a write to the beers is in flight, or during
+ * which one begins, is discarded: its counts could include a write whose statistics
+ * are not updated yet, or miss one whose statistics are. Reactive writes do not
+ * maintain the statistics, so there is nothing to reconcile in that profile.
+ */
+@Slf4j
+@Service
+@Profile("!reactive")
+public class TypeStockStatisticsReconciler {
+
+    private final BeerRepository beerRepository;
+    private final TypeStockStatistics typeStockStatistics;
+    private final WriteBehindStockBuffer writeBehindStockBuffer;
+    private final Map<BeerType, Counter> driftCounters = new EnumMap<>(BeerType.class);
+
+    public TypeStockStatisticsReconciler(BeerRepository beerRepository, TypeStockStatistics typeStockStatistics,
+                                         WriteBehindStockBuffer writeBehindStockBuffer, MeterRegistry meterRegistry) {
+        this.beerRepository = beerRepository;
+        this.typeStockStatistics = typeStockStatistics;
+        this.writeBehindStockBuffer = writeBehindStockBuffer;
+        for (BeerType type : BeerType.values()) {
+            driftCounters.put(type, Counter.builder("beerstock.stock.type.statistics.drift")
+                    .description("Reconciliations that found the in-memory statistics of a type out of line with the database")
+                    .tag("type", type.name())
+                    .register(meterRegistry));
+        }
+    }
+
+    @Scheduled(initialDelayString = "${beerstock.type-statistics.reconcile-interval-ms:300000}",
+            fixedDelayString = "${beerstock.type-statistics.reconcile-interval-ms:300000}")
+    public void reconcile() throws IOException {
+        // taken before the flush, so every write it covers has reached the database
+        Optional<Long> writeStamp = typeStockStatistics.writeStamp();
+        if (writeStamp.isEmpty()) {
+            log.debug("A write to the beers is in flight, skipping this reconciliation");
+            return;
+        }
+        if (writeBehindStockBuffer.isEnabled()) {
+            writeBehindStockBuffer.flush();
+        }
+        List<TypeQuantityCount> counts = beerRepository.countByTypeAndQuantity();
+        Optional<Map<BeerType, TypeStockStatisticsDTO>> drifted = typeStockStatistics.reconcile(counts, writeStamp.get());
+        if (drifted.isEmpty()) {
+            log.debug("The beers were written while the stock statistics were recomputed, skipping this reconciliation");
+            return;
+        }
+        drifted.get().forEach((type, before) -> {
+            driftCounters.get(type).increment();
+            log.warn("Stock statistics of {} drifted: were {}, now {}", type, before, typeStockStatistics.get(type));
+        });
+    }
+}
@@ -0,0 +1,170 @@
+package one.digitalinnovation.beerstock.service;
+
+import lombok.extern.slf4j.Slf4j;
+import one.digitalinnovation.beerstock.config.BeerStockProperties;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Write-behind buffer for stock deltas. A delta already accepted by the in-memory
+ * counter is appended to a {@link StockDeltaJournal} and summed into one pending
+ * delta per beer; a background thread flushes the pending deltas with a single
+ * batched UPDATE (and one ledger movement per beer) every {@code flushInterval},
+ * or earlier once {@code flushThreshold} beers have something pending.
+ * <p>
+ * Journal segments are only deleted after the flush that covers them commits, so
+ * the deltas acknowledged before a crash are replayed on the next start, before
+ * any counter is seeded from the database. The flush also stores the last segment
+ * it covers in the same transaction, so segments that survive a crash between the
+ * commit and their deletion are recognised and not applied twice. Shutdown flushes
+ * whatever is pending.
+ */
+@Slf4j
+public class WriteBehindStockBuffer {
+
+    private final BeerStockProperties.WriteBehind properties;
+    private final StockLedgerService stockLedger;
+    private final ConcurrentHashMap<Long, Integer> pendingDeltas = new ConcurrentHashMap<>();
+    // appends share the lock, rotating the journal and draining the deltas takes it exclusively
+    private final ReadWriteLock journalLock = new ReentrantReadWriteLock();
+    private final AtomicBoolean earlyFlushRequested = new AtomicBoolean();
+    private final List<Runnable> flushListeners = new CopyOnWriteArrayList<>();
+    private StockDeltaJournal journal;
+    private ScheduledExecutorService flusher;
+
+    public WriteBehindStockBuffer(BeerStockProperties.WriteBehind properties, StockLedgerService stockLedger) {
+        this.properties = properties;
+        this.stockLedger = stockLedger;
+    }
+
+    public boolean isEnabled() {
+        return properties.isEnabled();
+    }
+
+    @PostConstruct
+    public void start() throws IOException {
+        if (!isEnabled()) {
+            return;
+        }
+        journal = new StockDeltaJournal(properties.getJournalDirectory(), properties.isFsync(), stockLedger.lastAppliedJournalSegment());
+        pendingDeltas.putAll(journal.pendingDeltas());
+        flush();
+        flusher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "stock-write-behind");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long intervalMillis = properties.getFlushInterval().toMillis();
+        flusher.scheduleWithFixedDelay(this::flushQuietly, intervalMillis, intervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Registers {@code listener} to run after every flush that wrote deltas to the database.
+     */
+    public void addFlushListener(Runnable listener) {
+        flushListeners.add(listener);
+    }
+
+    /**
+     * Journals {@code delta} and queues it for the next flush. The delta is durable,
+     * and can be acknowledged, once this returns.
+     *
+     * @throws UncheckedIOException when the journal cannot be written; the delta is then not queued
+     */
+    public void submit(Long beerId, int delta) {
+        journalLock.readLock().lock();
+        try {
+            journal.append(beerId, delta);
+            pendingDeltas.merge(beerId, delta, Integer::sum);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } finally {
+            journalLock.readLock().unlock();
+        }
+        if (pendingDeltas.size() >= properties.getFlushThreshold() && earlyFlushRequested.compareAndSet(false, true)) {
+            try {
+                flusher.execute(this::flushQuietly);
+            } catch (RejectedExecutionException e) {
+                // shutting down: the delta is already journaled, and the final flush in stop() or the replay writes it
+                log.debug("Write-behind flusher stopped, leaving the early flush to shutdown");
+            }
+        }
+    }
+
+    /**
+     * Writes every pending delta in one transaction. If the transaction fails the
+     * deltas are queued again and their journal segments kept.
+     */
+    public synchronized void flush() throws IOException {
+        earlyFlushRequested.set(false);
+        if (pendingDeltas.isEmpty() && !journal.hasClosedSegments()) {
+            return;
+        }
+        Map<Long, Integer> drainedDeltas = new HashMap<>();
+        List<Path> segments;
+        journalLock.writeLock().lock();
+        try {
+            segments = journal.rotate();
+            for (Long beerId : pendingDeltas.keySet()) {
+                Integer delta = pendingDeltas.remove(beerId);
+                if (delta != null && delta != 0) {
+                    drainedDeltas.put(beerId, delta);
+                }
+            }
+        } finally {
+            journalLock.writeLock().unlock();
+        }
+        if (!drainedDeltas.isEmpty()) {
+            Set<Long> rejectedIds;
+            try {
+                rejectedIds = stockLedger.applyJournaledDeltas(drainedDeltas, StockDeltaJournal.segmentNumber(segments.get(segments.size() - 1)));
+            } catch (RuntimeException e) {
+                drainedDeltas.forEach((beerId, delta) -> pendingDeltas.merge(beerId, delta, Integer::sum));
+                throw e;
+            }
+            // counters are authoritative, so this only happens for beers deleted in the meantime
+            rejectedIds.forEach(beerId -> log.warn("Dropped write-behind delta {} for beer {}", drainedDeltas.get(beerId), beerId));
+            flushListeners.forEach(Runnable::run);
+        }
+        journal.delete(segments);
+    }
+
+    @PreDestroy
+    public void stop() throws IOException, InterruptedException {
+        if (!isEnabled()) {
+            return;
+        }
+        flusher.shutdown();
+        flusher.awaitTermination(properties.getFlushInterval().toMillis() * 10, TimeUnit.MILLISECONDS);
+        try {
+            flush();
+        } finally {
+            journal.close();
+        }
+    }
+
+    private void flushQuietly() {
+        try {
+            flush();
+        } catch (Exception e) {
+            log.error("Write-behind flush failed, pending stock deltas will be retried", e);
+        }
+    }
+}
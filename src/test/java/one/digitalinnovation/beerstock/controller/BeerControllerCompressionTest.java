@@ -0,0 +1,123 @@
+package one.digitalinnovation.beerstock.controller;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import one.digitalinnovation.beerstock.dto.BeerDTO;
+import one.digitalinnovation.beerstock.dto.BeerPageDTO;
+import one.digitalinnovation.beerstock.enums.BeerType;
+import one.digitalinnovation.beerstock.service.BeerService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.web.server.LocalServerPort;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.hasSize;
+import static org.hamcrest.Matchers.is;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+        properties = "spring.datasource.url=jdbc:h2:mem:compression;DB_CLOSE_DELAY=-1;DB_CLOSE_ON_EXIT=FALSE")
+public class BeerControllerCompressionTest {
+
+    private static final String BEER_API_URL_PATH = "/api/v1/beers";
+    private static final int CATALOG_SIZE = 200;
+
+    private final HttpClient httpClient = HttpClient.newBuilder().version(HttpClient.Version.HTTP_2).build();
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private BeerService beerService;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        if (beerService.listAll().isEmpty()) {
+            List<BeerDTO> beers = new ArrayList<>();
+            for (int i = 0; i < CATALOG_SIZE; i++) {
+                beers.add(BeerDTO.builder().name("Compressed Beer " + i).brand("Brand " + i % 10)
+                        .max(100).min(0).quantity(i % 100).type(BeerType.values()[i % BeerType.values().length]).build());
+            }
+            beerService.createBeers(beers);
+        }
+    }
+
+    @Test
+    void gzippedCatalogOverH2cDecodesToTheSameBeers() throws Exception {
+        // given
+        List<BeerDTO> plain = objectMapper.readValue(get(BEER_API_URL_PATH, false).body(), new TypeReference<List<BeerDTO>>() { });
+
+        // when
+        HttpResponse<byte[]> gzipped = get(BEER_API_URL_PATH, true);
+
+        // then
+        assertThat(gzipped.version(), is(HttpClient.Version.HTTP_2));
+        assertThat(gzipped.headers().firstValue("content-encoding").orElse(null), is(equalTo("gzip")));
+        assertThat(plain, hasSize(CATALOG_SIZE));
+        assertThat(objectMapper.readValue(gunzip(gzipped.body()), new TypeReference<List<BeerDTO>>() { }), is(equalTo(plain)));
+    }
+
+    @Test
+    void gzippedPageDecodesToTheSameBeers() throws Exception {
+        // given
+        List<BeerDTO> plain = objectMapper.readValue(get(BEER_API_URL_PATH, false).body(), new TypeReference<List<BeerDTO>>() { });
+
+        // when
+        HttpResponse<byte[]> gzipped = get(BEER_API_URL_PATH + "?size=100", true);
+
+        // then
+        assertThat(gzipped.headers().firstValue("content-encoding").orElse(null), is(equalTo("gzip")));
+        BeerPageDTO page = objectMapper.readValue(gunzip(gzipped.body()), BeerPageDTO.class);
+        assertThat(page.getBeers(), is(equalTo(plain.subList(0, 100))));
+    }
+
+    @Test
+    void gzippedExportDecodesToTheSameBeers() throws Exception {
+        // given
+        List<BeerDTO> plain = objectMapper.readValue(get(BEER_API_URL_PATH, false).body(), new TypeReference<List<BeerDTO>>() { });
+
+        // when
+        HttpResponse<byte[]> gzipped = get(BEER_API_URL_PATH + "/catalog/export", true);
+
+        // then
+        assertThat(gzipped.headers().firstValue("content-encoding").orElse(null), is(equalTo("gzip")));
+        List<BeerDTO> exported = new ArrayList<>();
+        try (BufferedReader lines = new BufferedReader(new InputStreamReader(gunzip(gzipped.body()), StandardCharsets.UTF_8))) {
+            for (String line = lines.readLine(); line != null; line = lines.readLine()) {
+                exported.add(objectMapper.readValue(line, BeerDTO.class));
+            }
+        }
+        assertThat(exported, is(equalTo(plain)));
+    }
+
+    private HttpResponse<byte[]> get(String path, boolean acceptGzip) throws IOException, InterruptedException {
+        HttpRequest.Builder request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + path));
+        if (acceptGzip) {
+            request.header("Accept-Encoding", "gzip");
+        }
+        return httpClient.send(request.build(), HttpResponse.BodyHandlers.ofByteArray());
+    }
+
+    private static InputStream gunzip(byte[] body) throws IOException {
+        return new GZIPInputStream(new ByteArrayInputStream(body));
+    }
+}
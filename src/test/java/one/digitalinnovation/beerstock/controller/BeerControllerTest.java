@@ -1,34 +1,80 @@
 package one.digitalinnovation.beerstock.controller;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
 import one.digitalinnovation.beerstock.builder.BeerDTOBuilder;
 import one.digitalinnovation.beerstock.dto.BeerDTO;
+import one.digitalinnovation.beerstock.dto.BeerPageDTO;
+import one.digitalinnovation.beerstock.dto.BeerStockDTO;
+import one.digitalinnovation.beerstock.dto.BeersDTO;
+import one.digitalinnovation.beerstock.dto.CatalogImportErrorDTO;
+import one.digitalinnovation.beerstock.dto.CatalogImportReportDTO;
 import one.digitalinnovation.beerstock.dto.QuantityDTO;
+import one.digitalinnovation.beerstock.dto.StockLevelDTO;
+import one.digitalinnovation.beerstock.dto.StockMovementDTO;
+import one.digitalinnovation.beerstock.dto.StockMovementResultDTO;
+import one.digitalinnovation.beerstock.dto.StockMovementsDTO;
+import one.digitalinnovation.beerstock.dto.TypeStockStatisticsDTO;
 import one.digitalinnovation.beerstock.entity.Beer;
+import one.digitalinnovation.beerstock.enums.BeerType;
+import one.digitalinnovation.beerstock.enums.CatalogFormat;
 import one.digitalinnovation.beerstock.exception.*;
+import one.digitalinnovation.beerstock.mapper.BeerBinaryCodec;
+import one.digitalinnovation.beerstock.repository.BeerRowHandler;
 import one.digitalinnovation.beerstock.service.BeerService;
+import one.digitalinnovation.beerstock.service.CatalogImportService;
+import one.digitalinnovation.beerstock.service.CatalogSnapshotCache;
+import one.digitalinnovation.beerstock.service.IdempotencyStore;
+import one.digitalinnovation.beerstock.service.StockAlertBroadcaster;
+import one.digitalinnovation.beerstock.service.StockOutcome;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
-import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.data.web.PageableHandlerMethodArgumentResolver;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
+import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
 import org.springframework.test.web.servlet.setup.MockMvcBuilders;
 import org.springframework.web.servlet.view.json.MappingJackson2JsonView;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Arrays;
 import java.util.Collections;
+import java.util.List;
 import java.util.Optional;
+import java.util.zip.GZIPInputStream;
 import static one.digitalinnovation.beerstock.utils.JsonConvertionUtils.asJsonString;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.endsWith;
+import static org.hamcrest.Matchers.hasSize;
 import static org.hamcrest.core.Is.is;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.mockito.Mockito.doNothing;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import static org.springframework.mock.http.server.reactive.MockServerHttpRequest.patch;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 @ExtendWith(MockitoExtension.class)
@@ -45,11 +91,22 @@ public class BeerControllerTest {
     @Mock
     private BeerService beerService;
 
-    @InjectMocks
+    @Mock
+    private StockAlertBroadcaster stockAlertBroadcaster;
+
+    @Mock
+    private CatalogImportService catalogImportService;
+
+    @Spy
+    private ObjectMapper objectMapper = new ObjectMapper();
+
     private BeerController beerController;
 
     @BeforeEach
     void setUp() {
+        CatalogSnapshotCache catalogSnapshotCache = new CatalogSnapshotCache(beerService, objectMapper, true, 0);
+        beerController = new BeerController(beerService, stockAlertBroadcaster, objectMapper, catalogSnapshotCache, catalogImportService,
+                new IdempotencyStore(100, Duration.ofMinutes(1)));
         mockMvc = MockMvcBuilders.standaloneSetup(beerController)
                 .setCustomArgumentResolvers(new PageableHandlerMethodArgumentResolver())
                 .setViewResolvers((s, locale) -> new MappingJackson2JsonView())
@@ -126,7 +183,7 @@ public class BeerControllerTest {
         BeerDTO beerDTO = BeerDTOBuilder.builder().build().toBeerDTO();
 
         //when
-        when(beerService.listAll()).thenReturn(Collections.singletonList(beerDTO));
+        catalogContains(beerDTO);
 
         // then
         mockMvc.perform(MockMvcRequestBuilders.get(BEER_API_URL_PATH)
@@ -143,7 +200,7 @@ public class BeerControllerTest {
         BeerDTO beerDTO = BeerDTOBuilder.builder().build().toBeerDTO();
 
         //when
-        when(beerService.listAll()).thenReturn(Collections.singletonList(beerDTO));
+        catalogContains(beerDTO);
 
         // then
         mockMvc.perform(MockMvcRequestBuilders.get(BEER_API_URL_PATH)
@@ -185,7 +242,7 @@ public class BeerControllerTest {
         BeerDTO beerDTO = BeerDTOBuilder.builder().build().toBeerDTO();
         //when
         beerDTO.setQuantity(beerDTO.getQuantity() + quantityDTO.getQuantity());
-        when(beerService.increment(VALID_BEER_ID, quantityDTO.getQuantity())).thenReturn(beerDTO);
+        when(beerService.tryIncrement(VALID_BEER_ID, quantityDTO.getQuantity())).thenReturn(StockOutcome.applied(beerDTO));
         //then
         mockMvc.perform(MockMvcRequestBuilders.patch(BEER_API_URL_PATH + "/" + VALID_BEER_ID + BEER_API_SUBPATH_INCREMENT_URL)
                         .contentType(MediaType.APPLICATION_JSON)
@@ -196,6 +253,89 @@ public class BeerControllerTest {
                 .andExpect(jsonPath("$.quantity", is(beerDTO.getQuantity())));
     }
 
+    @Test
+    void PATCHIncrementInBinaryThenOKStatusInBinary() throws Exception {
+        //given
+        QuantityDTO quantityDTO = QuantityDTO.builder()
+                .quantity(10)
+                .build();
+        BeerDTO beerDTO = BeerDTOBuilder.builder().build().toBeerDTO();
+        beerDTO.setQuantity(beerDTO.getQuantity() + quantityDTO.getQuantity());
+        ByteArrayOutputStream body = new ByteArrayOutputStream();
+        BeerBinaryCodec.writeQuantity(quantityDTO, new DataOutputStream(body));
+        //when
+        when(beerService.tryIncrement(VALID_BEER_ID, quantityDTO.getQuantity())).thenReturn(StockOutcome.applied(beerDTO));
+        //then
+        byte[] response = withBinaryProtocol().perform(MockMvcRequestBuilders.patch(BEER_API_URL_PATH + "/" + VALID_BEER_ID + BEER_API_SUBPATH_INCREMENT_URL)
+                        .contentType(BeerBinaryHttpMessageConverter.APPLICATION_BEERSTOCK_BINARY)
+                        .accept(BeerBinaryHttpMessageConverter.APPLICATION_BEERSTOCK_BINARY)
+                        .content(body.toByteArray()))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(BeerBinaryHttpMessageConverter.APPLICATION_BEERSTOCK_BINARY))
+                .andReturn().getResponse().getContentAsByteArray();
+        assertThat(BeerBinaryCodec.readBeer(new DataInputStream(new ByteArrayInputStream(response))), is(beerDTO));
+    }
+
+    @Test
+    void GETBeerWithoutAcceptIsStillJsonWithTheBinaryProtocolRegistered() throws Exception {
+        // given
+        BeerDTO beerDTO = BeerDTOBuilder.builder().build().toBeerDTO();
+
+        //when
+        when(beerService.findByName(beerDTO.getName())).thenReturn(beerDTO);
+
+        // then
+        withBinaryProtocol().perform(MockMvcRequestBuilders.get(BEER_API_URL_PATH + "/" + beerDTO.getName()))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_JSON))
+                .andExpect(jsonPath("$.name", is(beerDTO.getName())));
+    }
+
+    @Test
+    void PATCHIncrementRetriedWithIdempotencyKeyIsNotAppliedTwice() throws Exception {
+        //given
+        QuantityDTO quantityDTO = QuantityDTO.builder()
+                .quantity(10)
+                .build();
+        BeerDTO beerDTO = BeerDTOBuilder.builder().build().toBeerDTO();
+        beerDTO.setQuantity(beerDTO.getQuantity() + quantityDTO.getQuantity());
+        //when
+        when(beerService.tryIncrement(VALID_BEER_ID, quantityDTO.getQuantity())).thenReturn(StockOutcome.applied(beerDTO));
+        //then
+        for (int attempt = 0; attempt < 2; attempt++) {
+            mockMvc.perform(MockMvcRequestBuilders.patch(BEER_API_URL_PATH + "/" + VALID_BEER_ID + BEER_API_SUBPATH_INCREMENT_URL)
+                            .header(BeerController.IDEMPOTENCY_KEY, "pos-7-0001")
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content(asJsonString(quantityDTO))).andExpect(status().isOk())
+                    .andExpect(jsonPath("$.quantity", is(beerDTO.getQuantity())));
+        }
+        verify(beerService, times(1)).tryIncrement(VALID_BEER_ID, quantityDTO.getQuantity());
+    }
+
+    @Test
+    void PATCHDecrementWithIdempotencyKeyOfAnIncrementUnprocessableEntity() throws Exception {
+        //given
+        QuantityDTO quantityDTO = QuantityDTO.builder()
+                .quantity(10)
+                .build();
+        BeerDTO beerDTO = BeerDTOBuilder.builder().build().toBeerDTO();
+        //when
+        when(beerService.tryIncrement(VALID_BEER_ID, quantityDTO.getQuantity())).thenReturn(StockOutcome.applied(beerDTO));
+        mockMvc.perform(MockMvcRequestBuilders.patch(BEER_API_URL_PATH + "/" + VALID_BEER_ID + BEER_API_SUBPATH_INCREMENT_URL)
+                        .header(BeerController.IDEMPOTENCY_KEY, "pos-7-0002")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(asJsonString(quantityDTO)))
+                .andExpect(status().isOk())
+                .andExpect(header().doesNotExist(BeerController.IDEMPOTENT_REPLAYED));
+        //then
+        mockMvc.perform(MockMvcRequestBuilders.patch(BEER_API_URL_PATH + "/" + VALID_BEER_ID + BEER_API_SUBPATH_DECREMENT_URL)
+                        .header(BeerController.IDEMPOTENCY_KEY, "pos-7-0002")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(asJsonString(quantityDTO)))
+                .andExpect(status().isUnprocessableEntity());
+        verify(beerService, never()).tryDecrement(VALID_BEER_ID, quantityDTO.getQuantity());
+    }
+
 //i
     @Test
     void PATCHIncrementGreaterThanMaxAfterSumBadRequestStatus() throws Exception {
@@ -206,7 +346,7 @@ public class BeerControllerTest {
         BeerDTO beerDTO = BeerDTOBuilder.builder().build().toBeerDTO();
         //when
         beerDTO.setQuantity(beerDTO.getQuantity() + quantityDTO.getQuantity());
-        when(beerService.increment(VALID_BEER_ID, quantityDTO.getQuantity())).thenThrow(BeerStockExceededException.class);
+        when(beerService.tryIncrement(VALID_BEER_ID, quantityDTO.getQuantity())).thenReturn(StockOutcome.rejected(StockOutcome.Status.MAX_EXCEEDED, VALID_BEER_ID, quantityDTO.getQuantity()));
         //then
         mockMvc.perform(MockMvcRequestBuilders.patch(BEER_API_URL_PATH + "/" + VALID_BEER_ID + BEER_API_SUBPATH_INCREMENT_URL)
                 .contentType(MediaType.APPLICATION_JSON)
@@ -220,7 +360,7 @@ public class BeerControllerTest {
                 .quantity(30)
                 .build();
         //when
-        when(beerService.increment(INVALID_BEER_ID, quantityDTO.getQuantity())).thenThrow(BeerNotFoundException.class);
+        when(beerService.tryIncrement(INVALID_BEER_ID, quantityDTO.getQuantity())).thenReturn(StockOutcome.rejected(StockOutcome.Status.NOT_FOUND, INVALID_BEER_ID, quantityDTO.getQuantity()));
         //then
         mockMvc.perform(MockMvcRequestBuilders.patch(BEER_API_URL_PATH + "/" + INVALID_BEER_ID + BEER_API_SUBPATH_INCREMENT_URL)
                         .contentType(MediaType.APPLICATION_JSON)
@@ -238,7 +378,7 @@ public class BeerControllerTest {
         BeerDTO beerDTO = BeerDTOBuilder.builder().build().toBeerDTO();
         //when
         beerDTO.setQuantity(beerDTO.getQuantity() - quantityDTO.getQuantity());
-        when(beerService.decrement(VALID_BEER_ID, quantityDTO.getQuantity())).thenReturn(beerDTO);
+        when(beerService.tryDecrement(VALID_BEER_ID, quantityDTO.getQuantity())).thenReturn(StockOutcome.applied(beerDTO));
         //then
         mockMvc.perform(MockMvcRequestBuilders.patch(BEER_API_URL_PATH + "/" + VALID_BEER_ID + BEER_API_SUBPATH_DECREMENT_URL)
                         .contentType(MediaType.APPLICATION_JSON)
@@ -258,7 +398,7 @@ public class BeerControllerTest {
         BeerDTO beerDTO = BeerDTOBuilder.builder().build().toBeerDTO();
         //when
         beerDTO.setQuantity(beerDTO.getQuantity() - quantityDTO.getQuantity());
-        when(beerService.decrement(VALID_BEER_ID, quantityDTO.getQuantity())).thenThrow(BeerStockMinCapacityExceededException.class);
+        when(beerService.tryDecrement(VALID_BEER_ID, quantityDTO.getQuantity())).thenReturn(StockOutcome.rejected(StockOutcome.Status.MIN_EXCEEDED, VALID_BEER_ID, quantityDTO.getQuantity()));
         //then
         mockMvc.perform(MockMvcRequestBuilders.patch(BEER_API_URL_PATH + "/" + VALID_BEER_ID + BEER_API_SUBPATH_DECREMENT_URL)
                 .contentType(MediaType.APPLICATION_JSON)
@@ -273,7 +413,7 @@ public class BeerControllerTest {
                 .quantity(30)
                 .build();
         //when
-        when(beerService.decrement(INVALID_BEER_ID, quantityDTO.getQuantity())).thenThrow(BeerNotFoundException.class);
+        when(beerService.tryDecrement(INVALID_BEER_ID, quantityDTO.getQuantity())).thenReturn(StockOutcome.rejected(StockOutcome.Status.NOT_FOUND, INVALID_BEER_ID, quantityDTO.getQuantity()));
         //then
         mockMvc.perform(MockMvcRequestBuilders.patch(BEER_API_URL_PATH + "/" + INVALID_BEER_ID + BEER_API_SUBPATH_DECREMENT_URL)
                         .contentType(MediaType.APPLICATION_JSON)
@@ -291,7 +431,7 @@ public class BeerControllerTest {
         BeerDTO beerDTO = BeerDTOBuilder.builder().build().toBeerDTO();
         //when
         beerDTO.setQuantity(beerDTO.getQuantity() - quantityDTO.getQuantity());
-        when(beerService.decrement(VALID_BEER_ID, quantityDTO.getQuantity())).thenThrow(NegativeInputException.class);
+        when(beerService.tryDecrement(VALID_BEER_ID, quantityDTO.getQuantity())).thenReturn(StockOutcome.rejected(StockOutcome.Status.NEGATIVE_INPUT, VALID_BEER_ID, quantityDTO.getQuantity()));
         //then
         mockMvc.perform(MockMvcRequestBuilders.patch(BEER_API_URL_PATH + "/" + VALID_BEER_ID + BEER_API_SUBPATH_DECREMENT_URL)
                 .contentType(MediaType.APPLICATION_JSON)
@@ -307,7 +447,7 @@ public class BeerControllerTest {
         BeerDTO beerDTO = BeerDTOBuilder.builder().build().toBeerDTO();
         //when
         beerDTO.setQuantity(beerDTO.getQuantity() + quantityDTO.getQuantity());
-        when(beerService.increment(VALID_BEER_ID, quantityDTO.getQuantity())).thenThrow(BeerStockExceededException.class);
+        when(beerService.tryIncrement(VALID_BEER_ID, quantityDTO.getQuantity())).thenReturn(StockOutcome.rejected(StockOutcome.Status.MAX_EXCEEDED, VALID_BEER_ID, quantityDTO.getQuantity()));
         //then
         mockMvc.perform(MockMvcRequestBuilders.patch(BEER_API_URL_PATH + "/" + VALID_BEER_ID + BEER_API_SUBPATH_INCREMENT_URL)
                 .contentType(MediaType.APPLICATION_JSON)
@@ -328,7 +468,341 @@ public class BeerControllerTest {
                 .andExpect(status().isBadRequest());
     }
 
-}
+    @Test
+    void POSTStockMovementsReturnsResultPerItem() throws Exception {
+        // given
+        List<StockMovementDTO> movements = Arrays.asList(
+                new StockMovementDTO(VALID_BEER_ID, 10),
+                new StockMovementDTO(INVALID_BEER_ID, -1));
+        List<StockMovementResultDTO> results = Arrays.asList(
+                StockMovementResultDTO.builder().id(VALID_BEER_ID).delta(10).quantity(20).build(),
+                StockMovementResultDTO.builder().id(INVALID_BEER_ID).delta(-1).error("BeerNotFoundException").build());
 
+        // when
+        when(beerService.applyStockMovements(movements)).thenReturn(results);
 
+        // then
+        mockMvc.perform(post(BEER_API_URL_PATH + "/stock-movements")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(asJsonString(new StockMovementsDTO(movements))))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].quantity", is(20)))
+                .andExpect(jsonPath("$[1].error", is("BeerNotFoundException")));
+    }
+
+    @Test
+    void POSTEmptyStockMovementsBadRequest() throws Exception {
+        mockMvc.perform(post(BEER_API_URL_PATH + "/stock-movements")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(asJsonString(new StockMovementsDTO(Collections.emptyList()))))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void GETPageWithNextAfterId() throws Exception {
+        // given
+        BeerDTO beerDTO = BeerDTOBuilder.builder().build().toBeerDTO();
+
+        //when
+        when(beerService.listPage(null, 1)).thenReturn(new BeerPageDTO(Collections.singletonList(beerDTO), beerDTO.getId()));
 
+        // then
+        mockMvc.perform(MockMvcRequestBuilders.get(BEER_API_URL_PATH).param("size", "1")
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.beers[0].name", is(beerDTO.getName())))
+                .andExpect(jsonPath("$.nextAfterId", is(beerDTO.getId().intValue())));
+    }
+
+    @Test
+    void GETExportStreamsOneBeerPerLine() throws Exception {
+        // given
+        BeerDTO lager = BeerDTOBuilder.builder().build().toBeerDTO();
+        BeerDTO stout = BeerDTOBuilder.builder().id(2L).name("Guinness").build().toBeerDTO();
+
+        //when
+        catalogContains(lager, stout);
+
+        // then
+        MvcResult asyncResult = mockMvc.perform(MockMvcRequestBuilders.get(BEER_API_URL_PATH + "/catalog/export"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        mockMvc.perform(asyncDispatch(asyncResult))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(BeerController.APPLICATION_NDJSON_VALUE))
+                .andExpect(content().string(asJsonString(lager) + "\n" + asJsonString(stout) + "\n"));
+    }
+
+    @Test
+    void GETExportOfAnEmptyCatalogIsAnEmptyBody() throws Exception {
+        //when
+        catalogContains();
+
+        // then
+        MvcResult asyncResult = mockMvc.perform(MockMvcRequestBuilders.get(BEER_API_URL_PATH + "/catalog/export"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        mockMvc.perform(asyncDispatch(asyncResult))
+                .andExpect(status().isOk())
+                .andExpect(content().string(""));
+    }
+
+    @Test
+    void GETBeerNamedExportIsNotShadowedByTheExport() throws Exception {
+        // given
+        BeerDTO beerDTO = BeerDTOBuilder.builder().name("export").build().toBeerDTO();
+
+        //when
+        when(beerService.findByName("export")).thenReturn(beerDTO);
+
+        // then
+        mockMvc.perform(MockMvcRequestBuilders.get(BEER_API_URL_PATH + "/export")
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.name", is("export")));
+    }
+
+    @Test
+    void POSTBulkIsCreated() throws Exception {
+        // given
+        BeerDTO beerDTO = BeerDTOBuilder.builder().build().toBeerDTO();
+        List<BeerDTO> beerDTOs = Collections.singletonList(beerDTO);
+
+        // when
+        when(beerService.createBeers(beerDTOs)).thenReturn(beerDTOs);
+
+        // then
+        mockMvc.perform(post(BEER_API_URL_PATH + "/bulk")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(asJsonString(new BeersDTO(beerDTOs))))
+                .andExpect(status().isCreated())
+                .andExpect(jsonPath("$[0].name", is(beerDTO.getName())));
+    }
+
+    @Test
+    void POSTBulkAlreadyRegisteredBeerException() throws Exception {
+        // given
+        List<BeerDTO> beerDTOs = Collections.singletonList(BeerDTOBuilder.builder().build().toBeerDTO());
+
+        // when
+        when(beerService.createBeers(beerDTOs)).thenThrow(BeerAlreadyRegisteredException.class);
+
+        // then
+        mockMvc.perform(post(BEER_API_URL_PATH + "/bulk")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(asJsonString(new BeersDTO(beerDTOs))))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void GETStockLevelAtInstant() throws Exception {
+        // given
+        Instant at = Instant.parse("2026-01-01T00:00:00Z");
+
+        //when
+        when(beerService.stockLevel(VALID_BEER_ID, at)).thenReturn(new StockLevelDTO(VALID_BEER_ID, 42L, at));
+
+        // then
+        mockMvc.perform(MockMvcRequestBuilders.get(BEER_API_URL_PATH + "/" + VALID_BEER_ID + "/stock").param("at", at.toString()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.quantity", is(42)));
+    }
+
+    @Test
+    void GETStockLevelWithInvalidIdNotFoundStatus() throws Exception {
+        //when
+        when(beerService.stockLevel(INVALID_BEER_ID, null)).thenThrow(BeerNotFoundException.class);
+
+        // then
+        mockMvc.perform(MockMvcRequestBuilders.get(BEER_API_URL_PATH + "/" + INVALID_BEER_ID + "/stock"))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    void GETByTypeReturnsBeersOfThatType() throws Exception {
+        // given
+        BeerDTO beerDTO = BeerDTOBuilder.builder().build().toBeerDTO();
+
+        //when
+        when(beerService.findByType(BeerType.LAGER)).thenReturn(Collections.singletonList(beerDTO));
+
+        // then
+        mockMvc.perform(MockMvcRequestBuilders.get(BEER_API_URL_PATH + "/type/LAGER"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].name", is(beerDTO.getName())))
+                .andExpect(jsonPath("$[0].type", is(BeerType.LAGER.toString())));
+    }
+
+    @Test
+    void GETUnknownTypeBadRequest() throws Exception {
+        mockMvc.perform(MockMvcRequestBuilders.get(BEER_API_URL_PATH + "/type/CHOPP"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void GETLowStockReturnsStockLevelsOnly() throws Exception {
+        //when
+        when(beerService.listLowStock()).thenReturn(Collections.singletonList(new BeerStockDTO(VALID_BEER_ID, "Brahma", 2, 5, 50)));
+
+        // then
+        mockMvc.perform(MockMvcRequestBuilders.get(BEER_API_URL_PATH + "/stock/low"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].id", is((int) VALID_BEER_ID)))
+                .andExpect(jsonPath("$[0].quantity", is(2)))
+                .andExpect(jsonPath("$[0].brand").doesNotExist());
+    }
+
+    @Test
+    void GETNearMinReturnsTheIndexHead() throws Exception {
+        //when
+        when(beerService.listNearMin(3)).thenReturn(Collections.singletonList(new BeerStockDTO(VALID_BEER_ID, "Brahma", 1, 0, 50)));
+
+        // then
+        mockMvc.perform(MockMvcRequestBuilders.get(BEER_API_URL_PATH + "/stock/near-min").param("limit", "3"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].id", is((int) VALID_BEER_ID)))
+                .andExpect(jsonPath("$[0].quantity", is(1)));
+    }
+
+    @Test
+    void GETStockByTypeReturnsTheStatistics() throws Exception {
+        //when
+        when(beerService.typeStockStatistics()).thenReturn(Collections.singletonList(new TypeStockStatisticsDTO(BeerType.IPA, 2L, 50L, 20, 30, 25.0)));
+
+        // then
+        mockMvc.perform(MockMvcRequestBuilders.get(BEER_API_URL_PATH + "/stock/by-type"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].type", is(BeerType.IPA.toString())))
+                .andExpect(jsonPath("$[0].total", is(50)))
+                .andExpect(jsonPath("$[0].average", is(25.0)));
+    }
+
+    @Test
+    void GETListWithCurrentETagNotModified() throws Exception {
+        // given
+        BeerDTO beerDTO = BeerDTOBuilder.builder().build().toBeerDTO();
+        catalogContains(beerDTO);
+        String etag = mockMvc.perform(MockMvcRequestBuilders.get(BEER_API_URL_PATH))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+        // when
+        mockMvc.perform(MockMvcRequestBuilders.get(BEER_API_URL_PATH).header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isNotModified());
+
+        // then
+        verify(beerService, times(1)).exportAll(any());
+    }
+
+    @Test
+    void GETListIsRebuiltAfterTheCatalogChanges() throws Exception {
+        // given
+        BeerDTO beerDTO = BeerDTOBuilder.builder().build().toBeerDTO();
+        catalogContains(beerDTO);
+        String etag = mockMvc.perform(MockMvcRequestBuilders.get(BEER_API_URL_PATH))
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+        // when
+        when(beerService.getCatalogVersion()).thenReturn(1L);
+        catalogContains();
+
+        // then
+        mockMvc.perform(MockMvcRequestBuilders.get(BEER_API_URL_PATH).header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(0)));
+    }
+
+    @Test
+    void GETListGzippedWhenAccepted() throws Exception {
+        // given
+        BeerDTO beerDTO = BeerDTOBuilder.builder().build().toBeerDTO();
+
+        //when
+        catalogContains(beerDTO);
+
+        // then
+        byte[] body = mockMvc.perform(MockMvcRequestBuilders.get(BEER_API_URL_PATH).header(HttpHeaders.ACCEPT_ENCODING, "gzip, deflate"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.CONTENT_ENCODING, "gzip"))
+                .andExpect(header().string(HttpHeaders.ETAG, endsWith("-gzip\"")))
+                .andReturn().getResponse().getContentAsByteArray();
+        try (GZIPInputStream json = new GZIPInputStream(new ByteArrayInputStream(body))) {
+            assertThat(objectMapper.readValue(json, BeerDTO[].class)[0], is(beerDTO));
+        }
+    }
+
+    @Test
+    void GETListNotGzippedWhenGzipIsRefused() throws Exception {
+        // given
+        BeerDTO beerDTO = BeerDTOBuilder.builder().build().toBeerDTO();
+
+        //when
+        catalogContains(beerDTO);
+
+        // then
+        for (String acceptEncoding : Arrays.asList("gzip;q=0, deflate", "x-gzip", "*;q=0.5, gzip; q=0")) {
+            mockMvc.perform(MockMvcRequestBuilders.get(BEER_API_URL_PATH).header(HttpHeaders.ACCEPT_ENCODING, acceptEncoding))
+                    .andExpect(status().isOk())
+                    .andExpect(header().doesNotExist(HttpHeaders.CONTENT_ENCODING))
+                    .andExpect(jsonPath("$[0].name", is(beerDTO.getName())));
+        }
+    }
+
+    @Test
+    void GETListGzippedWhenAnyCodingIsAccepted() throws Exception {
+        // given
+        BeerDTO beerDTO = BeerDTOBuilder.builder().build().toBeerDTO();
+
+        //when
+        catalogContains(beerDTO);
+
+        // then
+        mockMvc.perform(MockMvcRequestBuilders.get(BEER_API_URL_PATH).header(HttpHeaders.ACCEPT_ENCODING, "br;q=1.0, *;q=0.1"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.CONTENT_ENCODING, "gzip"));
+    }
+
+    @Test
+    void POSTImportStreamsCsvCatalog() throws Exception {
+        // given
+        String csv = "name,brand,max,min,quantity,type\nLager,Ambev,50,0,10,LAGER\n";
+        CatalogImportReportDTO report = new CatalogImportReportDTO(2L, 1L, 0L, 1L, 5L,
+                Collections.singletonList(new CatalogImportErrorDTO(2L, null, "name must not be null")));
+
+        // when
+        when(catalogImportService.importCatalog(any(), eq(CatalogFormat.CSV))).thenReturn(report);
+
+        // then
+        mockMvc.perform(post(BEER_API_URL_PATH + "/import")
+                        .contentType("text/csv;charset=UTF-8")
+                        .content(csv))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.imported", is(1)))
+                .andExpect(jsonPath("$.invalid", is(1)))
+                .andExpect(jsonPath("$.errors[0].row", is(2)));
+    }
+
+    @Test
+    void POSTImportWithUnsupportedContentTypeIsRejected() throws Exception {
+        mockMvc.perform(post(BEER_API_URL_PATH + "/import")
+                        .contentType(MediaType.APPLICATION_XML)
+                        .content("<beers/>"))
+                .andExpect(status().isUnsupportedMediaType());
+    }
+
+    private void catalogContains(BeerDTO... beers) throws IOException {
+        doAnswer(invocation -> {
+            BeerRowHandler handler = invocation.getArgument(0);
+            for (BeerDTO beer : beers) {
+                handler.handle(beer.getId(), beer.getName(), beer.getBrand(), beer.getMax(), beer.getMin(), beer.getQuantity(), beer.getType());
+            }
+            return null;
+        }).when(beerService).exportAll(any());
+    }
+
+    private MockMvc withBinaryProtocol() {
+        return MockMvcBuilders.standaloneSetup(beerController)
+                .setMessageConverters(new MappingJackson2HttpMessageConverter(objectMapper), new BeerBinaryHttpMessageConverter())
+                .build();
+    }
+}
@@ -0,0 +1,120 @@
+package one.digitalinnovation.beerstock.controller;
+
+import one.digitalinnovation.beerstock.builder.BeerDTOBuilder;
+import one.digitalinnovation.beerstock.dto.BeerDTO;
+import one.digitalinnovation.beerstock.dto.QuantityDTO;
+import one.digitalinnovation.beerstock.metrics.StockGauges;
+import one.digitalinnovation.beerstock.service.BeerService;
+import one.digitalinnovation.beerstock.service.CatalogSnapshotCache;
+import one.digitalinnovation.beerstock.service.ShardedStockEngine;
+import one.digitalinnovation.beerstock.service.StartupWarmUp;
+import one.digitalinnovation.beerstock.service.StockHeadroomIndex;
+import one.digitalinnovation.beerstock.service.TypeStockStatistics;
+import one.digitalinnovation.beerstock.service.TypeStockStatisticsReconciler;
+import one.digitalinnovation.beerstock.service.WriteBehindStockBuffer;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.ApplicationContext;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.reactive.server.WebTestClient;
+
+import java.util.Arrays;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.emptyArray;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.notNullValue;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@ActiveProfiles("reactive")
+public class ReactiveBeerControllerTest {
+
+    private static final String BEER_API_URL_PATH = "/api/v1/beers";
+
+    @Autowired
+    private WebTestClient webTestClient;
+
+    @Autowired
+    private ApplicationContext applicationContext;
+
+    @Test
+    void servletStockViewsAreNotCreated() {
+        for (Class<?> servletBean : Arrays.asList(BeerService.class, StockHeadroomIndex.class, TypeStockStatistics.class,
+                TypeStockStatisticsReconciler.class, CatalogSnapshotCache.class, StartupWarmUp.class, StockGauges.class,
+                ShardedStockEngine.class, WriteBehindStockBuffer.class)) {
+            assertThat(servletBean.getSimpleName(), applicationContext.getBeanNamesForType(servletBean), is(emptyArray()));
+        }
+    }
+
+    @Test
+    void POSTBeerThenIncrementAndDecrementIt() {
+        // given
+        BeerDTO beerDTO = BeerDTOBuilder.builder().name("Reactive Pilsen").build().toBeerDTO();
+
+        // when
+        BeerDTO createdBeerDTO = webTestClient.post().uri(BEER_API_URL_PATH)
+                .bodyValue(beerDTO)
+                .exchange()
+                .expectStatus().isCreated()
+                .expectBody(BeerDTO.class).returnResult().getResponseBody();
+
+        // then
+        assertThat(createdBeerDTO.getId(), is(notNullValue()));
+        webTestClient.patch().uri(BEER_API_URL_PATH + "/" + createdBeerDTO.getId() + "/increment")
+                .bodyValue(QuantityDTO.builder().quantity(15).build())
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody().jsonPath("$.quantity").isEqualTo(25);
+        webTestClient.patch().uri(BEER_API_URL_PATH + "/" + createdBeerDTO.getId() + "/decrement")
+                .bodyValue(QuantityDTO.builder().quantity(5).build())
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody().jsonPath("$.quantity").isEqualTo(20);
+        BeerDTO foundBeerDTO = webTestClient.get().uri(BEER_API_URL_PATH + "/" + beerDTO.getName())
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody(BeerDTO.class).returnResult().getResponseBody();
+        assertThat(foundBeerDTO.getQuantity(), is(equalTo(20)));
+    }
+
+    @Test
+    void POSTAlreadyRegisteredBeerThenBadRequestStatus() {
+        // given
+        BeerDTO beerDTO = BeerDTOBuilder.builder().name("Reactive Stout").build().toBeerDTO();
+
+        // when
+        webTestClient.post().uri(BEER_API_URL_PATH).bodyValue(beerDTO).exchange().expectStatus().isCreated();
+
+        // then
+        webTestClient.post().uri(BEER_API_URL_PATH).bodyValue(beerDTO).exchange().expectStatus().isBadRequest();
+    }
+
+    @Test
+    void PATCHIncrementGreaterThanMaxThenBadRequestStatus() {
+        // given
+        BeerDTO beerDTO = BeerDTOBuilder.builder().name("Reactive IPA").build().toBeerDTO();
+        BeerDTO createdBeerDTO = webTestClient.post().uri(BEER_API_URL_PATH)
+                .bodyValue(beerDTO)
+                .exchange()
+                .expectBody(BeerDTO.class).returnResult().getResponseBody();
+
+        // then
+        webTestClient.patch().uri(BEER_API_URL_PATH + "/" + createdBeerDTO.getId() + "/increment")
+                .bodyValue(QuantityDTO.builder().quantity(41).build())
+                .exchange()
+                .expectStatus().isBadRequest();
+    }
+
+    @Test
+    void invalidBeerIdThenNotFoundStatus() {
+        webTestClient.patch().uri(BEER_API_URL_PATH + "/-1/decrement")
+                .bodyValue(QuantityDTO.builder().quantity(1).build())
+                .exchange()
+                .expectStatus().isNotFound();
+        webTestClient.delete().uri(BEER_API_URL_PATH + "/-1")
+                .exchange()
+                .expectStatus().isNotFound();
+    }
+}
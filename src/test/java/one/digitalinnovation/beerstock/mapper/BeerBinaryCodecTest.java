@@ -0,0 +1,63 @@
+package one.digitalinnovation.beerstock.mapper;
+
+import one.digitalinnovation.beerstock.builder.BeerDTOBuilder;
+import one.digitalinnovation.beerstock.dto.BeerDTO;
+import one.digitalinnovation.beerstock.dto.QuantityDTO;
+import one.digitalinnovation.beerstock.enums.BeerType;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.is;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class BeerBinaryCodecTest {
+
+    @Test
+    void everyBeerTypeRoundTrips() throws IOException {
+        for (BeerType type : BeerType.values()) {
+            // given
+            BeerDTO beerDTO = BeerDTOBuilder.builder().name("Café " + type).type(type).build().toBeerDTO();
+
+            // when
+            ByteArrayOutputStream encoded = new ByteArrayOutputStream();
+            BeerBinaryCodec.writeBeer(beerDTO, new DataOutputStream(encoded));
+
+            // then
+            assertThat(BeerBinaryCodec.readBeer(new DataInputStream(new ByteArrayInputStream(encoded.toByteArray()))), is(equalTo(beerDTO)));
+        }
+    }
+
+    @Test
+    void missingFieldsStayMissing() throws IOException {
+        // given
+        BeerDTO beerDTO = BeerDTO.builder().name("Brahma").quantity(10).build();
+        QuantityDTO quantityDTO = new QuantityDTO();
+
+        // when
+        ByteArrayOutputStream encoded = new ByteArrayOutputStream();
+        DataOutputStream output = new DataOutputStream(encoded);
+        BeerBinaryCodec.writeBeer(beerDTO, output);
+        BeerBinaryCodec.writeQuantity(quantityDTO, output);
+
+        // then
+        DataInputStream input = new DataInputStream(new ByteArrayInputStream(encoded.toByteArray()));
+        assertThat(BeerBinaryCodec.readBeer(input), is(equalTo(beerDTO)));
+        assertThat(BeerBinaryCodec.readQuantity(input), is(equalTo(quantityDTO)));
+    }
+
+    @Test
+    void unknownBeerTypeCodeIsRejected() {
+        // given
+        byte[] encoded = {1 << 6, 42};
+
+        // then
+        assertThrows(IOException.class, () -> BeerBinaryCodec.readBeer(new DataInputStream(new ByteArrayInputStream(encoded))));
+    }
+}
@@ -0,0 +1,41 @@
+package one.digitalinnovation.beerstock.mapper;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import one.digitalinnovation.beerstock.builder.BeerDTOBuilder;
+import one.digitalinnovation.beerstock.dto.BeerDTO;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.util.Arrays;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.is;
+
+public class BeerJsonWriterTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @Test
+    void rowsAreWrittenExactlyAsTheDTOsWouldBe() throws IOException {
+        // given
+        BeerDTO lager = BeerDTOBuilder.builder().build().toBeerDTO();
+        BeerDTO stout = BeerDTOBuilder.builder().id(2L).name("Guinness \"Draught\"").brand("Diageo").max(500).quantity(100).build().toBeerDTO();
+
+        // when
+        StringWriter json = new StringWriter();
+        try (JsonGenerator generator = objectMapper.getFactory().createGenerator(json)) {
+            BeerJsonWriter writer = new BeerJsonWriter(generator);
+            generator.writeStartArray();
+            for (BeerDTO beer : Arrays.asList(lager, stout)) {
+                writer.handle(beer.getId(), beer.getName(), beer.getBrand(), beer.getMax(), beer.getMin(), beer.getQuantity(), beer.getType());
+            }
+            generator.writeEndArray();
+        }
+
+        // then
+        assertThat(json.toString(), is(equalTo(objectMapper.writeValueAsString(Arrays.asList(lager, stout)))));
+    }
+}
@@ -0,0 +1,77 @@
+package one.digitalinnovation.beerstock.metrics;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import one.digitalinnovation.beerstock.builder.BeerDTOBuilder;
+import one.digitalinnovation.beerstock.enums.BeerType;
+import one.digitalinnovation.beerstock.exception.BeerNotFoundException;
+import one.digitalinnovation.beerstock.service.BeerService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.greaterThanOrEqualTo;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.nullValue;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+@SpringBootTest
+public class BeerStockMetricsTest {
+
+    @Autowired
+    private BeerService beerService;
+
+    @Autowired
+    private StockGauges stockGauges;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Test
+    void serviceExceptionsAreTimedAndCounted() {
+        // when
+        assertThrows(BeerNotFoundException.class, () -> beerService.findByName("Metrics Missing Beer"));
+
+        // then
+        double notFound = meterRegistry.get(BeerServiceMetricsAspect.EXCEPTION_COUNTER)
+                .tag("method", "findByName")
+                .tag("exception", BeerNotFoundException.class.getSimpleName())
+                .counter()
+                .count();
+        long timed = meterRegistry.get(BeerServiceMetricsAspect.SERVICE_TIMER)
+                .tag("method", "findByName")
+                .tag("exception", BeerNotFoundException.class.getSimpleName())
+                .timer()
+                .count();
+        assertThat(notFound, is(greaterThanOrEqualTo(1.0)));
+        assertThat(timed, is(greaterThanOrEqualTo(1L)));
+    }
+
+    @Test
+    void gettersAreNotTimed() {
+        // when
+        beerService.getCatalogVersion();
+
+        // then
+        assertThat(meterRegistry.find(BeerServiceMetricsAspect.SERVICE_TIMER).tag("method", "getCatalogVersion").timer(), is(nullValue()));
+    }
+
+    @Test
+    void stockGaugesReportTotalsPerType() throws Exception {
+        // given
+        stockGauges.refresh();
+        double malzbierStockBefore = malzbierStock();
+        beerService.createBeer(BeerDTOBuilder.builder().name("Metrics Malzbier").type(BeerType.MALZBIER).quantity(7).build().toBeerDTO());
+
+        // when
+        stockGauges.refresh();
+
+        // then
+        assertThat(malzbierStock() - malzbierStockBefore, is(equalTo(7.0)));
+    }
+
+    private double malzbierStock() {
+        return meterRegistry.get("beerstock.stock.quantity").tag("type", BeerType.MALZBIER.name()).gauge().value();
+    }
+}
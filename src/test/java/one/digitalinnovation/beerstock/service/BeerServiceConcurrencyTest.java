@@ -0,0 +1,233 @@
+package one.digitalinnovation.beerstock.service;
+
+import one.digitalinnovation.beerstock.builder.BeerDTOBuilder;
+import one.digitalinnovation.beerstock.dto.StockMovementDTO;
+import one.digitalinnovation.beerstock.entity.Beer;
+import one.digitalinnovation.beerstock.enums.BeerType;
+import one.digitalinnovation.beerstock.exception.BeerAlreadyRegisteredException;
+import one.digitalinnovation.beerstock.exception.BeerNotFoundException;
+import one.digitalinnovation.beerstock.exception.BeerStockMinCapacityExceededException;
+import one.digitalinnovation.beerstock.repository.BeerRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.is;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+@SpringBootTest
+public class BeerServiceConcurrencyTest {
+
+    private static final int THREADS = 16;
+    private static final int ADJUSTMENTS_PER_THREAD = 200;
+
+    @Autowired
+    private BeerService beerService;
+
+    @Autowired
+    private BeerRepository beerRepository;
+
+    @Autowired
+    private StockLedgerService stockLedger;
+
+    @Test
+    void concurrentIncrementsAndDecrementsLoseNoUpdates() throws Exception {
+        // given
+        Beer beer = beerRepository.save(newBeer("Concurrency Lager", 0, 100_000, 50_000));
+
+        // when
+        runConcurrently(thread -> {
+            for (int i = 0; i < ADJUSTMENTS_PER_THREAD; i++) {
+                if (thread % 2 == 0) {
+                    beerService.increment(beer.getId(), 3);
+                } else {
+                    beerService.decrement(beer.getId(), 1);
+                }
+            }
+            return null;
+        });
+
+        // then
+        int expectedQuantity = 50_000 + (THREADS / 2) * ADJUSTMENTS_PER_THREAD * (3 - 1);
+        assertThat(beerRepository.findById(beer.getId()).get().getQuantity(), is(equalTo(expectedQuantity)));
+        assertThat(stockLedger.currentQuantity(beer.getId()), is(equalTo((long) expectedQuantity - 50_000)));
+    }
+
+    @Test
+    void concurrentDecrementsNeverCrossTheMinimum() throws Exception {
+        // given
+        Beer beer = beerRepository.save(newBeer("Concurrency Stout", 0, 500, 100));
+        AtomicInteger accepted = new AtomicInteger();
+
+        // when
+        runConcurrently(thread -> {
+            for (int i = 0; i < ADJUSTMENTS_PER_THREAD; i++) {
+                try {
+                    beerService.decrement(beer.getId(), 1);
+                    accepted.incrementAndGet();
+                } catch (BeerStockMinCapacityExceededException expected) {
+                    // stock is exhausted, the remaining decrements must be rejected
+                }
+            }
+            return null;
+        });
+
+        // then
+        assertThat(accepted.get(), is(equalTo(100)));
+        assertThat(beerRepository.findById(beer.getId()).get().getQuantity(), is(equalTo(0)));
+    }
+
+    @Test
+    void concurrentBatchesAndSingleAdjustmentsLoseNoUpdates() throws Exception {
+        // given
+        Beer lager = beerRepository.save(newBeer("Batch Lager", 0, 100_000, 1_000));
+        Beer ipa = beerRepository.save(newBeer("Batch IPA", 0, 100_000, 10_000));
+        List<StockMovementDTO> shift = Arrays.asList(
+                new StockMovementDTO(lager.getId(), 5),
+                new StockMovementDTO(ipa.getId(), -2),
+                new StockMovementDTO(lager.getId(), -1));
+
+        // when
+        runConcurrently(thread -> {
+            for (int i = 0; i < ADJUSTMENTS_PER_THREAD; i++) {
+                if (thread % 2 == 0) {
+                    beerService.applyStockMovements(shift);
+                } else {
+                    beerService.increment(ipa.getId(), 1);
+                }
+            }
+            return null;
+        });
+
+        // then
+        int rounds = (THREADS / 2) * ADJUSTMENTS_PER_THREAD;
+        assertThat(beerRepository.findById(lager.getId()).get().getQuantity(), is(equalTo(1_000 + rounds * 4)));
+        assertThat(beerRepository.findById(ipa.getId()).get().getQuantity(), is(equalTo(10_000 - rounds * 2 + rounds)));
+        assertThat(stockLedger.currentQuantity(ipa.getId()), is(equalTo((long) -rounds * 2 + rounds)));
+    }
+
+    @Test
+    void concurrentCreatesWithTheSameNameRegisterOnce() throws Exception {
+        // given
+        AtomicInteger created = new AtomicInteger();
+        AtomicInteger alreadyRegistered = new AtomicInteger();
+
+        // when
+        runConcurrently(thread -> {
+            try {
+                beerService.createBeer(BeerDTOBuilder.builder().id(null).name("Concurrency Weiss").build().toBeerDTO());
+                created.incrementAndGet();
+            } catch (BeerAlreadyRegisteredException expected) {
+                alreadyRegistered.incrementAndGet();
+            }
+            return null;
+        });
+
+        // then
+        assertThat(created.get(), is(equalTo(1)));
+        assertThat(alreadyRegistered.get(), is(equalTo(THREADS - 1)));
+    }
+
+    @Test
+    void staleEntityCannotBeSavedOverAStockAdjustment() throws Exception {
+        // given
+        Beer beer = beerRepository.save(newBeer("Concurrency Ale", 0, 100, 50));
+        Beer stale = beerRepository.findById(beer.getId()).get();
+
+        // when
+        beerService.increment(beer.getId(), 10);
+        stale.setBrand("Renamed");
+
+        // then
+        assertThrows(ObjectOptimisticLockingFailureException.class, () -> beerRepository.save(stale));
+        assertThat(beerRepository.findById(beer.getId()).get().getQuantity(), is(equalTo(60)));
+    }
+
+    @Test
+    void deleteSucceedsWhileTheBeerIsBeingIncremented() throws Exception {
+        // given
+        List<Beer> beers = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            beers.add(beerRepository.save(newBeer("Concurrency Porter " + i, 0, 100_000, 0)));
+        }
+        AtomicInteger deleted = new AtomicInteger();
+
+        // when
+        runConcurrently(thread -> {
+            for (Beer beer : beers) {
+                if (thread == 0) {
+                    // wait for the increments to start, so the delete lands in the middle of them
+                    while (beerRepository.findQuantityById(beer.getId()).orElse(0) == 0) {
+                        Thread.onSpinWait();
+                    }
+                    beerService.deleteById(beer.getId());
+                    deleted.incrementAndGet();
+                    continue;
+                }
+                try {
+                    for (int i = 0; i < ADJUSTMENTS_PER_THREAD; i++) {
+                        beerService.increment(beer.getId(), 1);
+                    }
+                } catch (BeerNotFoundException expected) {
+                    // deleted while incrementing, move on to the next beer
+                }
+            }
+            return null;
+        });
+
+        // then
+        assertThat(deleted.get(), is(equalTo(beers.size())));
+        for (Beer beer : beers) {
+            assertThat(beerRepository.existsById(beer.getId()), is(false));
+        }
+    }
+
+    private void runConcurrently(ThreadTask task) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<Void>> futures = new ArrayList<>();
+        for (int thread = 0; thread < THREADS; thread++) {
+            int threadIndex = thread;
+            Callable<Void> callable = () -> {
+                start.await();
+                return task.run(threadIndex);
+            };
+            futures.add(executor.submit(callable));
+        }
+        start.countDown();
+        for (Future<Void> future : futures) {
+            future.get(60, TimeUnit.SECONDS);
+        }
+        executor.shutdown();
+    }
+
+    private static Beer newBeer(String name, int min, int max, int quantity) {
+        Beer beer = new Beer();
+        beer.setName(name);
+        beer.setBrand("Stress");
+        beer.setMin(min);
+        beer.setMax(max);
+        beer.setQuantity(quantity);
+        beer.setType(BeerType.LAGER);
+        return beer;
+    }
+
+    @FunctionalInterface
+    private interface ThreadTask {
+        Void run(int thread) throws Exception;
+    }
+}
@@ -1,20 +1,44 @@
 package one.digitalinnovation.beerstock.service;
 
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import one.digitalinnovation.beerstock.builder.BeerDTOBuilder;
 import one.digitalinnovation.beerstock.dto.BeerDTO;
+import one.digitalinnovation.beerstock.dto.BeerPageDTO;
+import one.digitalinnovation.beerstock.dto.BeerStockDTO;
 import one.digitalinnovation.beerstock.dto.QuantityDTO;
+import one.digitalinnovation.beerstock.dto.StockMovementDTO;
+import one.digitalinnovation.beerstock.dto.StockLevelDTO;
+import one.digitalinnovation.beerstock.dto.StockMovementResultDTO;
+import one.digitalinnovation.beerstock.dto.TypeStockStatisticsDTO;
 import one.digitalinnovation.beerstock.entity.Beer;
+import one.digitalinnovation.beerstock.entity.StockMovement;
+import one.digitalinnovation.beerstock.enums.BeerType;
+import one.digitalinnovation.beerstock.enums.StockMovementReason;
 import one.digitalinnovation.beerstock.exception.*;
 import one.digitalinnovation.beerstock.mapper.BeerMapper;
 import one.digitalinnovation.beerstock.repository.BeerRepository;
+import org.hibernate.exception.ConstraintViolationException;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.CannotAcquireLockException;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.PageRequest;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.*;
 import static org.hamcrest.Matchers.equalTo;
@@ -23,8 +47,16 @@ import static org.hamcrest.Matchers.lessThan;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.never;
 import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.anyList;
 import static org.mockito.Mockito.doNothing;
+import static org.mockito.Mockito.doThrow;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
@@ -37,6 +69,27 @@ public class BeerServiceTest {
     @Mock
     private BeerRepository beerRepository;
 
+    @Mock
+    private StockLedgerService stockLedger;
+
+    @Mock
+    private WriteBehindStockBuffer writeBehindStockBuffer;
+
+    @Spy
+    private BeerNameCache beerNameCache = new BeerNameCache(100, Duration.ofMinutes(1));
+
+    @Spy
+    private StockHeadroomIndex stockHeadroomIndex = new StockHeadroomIndex(0, 0, alert -> { });
+
+    @Spy
+    private TypeStockStatistics typeStockStatistics = new TypeStockStatistics();
+
+    @Mock
+    private ShardedStockEngine shardedStockEngine;
+
+    @Spy
+    private StockWriteRetry stockWriteRetry = new StockWriteRetry(3, Duration.ZERO, Duration.ZERO, new SimpleMeterRegistry());
+
     private BeerMapper beerMapper = BeerMapper.INSTANCE;
 
     @InjectMocks
@@ -49,8 +102,7 @@ public class BeerServiceTest {
         Beer expectedSavedBeer = beerMapper.toModel(expectedBeerDTO);
 
         // when
-        when(beerRepository.findByName(expectedBeerDTO.getName())).thenReturn(Optional.empty());
-        when(beerRepository.save(expectedSavedBeer)).thenReturn(expectedSavedBeer);
+        when(beerRepository.saveAndFlush(any(Beer.class))).thenReturn(expectedSavedBeer);
 
         //then
         BeerDTO createdBeerDTO = beerService.createBeer(expectedBeerDTO);
@@ -63,10 +115,12 @@ public class BeerServiceTest {
     void alreadyRegisteredBeerException() {
         // given
         BeerDTO expectedBeerDTO = BeerDTOBuilder.builder().build().toBeerDTO();
-        Beer duplicatedBeer = beerMapper.toModel(expectedBeerDTO);
+        ConstraintViolationException uniqueNameViolation =
+                new ConstraintViolationException("Unique index violation", null, "PUBLIC.UK_BEER_NAME_INDEX_2");
 
         // when
-        when(beerRepository.findByName(expectedBeerDTO.getName())).thenReturn(Optional.of(duplicatedBeer));
+        when(beerRepository.saveAndFlush(any(Beer.class)))
+                .thenThrow(new DataIntegrityViolationException("could not execute statement", uniqueNameViolation));
 
         // then
         assertThrows(BeerAlreadyRegisteredException.class, () -> beerService.createBeer(expectedBeerDTO));
@@ -130,11 +184,11 @@ public class BeerServiceTest {
         Beer expectedDeletedBeer = beerMapper.toModel(expectedDeletedBeerDTO);
         // when
         when(beerRepository.findById(expectedDeletedBeerDTO.getId())).thenReturn(Optional.of(expectedDeletedBeer));
-        doNothing().when(beerRepository).deleteById(expectedDeletedBeerDTO.getId());
+        when(beerRepository.removeById(expectedDeletedBeerDTO.getId())).thenReturn(1);
         // then
         beerService.deleteById(expectedDeletedBeerDTO.getId());
         verify(beerRepository, times(1)).findById(expectedDeletedBeerDTO.getId());
-        verify(beerRepository, times(1)).deleteById(expectedDeletedBeerDTO.getId());
+        verify(beerRepository, times(1)).removeById(expectedDeletedBeerDTO.getId());
     }
 
 //o
@@ -146,7 +200,7 @@ public class BeerServiceTest {
 
         //when
         when(beerRepository.findById(expectedBeerDTO.getId())).thenReturn(Optional.of(expectedBeer));
-        when(beerRepository.save(expectedBeer)).thenReturn(expectedBeer);
+        when(stockLedger.applyAndRecord(expectedBeerDTO.getId(), 10, StockMovementReason.INCREMENT)).thenReturn(true);
 
         int quantityToIncrement = 10;
         int expectedQuantityAfterIncrement = expectedBeerDTO.getQuantity() + quantityToIncrement;
@@ -204,7 +258,7 @@ public class BeerServiceTest {
 
         //when
         when(beerRepository.findById(expectedBeerDTO.getId())).thenReturn(Optional.of(expectedBeer));
-        when(beerRepository.save(expectedBeer)).thenReturn(expectedBeer);
+        when(stockLedger.applyAndRecord(expectedBeerDTO.getId(), -5, StockMovementReason.DECREMENT)).thenReturn(true);
         int quantityToDecrement = 5;
         int expectedQuantityAfterDecrement = expectedBeerDTO.getQuantity() - quantityToDecrement;
 
@@ -275,4 +329,587 @@ public class BeerServiceTest {
         assertThrows(NegativeInputException.class, () -> beerService.decrement(expectedBeerDTO.getId(), quantityToDecrement));
     }
 
+    @Test
+    void incrementRejectedByDatabaseGuardException() {
+        //given
+        BeerDTO expectedBeerDTO = BeerDTOBuilder.builder().build().toBeerDTO();
+        Beer expectedBeer = beerMapper.toModel(expectedBeerDTO);
+        //when
+        when(beerRepository.findById(expectedBeerDTO.getId())).thenReturn(Optional.of(expectedBeer));
+        when(stockLedger.applyAndRecord(expectedBeerDTO.getId(), 10, StockMovementReason.INCREMENT)).thenReturn(false);
+        when(beerRepository.findQuantityById(expectedBeerDTO.getId())).thenReturn(Optional.of(45));
+        //then
+        assertThrows(BeerStockExceededException.class, () -> beerService.increment(expectedBeerDTO.getId(), 10));
+    }
+
+    @Test
+    void incrementRetriedAfterConflictingWrite() throws BeerNotFoundException, BeerStockExceededException, NegativeInputException {
+        //given
+        BeerDTO expectedBeerDTO = BeerDTOBuilder.builder().build().toBeerDTO();
+        Beer expectedBeer = beerMapper.toModel(expectedBeerDTO);
+        //when
+        when(beerRepository.findById(expectedBeerDTO.getId())).thenReturn(Optional.of(expectedBeer));
+        when(stockLedger.applyAndRecord(expectedBeerDTO.getId(), 10, StockMovementReason.INCREMENT))
+                .thenThrow(new CannotAcquireLockException("row locked"))
+                .thenReturn(true);
+        //then
+        BeerDTO incrementedBeerDTO = beerService.increment(expectedBeerDTO.getId(), 10);
+        assertThat(incrementedBeerDTO.getQuantity(), equalTo(expectedBeerDTO.getQuantity() + 10));
+        verify(stockLedger, times(2)).applyAndRecord(expectedBeerDTO.getId(), 10, StockMovementReason.INCREMENT);
+    }
+
+    @Test
+    void incrementStillConflictingAfterMaxAttemptsException() {
+        //given
+        BeerDTO expectedBeerDTO = BeerDTOBuilder.builder().build().toBeerDTO();
+        Beer expectedBeer = beerMapper.toModel(expectedBeerDTO);
+        //when
+        when(beerRepository.findById(expectedBeerDTO.getId())).thenReturn(Optional.of(expectedBeer));
+        when(stockLedger.applyAndRecord(expectedBeerDTO.getId(), 10, StockMovementReason.INCREMENT))
+                .thenThrow(new CannotAcquireLockException("row locked"));
+        //then
+        assertThrows(CannotAcquireLockException.class, () -> beerService.increment(expectedBeerDTO.getId(), 10));
+        verify(stockLedger, times(3)).applyAndRecord(expectedBeerDTO.getId(), 10, StockMovementReason.INCREMENT);
+    }
+
+    @Test
+    void decrementOnBeerDeletedConcurrentlyException() {
+        //given
+        BeerDTO expectedBeerDTO = BeerDTOBuilder.builder().build().toBeerDTO();
+        Beer expectedBeer = beerMapper.toModel(expectedBeerDTO);
+        //when
+        when(beerRepository.findById(expectedBeerDTO.getId())).thenReturn(Optional.of(expectedBeer));
+        when(stockLedger.applyAndRecord(expectedBeerDTO.getId(), -5, StockMovementReason.DECREMENT)).thenReturn(false);
+        when(beerRepository.findQuantityById(expectedBeerDTO.getId())).thenReturn(Optional.empty());
+        //then
+        assertThrows(BeerNotFoundException.class, () -> beerService.decrement(expectedBeerDTO.getId(), 5));
+    }
+
+    @Test
+    void repeatedIncrementsReadTheBeerOnlyOnce() throws BeerNotFoundException, BeerStockExceededException, NegativeInputException {
+        //given
+        BeerDTO expectedBeerDTO = BeerDTOBuilder.builder().build().toBeerDTO();
+        Beer expectedBeer = beerMapper.toModel(expectedBeerDTO);
+        //when
+        when(beerRepository.findById(expectedBeerDTO.getId())).thenReturn(Optional.of(expectedBeer));
+        when(stockLedger.applyAndRecord(expectedBeerDTO.getId(), 5, StockMovementReason.INCREMENT)).thenReturn(true);
+        beerService.increment(expectedBeerDTO.getId(), 5);
+        BeerDTO incrementedBeerDTO = beerService.increment(expectedBeerDTO.getId(), 5);
+        //then
+        assertThat(incrementedBeerDTO.getQuantity(), is(equalTo(expectedBeerDTO.getQuantity() + 10)));
+        verify(beerRepository, times(1)).findById(expectedBeerDTO.getId());
+        verify(stockLedger, times(2)).applyAndRecord(expectedBeerDTO.getId(), 5, StockMovementReason.INCREMENT);
+    }
+
+    @Test
+    void stockMovementsAppliedWithOneNetDeltaPerBeer() {
+        //given
+        BeerDTO expectedBeerDTO = BeerDTOBuilder.builder().build().toBeerDTO();
+        Beer expectedBeer = beerMapper.toModel(expectedBeerDTO);
+        List<StockMovementDTO> movements = Arrays.asList(
+                new StockMovementDTO(expectedBeerDTO.getId(), 20),
+                new StockMovementDTO(expectedBeerDTO.getId(), -5),
+                new StockMovementDTO(expectedBeerDTO.getId(), 40),
+                new StockMovementDTO(INVALID_BEER_ID + 1, 1));
+        //when
+        when(beerRepository.findAllById(Arrays.asList(expectedBeerDTO.getId(), INVALID_BEER_ID + 1)))
+                .thenReturn(Collections.singletonList(expectedBeer));
+        when(stockLedger.applyAndRecordEach(anyList())).thenReturn(Collections.emptySet());
+        //then
+        List<StockMovementResultDTO> results = beerService.applyStockMovements(movements);
+        assertThat(results.get(0).getQuantity(), is(equalTo(30)));
+        assertThat(results.get(1).getQuantity(), is(equalTo(25)));
+        assertThat(results.get(2).getError(), is(equalTo(BeerStockExceededException.class.getSimpleName())));
+        assertThat(results.get(3).getError(), is(equalTo(BeerNotFoundException.class.getSimpleName())));
+        verify(stockLedger, times(1)).applyAndRecordEach(argThat(applied -> applied.size() == 2
+                && applied.stream().mapToInt(StockMovement::getDelta).sum() == 15));
+    }
+
+    @Test
+    void stockMovementsRejectedByDatabaseGuard() {
+        //given
+        BeerDTO expectedBeerDTO = BeerDTOBuilder.builder().build().toBeerDTO();
+        Beer expectedBeer = beerMapper.toModel(expectedBeerDTO);
+        List<StockMovementDTO> movements = Collections.singletonList(new StockMovementDTO(expectedBeerDTO.getId(), -5));
+        //when
+        when(beerRepository.findAllById(Collections.singletonList(expectedBeerDTO.getId())))
+                .thenReturn(Collections.singletonList(expectedBeer));
+        when(stockLedger.applyAndRecordEach(anyList())).thenReturn(Collections.singleton(expectedBeerDTO.getId()));
+        when(beerRepository.findQuantityById(expectedBeerDTO.getId())).thenReturn(Optional.of(3));
+        //then
+        List<StockMovementResultDTO> results = beerService.applyStockMovements(movements);
+        assertThat(results.get(0).getError(), is(equalTo(BeerStockMinCapacityExceededException.class.getSimpleName())));
+    }
+
+    @Test
+    void stockMovementsOfBeerDeletedBeforeTheBatchUpdateAreNotFound() {
+        //given
+        BeerDTO expectedBeerDTO = BeerDTOBuilder.builder().build().toBeerDTO();
+        Beer expectedBeer = beerMapper.toModel(expectedBeerDTO);
+        List<StockMovementDTO> movements = Collections.singletonList(new StockMovementDTO(expectedBeerDTO.getId(), -5));
+        //when
+        when(beerRepository.findAllById(Collections.singletonList(expectedBeerDTO.getId())))
+                .thenReturn(Collections.singletonList(expectedBeer));
+        when(stockLedger.applyAndRecordEach(anyList())).thenReturn(Collections.singleton(expectedBeerDTO.getId()));
+        when(beerRepository.findQuantityById(expectedBeerDTO.getId())).thenReturn(Optional.empty());
+        //then
+        List<StockMovementResultDTO> results = beerService.applyStockMovements(movements);
+        assertThat(results.get(0).getError(), is(equalTo(BeerNotFoundException.class.getSimpleName())));
+        assertThat(results.get(0).getMessage(), is(equalTo(new BeerNotFoundException(expectedBeerDTO.getId()).getMessage())));
+    }
+
+    @Test
+    void shardedStockMovementsAreHandedToTheShards() {
+        //given
+        BeerDTO expectedBeerDTO = BeerDTOBuilder.builder().build().toBeerDTO();
+        Beer expectedBeer = beerMapper.toModel(expectedBeerDTO);
+        List<StockMovementDTO> movements = Arrays.asList(
+                new StockMovementDTO(expectedBeerDTO.getId(), 20),
+                new StockMovementDTO(expectedBeerDTO.getId(), 40));
+        //when
+        when(shardedStockEngine.isEnabled()).thenReturn(true);
+        when(beerRepository.findAllById(Collections.singletonList(expectedBeerDTO.getId())))
+                .thenReturn(Collections.singletonList(expectedBeer));
+        when(shardedStockEngine.submitAll(anyList(), eq(Arrays.asList(20, 40)), eq(StockMovementReason.BATCH)))
+                .thenReturn(Arrays.asList(CompletableFuture.completedFuture(30), CompletableFuture.completedFuture(BoundedStockCounter.REJECTED)));
+        //then
+        List<StockMovementResultDTO> results = beerService.applyStockMovements(movements);
+        assertThat(results.get(0).getQuantity(), is(equalTo(30)));
+        assertThat(results.get(1).getError(), is(equalTo(BeerStockExceededException.class.getSimpleName())));
+        verify(stockLedger, never()).applyAndRecordEach(anyList());
+    }
+
+    @Test
+    void fullPageReturnsTheLastIdAsNextAfterId() {
+        //given
+        BeerDTO expectedFoundBeerDTO = BeerDTOBuilder.builder().build().toBeerDTO();
+        Beer expectedFoundBeer = beerMapper.toModel(expectedFoundBeerDTO);
+        //when
+        when(beerRepository.findByIdGreaterThanOrderByIdAsc(0L, PageRequest.of(0, 1)))
+                .thenReturn(Collections.singletonList(expectedFoundBeer));
+        //then
+        BeerPageDTO page = beerService.listPage(null, 1);
+        assertThat(page.getBeers().get(0), is(equalTo(expectedFoundBeerDTO)));
+        assertThat(page.getNextAfterId(), is(equalTo(expectedFoundBeerDTO.getId())));
+    }
+
+    @Test
+    void lastPageHasNoNextAfterId() {
+        //when
+        when(beerRepository.findByIdGreaterThanOrderByIdAsc(5L, PageRequest.of(0, BeerService.MAX_PAGE_SIZE)))
+                .thenReturn(Collections.emptyList());
+        //then
+        BeerPageDTO page = beerService.listPage(5L, 100_000);
+        assertThat(page.getBeers(), is(empty()));
+        assertThat(page.getNextAfterId(), is(nullValue()));
+    }
+
+    @Test
+    void repeatedNameLookupsHitTheDatabaseOnce() throws BeerNotFoundException {
+        // given
+        BeerDTO expectedFoundBeerDTO = BeerDTOBuilder.builder().build().toBeerDTO();
+        Beer expectedFoundBeer = beerMapper.toModel(expectedFoundBeerDTO);
+
+        // when
+        when(beerRepository.findByName(expectedFoundBeer.getName())).thenReturn(Optional.of(expectedFoundBeer));
+        beerService.findByName(expectedFoundBeerDTO.getName());
+
+        // then
+        BeerDTO foundBeerDTO = beerService.findByName(expectedFoundBeerDTO.getName());
+        assertThat(foundBeerDTO, is(equalTo(expectedFoundBeerDTO)));
+        verify(beerRepository, times(1)).findByName(expectedFoundBeerDTO.getName());
+    }
+
+    @Test
+    void cachedNameLookupReflectsIncrement() throws BeerNotFoundException, BeerStockExceededException, NegativeInputException {
+        // given
+        BeerDTO expectedFoundBeerDTO = BeerDTOBuilder.builder().build().toBeerDTO();
+        Beer expectedFoundBeer = beerMapper.toModel(expectedFoundBeerDTO);
+
+        // when
+        when(beerRepository.findByName(expectedFoundBeer.getName())).thenReturn(Optional.of(expectedFoundBeer));
+        when(stockLedger.applyAndRecord(expectedFoundBeerDTO.getId(), 10, StockMovementReason.INCREMENT)).thenReturn(true);
+        beerService.findByName(expectedFoundBeerDTO.getName());
+        beerService.increment(expectedFoundBeerDTO.getId(), 10);
+
+        // then
+        BeerDTO foundBeerDTO = beerService.findByName(expectedFoundBeerDTO.getName());
+        assertThat(foundBeerDTO.getQuantity(), is(equalTo(expectedFoundBeerDTO.getQuantity() + 10)));
+    }
+
+    @Test
+    void deletedBeerIsEvictedFromNameCache() throws BeerNotFoundException {
+        // given
+        BeerDTO expectedDeletedBeerDTO = BeerDTOBuilder.builder().build().toBeerDTO();
+        Beer expectedDeletedBeer = beerMapper.toModel(expectedDeletedBeerDTO);
+
+        // when
+        when(beerRepository.findByName(expectedDeletedBeer.getName()))
+                .thenReturn(Optional.of(expectedDeletedBeer))
+                .thenReturn(Optional.empty());
+        when(beerRepository.findById(expectedDeletedBeerDTO.getId())).thenReturn(Optional.of(expectedDeletedBeer));
+        when(beerRepository.removeById(expectedDeletedBeerDTO.getId())).thenReturn(1);
+        beerService.findByName(expectedDeletedBeerDTO.getName());
+        beerService.deleteById(expectedDeletedBeerDTO.getId());
+
+        // then
+        assertThrows(BeerNotFoundException.class, () -> beerService.findByName(expectedDeletedBeerDTO.getName()));
+    }
+
+    @Test
+    void beerDeletedWhileItsNameIsLookedUpIsNotCached() throws BeerNotFoundException {
+        // given
+        BeerDTO expectedDeletedBeerDTO = BeerDTOBuilder.builder().build().toBeerDTO();
+        Beer expectedDeletedBeer = beerMapper.toModel(expectedDeletedBeerDTO);
+
+        // when
+        when(beerRepository.findById(expectedDeletedBeerDTO.getId())).thenReturn(Optional.of(expectedDeletedBeer));
+        when(beerRepository.removeById(expectedDeletedBeerDTO.getId())).thenReturn(1);
+        when(beerRepository.findByName(expectedDeletedBeer.getName()))
+                .thenAnswer(invocation -> {
+                    // the delete finishes after the lookup read the beer, before it is cached
+                    beerService.deleteById(expectedDeletedBeerDTO.getId());
+                    return Optional.of(expectedDeletedBeer);
+                })
+                .thenReturn(Optional.empty());
+        when(beerRepository.existsById(expectedDeletedBeerDTO.getId())).thenReturn(false);
+        beerService.findByName(expectedDeletedBeerDTO.getName());
+
+        // then
+        assertThrows(BeerNotFoundException.class, () -> beerService.findByName(expectedDeletedBeerDTO.getName()));
+    }
+
+    @Test
+    void beersCreatedInBulk() throws BeerAlreadyRegisteredException, BeerStockRequiredFieldException {
+        // given
+        BeerDTO lagerDTO = BeerDTOBuilder.builder().build().toBeerDTO();
+        BeerDTO stoutDTO = BeerDTOBuilder.builder().id(2L).name("Guinness").type(BeerType.STOUT).build().toBeerDTO();
+        List<Beer> savedBeers = Arrays.asList(beerMapper.toModel(lagerDTO), beerMapper.toModel(stoutDTO));
+
+        // when
+        when(beerRepository.findNamesIn(Set.of(lagerDTO.getName(), stoutDTO.getName()))).thenReturn(Collections.emptyList());
+        when(beerRepository.saveAll(anyList())).thenReturn(savedBeers);
+
+        // then
+        List<BeerDTO> createdBeerDTOs = beerService.createBeers(Arrays.asList(lagerDTO, stoutDTO));
+        assertThat(createdBeerDTOs, is(equalTo(Arrays.asList(lagerDTO, stoutDTO))));
+        verify(beerRepository, times(1)).flush();
+    }
+
+    @Test
+    void bulkWithAlreadyRegisteredNameCreatesNothing() {
+        // given
+        BeerDTO lagerDTO = BeerDTOBuilder.builder().build().toBeerDTO();
+        BeerDTO stoutDTO = BeerDTOBuilder.builder().id(2L).name("Guinness").type(BeerType.STOUT).build().toBeerDTO();
+
+        // when
+        when(beerRepository.findNamesIn(Set.of(lagerDTO.getName(), stoutDTO.getName())))
+                .thenReturn(Collections.singletonList(stoutDTO.getName()));
+
+        // then
+        assertThrows(BeerAlreadyRegisteredException.class, () -> beerService.createBeers(Arrays.asList(lagerDTO, stoutDTO)));
+        verify(beerRepository, never()).saveAll(anyList());
+    }
+
+    @Test
+    void bulkWithRepeatedNameException() {
+        // given
+        BeerDTO lagerDTO = BeerDTOBuilder.builder().build().toBeerDTO();
+
+        // then
+        assertThrows(BeerAlreadyRegisteredException.class, () -> beerService.createBeers(Arrays.asList(lagerDTO, lagerDTO)));
+    }
+
+    @Test
+    void nameCachePreloadPagesThroughTheCatalog() throws BeerNotFoundException {
+        // given
+        BeerDTO lagerDTO = BeerDTOBuilder.builder().build().toBeerDTO();
+        BeerDTO stoutDTO = BeerDTOBuilder.builder().id(2L).name("Guinness").type(BeerType.STOUT).build().toBeerDTO();
+
+        // when
+        when(beerRepository.findByIdGreaterThanOrderByIdAsc(0L, PageRequest.of(0, 2)))
+                .thenReturn(Arrays.asList(beerMapper.toModel(lagerDTO), beerMapper.toModel(stoutDTO)));
+
+        // then
+        assertThat(beerService.preloadNameCache(2), contains(lagerDTO.getName(), stoutDTO.getName()));
+        assertThat(beerService.findByName(stoutDTO.getName()), is(equalTo(stoutDTO)));
+        verify(beerRepository, never()).findByName(stoutDTO.getName());
+    }
+
+    @Test
+    void unregisteredBeersSkipNamesAlreadyRegistered() throws BeerAlreadyRegisteredException {
+        // given
+        BeerDTO lagerDTO = BeerDTOBuilder.builder().build().toBeerDTO();
+        BeerDTO stoutDTO = BeerDTOBuilder.builder().id(2L).name("Guinness").type(BeerType.STOUT).build().toBeerDTO();
+
+        // when
+        when(beerRepository.findNamesIn(anyCollection())).thenReturn(Collections.singletonList(lagerDTO.getName()));
+        when(beerRepository.saveAll(anyList())).thenReturn(Collections.singletonList(beerMapper.toModel(stoutDTO)));
+
+        // then
+        List<BeerDTO> createdBeerDTOs = beerService.createUnregisteredBeers(Arrays.asList(lagerDTO, stoutDTO));
+        assertThat(createdBeerDTOs, is(equalTo(Collections.singletonList(stoutDTO))));
+        verify(beerRepository).saveAll(argThat(beers -> ((List<Beer>) beers).size() == 1));
+    }
+
+    @Test
+    void unregisteredBeersWithEveryNameRegisteredCreatesNothing() throws BeerAlreadyRegisteredException {
+        // given
+        BeerDTO lagerDTO = BeerDTOBuilder.builder().build().toBeerDTO();
+
+        // when
+        when(beerRepository.findNamesIn(anyCollection())).thenReturn(Collections.singletonList(lagerDTO.getName()));
+
+        // then
+        assertThat(beerService.createUnregisteredBeers(Collections.singletonList(lagerDTO)), is(empty()));
+        verify(beerRepository, never()).saveAll(anyList());
+    }
+
+    @Test
+    void incrementIsRecordedInTheLedger() throws BeerNotFoundException, BeerStockExceededException, NegativeInputException {
+        //given
+        BeerDTO expectedBeerDTO = BeerDTOBuilder.builder().build().toBeerDTO();
+        Beer expectedBeer = beerMapper.toModel(expectedBeerDTO);
+        //when
+        when(beerRepository.findById(expectedBeerDTO.getId())).thenReturn(Optional.of(expectedBeer));
+        when(stockLedger.applyAndRecord(expectedBeerDTO.getId(), 10, StockMovementReason.INCREMENT)).thenReturn(true);
+        beerService.increment(expectedBeerDTO.getId(), 10);
+        //then
+        verify(stockLedger, times(1)).applyAndRecord(expectedBeerDTO.getId(), 10, StockMovementReason.INCREMENT);
+    }
+
+    @Test
+    void rejectedDecrementIsNotRecordedInTheLedger() {
+        //given
+        BeerDTO expectedBeerDTO = BeerDTOBuilder.builder().build().toBeerDTO();
+        Beer expectedBeer = beerMapper.toModel(expectedBeerDTO);
+        //when
+        when(beerRepository.findById(expectedBeerDTO.getId())).thenReturn(Optional.of(expectedBeer));
+        //then
+        assertThrows(BeerStockMinCapacityExceededException.class, () -> beerService.decrement(expectedBeerDTO.getId(), 80));
+        verify(stockLedger, never()).applyAndRecord(any(), anyInt(), any());
+    }
+
+    @Test
+    void decrementRejectionIsReturnedAsOutcome() {
+        //given
+        BeerDTO expectedBeerDTO = BeerDTOBuilder.builder().build().toBeerDTO();
+        Beer expectedBeer = beerMapper.toModel(expectedBeerDTO);
+        //when
+        when(beerRepository.findById(expectedBeerDTO.getId())).thenReturn(Optional.of(expectedBeer));
+        StockOutcome outcome = beerService.tryDecrement(expectedBeerDTO.getId(), 80);
+        //then
+        assertThat(outcome.getStatus(), is(equalTo(StockOutcome.Status.MIN_EXCEEDED)));
+        assertThat(outcome.getMessage(), is(equalTo(new BeerStockMinCapacityExceededException(expectedBeerDTO.getId(), 80).getMessage())));
+    }
+
+    @Test
+    void writeBehindIncrementIsJournaledInsteadOfWritten() throws BeerNotFoundException, BeerStockExceededException, NegativeInputException {
+        //given
+        BeerDTO expectedBeerDTO = BeerDTOBuilder.builder().build().toBeerDTO();
+        Beer expectedBeer = beerMapper.toModel(expectedBeerDTO);
+        //when
+        when(writeBehindStockBuffer.isEnabled()).thenReturn(true);
+        when(beerRepository.findById(expectedBeerDTO.getId())).thenReturn(Optional.of(expectedBeer));
+        BeerDTO incrementedBeerDTO = beerService.increment(expectedBeerDTO.getId(), 10);
+        //then
+        assertThat(incrementedBeerDTO.getQuantity(), is(equalTo(expectedBeerDTO.getQuantity() + 10)));
+        verify(writeBehindStockBuffer, times(1)).submit(expectedBeerDTO.getId(), 10);
+        verify(stockLedger, never()).applyAndRecord(any(), anyInt(), any());
+    }
+
+    @Test
+    void shardedIncrementIsHandedToTheShard() throws BeerNotFoundException, BeerStockExceededException, NegativeInputException {
+        //given
+        BeerDTO expectedBeerDTO = BeerDTOBuilder.builder().build().toBeerDTO();
+        Beer expectedBeer = beerMapper.toModel(expectedBeerDTO);
+        int expectedQuantity = expectedBeerDTO.getQuantity() + 10;
+        //when
+        when(shardedStockEngine.isEnabled()).thenReturn(true);
+        when(shardedStockEngine.submit(any(), eq(10), eq(StockMovementReason.INCREMENT)))
+                .thenReturn(CompletableFuture.completedFuture(expectedQuantity));
+        when(beerRepository.findById(expectedBeerDTO.getId())).thenReturn(Optional.of(expectedBeer));
+        BeerDTO incrementedBeerDTO = beerService.increment(expectedBeerDTO.getId(), 10);
+        //then
+        assertThat(incrementedBeerDTO.getQuantity(), is(equalTo(expectedQuantity)));
+        verify(stockLedger, never()).applyAndRecord(any(), anyInt(), any());
+    }
+
+    @Test
+    void shardedDecrementRejectedByTheShardException() {
+        //given
+        BeerDTO expectedBeerDTO = BeerDTOBuilder.builder().build().toBeerDTO();
+        Beer expectedBeer = beerMapper.toModel(expectedBeerDTO);
+        //when
+        when(shardedStockEngine.isEnabled()).thenReturn(true);
+        when(shardedStockEngine.submit(any(), eq(-80), eq(StockMovementReason.DECREMENT)))
+                .thenReturn(CompletableFuture.completedFuture(BoundedStockCounter.REJECTED));
+        when(beerRepository.findById(expectedBeerDTO.getId())).thenReturn(Optional.of(expectedBeer));
+        //then
+        assertThrows(BeerStockMinCapacityExceededException.class, () -> beerService.decrement(expectedBeerDTO.getId(), 80));
+    }
+
+    @Test
+    void writeBehindJournalFailureRevertsTheCounter() throws BeerNotFoundException, BeerStockExceededException, NegativeInputException {
+        //given
+        BeerDTO expectedBeerDTO = BeerDTOBuilder.builder().build().toBeerDTO();
+        Beer expectedBeer = beerMapper.toModel(expectedBeerDTO);
+        //when
+        when(writeBehindStockBuffer.isEnabled()).thenReturn(true);
+        when(beerRepository.findById(expectedBeerDTO.getId())).thenReturn(Optional.of(expectedBeer));
+        doThrow(new UncheckedIOException(new IOException("disk full"))).doNothing()
+                .when(writeBehindStockBuffer).submit(expectedBeerDTO.getId(), 10);
+        assertThrows(UncheckedIOException.class, () -> beerService.increment(expectedBeerDTO.getId(), 10));
+        BeerDTO incrementedBeerDTO = beerService.increment(expectedBeerDTO.getId(), 10);
+        //then
+        assertThat(incrementedBeerDTO.getQuantity(), is(equalTo(expectedBeerDTO.getQuantity() + 10)));
+    }
+
+    @Test
+    void stockLevelAtAnInstantIsReplayedFromTheLedger() throws BeerNotFoundException {
+        //given
+        Instant at = Instant.parse("2026-01-01T00:00:00Z");
+        //when
+        when(beerRepository.existsById(1L)).thenReturn(true);
+        when(stockLedger.quantityAt(1L, at)).thenReturn(42L);
+        //then
+        StockLevelDTO stockLevel = beerService.stockLevel(1L, at);
+        assertThat(stockLevel.getQuantity(), is(equalTo(42L)));
+        assertThat(stockLevel.getAt(), is(equalTo(at)));
+    }
+
+    @Test
+    void stockLevelOfInvalidIdException() {
+        //when
+        when(beerRepository.existsById(INVALID_BEER_ID)).thenReturn(false);
+        //then
+        assertThrows(BeerNotFoundException.class, () -> beerService.stockLevel(INVALID_BEER_ID, null));
+    }
+
+    @Test
+    void beersOfABrandAreReadWithoutLoadingEntities() {
+        // given
+        BeerDTO expectedFoundBeerDTO = BeerDTOBuilder.builder().build().toBeerDTO();
+
+        //when
+        when(beerRepository.findAllByBrandOrderedById(expectedFoundBeerDTO.getBrand())).thenReturn(Collections.singletonList(expectedFoundBeerDTO));
+
+        //then
+        List<BeerDTO> foundBeers = beerService.findByBrand(expectedFoundBeerDTO.getBrand());
+        assertThat(foundBeers, contains(expectedFoundBeerDTO));
+        verify(beerRepository, never()).findAll();
+    }
+
+    @Test
+    void lowStockIsReadWithTheStockProjection() {
+        // given
+        BeerStockDTO lowStockBeer = new BeerStockDTO(1L, "Brahma", 2, 5, 50);
+
+        //when
+        when(beerRepository.findStockAtOrBelowMin()).thenReturn(Collections.singletonList(lowStockBeer));
+
+        //then
+        List<BeerStockDTO> lowStock = beerService.listLowStock();
+        assertThat(lowStock, contains(lowStockBeer));
+        verify(beerRepository, never()).findAll();
+    }
+
+    @Test
+    void decrementMovesTheBeerInTheHeadroomIndex() throws BeerNotFoundException, BeerStockMinCapacityExceededException, NegativeInputException {
+        // given
+        BeerDTO expectedBeerDTO = BeerDTOBuilder.builder().build().toBeerDTO();
+        Beer expectedBeer = beerMapper.toModel(expectedBeerDTO);
+        stockHeadroomIndex.put(beerMapper.toStockDTO(expectedBeer));
+        stockHeadroomIndex.put(new BeerStockDTO(2L, "Skol", 5, 0, 50));
+
+        //when
+        when(beerRepository.findById(expectedBeerDTO.getId())).thenReturn(Optional.of(expectedBeer));
+        when(stockLedger.applyAndRecord(expectedBeerDTO.getId(), -8, StockMovementReason.DECREMENT)).thenReturn(true);
+
+        //then
+        beerService.decrement(expectedBeerDTO.getId(), 8);
+        List<BeerStockDTO> nearMin = beerService.listNearMin(1);
+        assertThat(nearMin.get(0).getId(), is(equalTo(expectedBeerDTO.getId())));
+        assertThat(nearMin.get(0).getQuantity(), is(equalTo(2)));
+    }
+
+    @Test
+    void deletedBeerLeavesTheHeadroomIndex() throws BeerNotFoundException {
+        // given
+        BeerDTO expectedDeletedBeerDTO = BeerDTOBuilder.builder().build().toBeerDTO();
+        Beer expectedDeletedBeer = beerMapper.toModel(expectedDeletedBeerDTO);
+        stockHeadroomIndex.put(beerMapper.toStockDTO(expectedDeletedBeer));
+
+        //when
+        when(beerRepository.findById(expectedDeletedBeerDTO.getId())).thenReturn(Optional.of(expectedDeletedBeer));
+        when(beerRepository.removeById(expectedDeletedBeerDTO.getId())).thenReturn(1);
+
+        //then
+        beerService.deleteById(expectedDeletedBeerDTO.getId());
+        assertThat(beerService.listNearMin(10), is(empty()));
+    }
+
+    @Test
+    void typeStatisticsFollowCreationAndIncrement() throws BeerAlreadyRegisteredException, BeerStockRequiredFieldException, BeerNotFoundException, BeerStockExceededException, NegativeInputException {
+        // given
+        BeerDTO expectedBeerDTO = BeerDTOBuilder.builder().build().toBeerDTO();
+        Beer expectedSavedBeer = beerMapper.toModel(expectedBeerDTO);
+
+        //when
+        when(beerRepository.saveAndFlush(any(Beer.class))).thenReturn(expectedSavedBeer);
+        when(stockLedger.applyAndRecord(expectedBeerDTO.getId(), 5, StockMovementReason.INCREMENT)).thenReturn(true);
+
+        //then
+        beerService.createBeer(expectedBeerDTO);
+        beerService.increment(expectedBeerDTO.getId(), 5);
+        TypeStockStatisticsDTO statistics = beerService.typeStockStatistics().get(expectedBeerDTO.getType().ordinal());
+        assertThat(statistics.getBeers(), is(equalTo(1L)));
+        assertThat(statistics.getTotal(), is(equalTo((long) expectedBeerDTO.getQuantity() + 5)));
+        assertThat(statistics.getMax(), is(equalTo(expectedBeerDTO.getQuantity() + 5)));
+    }
+
+    @Test
+    void incrementInFlightWhileTheBeerIsDeletedLeavesNoStatistics() throws Exception {
+        // given
+        BeerDTO expectedBeerDTO = BeerDTOBuilder.builder().build().toBeerDTO();
+        Beer expectedSavedBeer = beerMapper.toModel(expectedBeerDTO);
+
+        //when
+        when(beerRepository.saveAndFlush(any(Beer.class))).thenReturn(expectedSavedBeer);
+        when(beerRepository.findById(expectedBeerDTO.getId())).thenReturn(Optional.of(expectedSavedBeer));
+        when(beerRepository.removeById(expectedBeerDTO.getId())).thenReturn(1);
+        when(stockLedger.applyAndRecord(expectedBeerDTO.getId(), 5, StockMovementReason.INCREMENT)).thenAnswer(invocation -> {
+            beerService.deleteById(expectedBeerDTO.getId());
+            return true;
+        });
+
+        //then
+        beerService.createBeer(expectedBeerDTO);
+        beerService.increment(expectedBeerDTO.getId(), 5);
+        TypeStockStatisticsDTO statistics = beerService.typeStockStatistics().get(expectedBeerDTO.getType().ordinal());
+        assertThat(statistics.getBeers(), is(equalTo(0L)));
+        assertThat(statistics.getTotal(), is(equalTo(0L)));
+        assertThat(statistics.getMax(), is(nullValue()));
+    }
+
+    @Test
+    void incrementIsAWriteInFlightUntilTheStatisticsAreUpdated() throws Exception {
+        // given
+        BeerDTO expectedBeerDTO = BeerDTOBuilder.builder().build().toBeerDTO();
+        Beer expectedFoundBeer = beerMapper.toModel(expectedBeerDTO);
+        List<Optional<Long>> writeStampsDuringTheUpdate = new ArrayList<>();
+
+        //when
+        when(beerRepository.findById(expectedBeerDTO.getId())).thenReturn(Optional.of(expectedFoundBeer));
+        when(stockLedger.applyAndRecord(expectedBeerDTO.getId(), 5, StockMovementReason.INCREMENT)).thenAnswer(invocation -> {
+            writeStampsDuringTheUpdate.add(typeStockStatistics.writeStamp());
+            return true;
+        });
+
+        //then
+        beerService.increment(expectedBeerDTO.getId(), 5);
+        assertThat(writeStampsDuringTheUpdate, contains(Optional.empty()));
+        assertThat(typeStockStatistics.writeStamp().isPresent(), is(true));
+    }
+
 }
@@ -0,0 +1,73 @@
+package one.digitalinnovation.beerstock.service;
+
+import one.digitalinnovation.beerstock.config.BeerStockProperties;
+import one.digitalinnovation.beerstock.dto.CatalogImportErrorDTO;
+import one.digitalinnovation.beerstock.dto.CatalogImportReportDTO;
+import one.digitalinnovation.beerstock.enums.CatalogFormat;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.boot.DefaultApplicationArguments;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collections;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+public class CatalogImportRunnerTest {
+
+    @Mock
+    private CatalogImportService catalogImportService;
+
+    @TempDir
+    Path directory;
+
+    private CatalogImportRunner catalogImportRunner;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        Path file = Files.writeString(directory.resolve("catalog.csv"), "name,brand,max,min,quantity,type\n");
+        BeerStockProperties properties = new BeerStockProperties();
+        properties.getCatalogImport().setFile(file);
+        catalogImportRunner = new CatalogImportRunner(catalogImportService, properties);
+    }
+
+    @Test
+    void whenEveryRowIsImportedThenTheExitCodeIsZero() throws Exception {
+        // given
+        importReports(CatalogImportReportDTO.builder().errors(Collections.emptyList()).build());
+
+        // when
+        catalogImportRunner.run(new DefaultApplicationArguments());
+
+        // then
+        assertThat(catalogImportRunner.getExitCode(), is(0));
+    }
+
+    @Test
+    void whenARowIsSkippedThenTheExitCodeReportsIt() throws Exception {
+        // given
+        CatalogImportErrorDTO error = new CatalogImportErrorDTO(2L, "Brahma", "already registered");
+        importReports(CatalogImportReportDTO.builder().errors(Collections.singletonList(error)).build());
+
+        // when
+        catalogImportRunner.run(new DefaultApplicationArguments());
+
+        // then
+        assertThat(catalogImportRunner.getExitCode(), is(CatalogImportRunner.ROWS_SKIPPED_EXIT_CODE));
+    }
+
+    private void importReports(CatalogImportReportDTO report) throws Exception {
+        when(catalogImportService.importCatalog(any(), eq(CatalogFormat.CSV))).thenReturn(report);
+    }
+}
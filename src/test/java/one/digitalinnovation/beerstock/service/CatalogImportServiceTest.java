@@ -0,0 +1,155 @@
+package one.digitalinnovation.beerstock.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import one.digitalinnovation.beerstock.config.BeerStockProperties;
+import one.digitalinnovation.beerstock.dto.BeerDTO;
+import one.digitalinnovation.beerstock.dto.CatalogImportReportDTO;
+import one.digitalinnovation.beerstock.enums.BeerType;
+import one.digitalinnovation.beerstock.enums.CatalogFormat;
+import one.digitalinnovation.beerstock.exception.BeerAlreadyRegisteredException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import javax.persistence.EntityManager;
+import javax.validation.Validation;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.hasSize;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.nullValue;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+public class CatalogImportServiceTest {
+
+    private static final String CSV_HEADER = "name,brand,max,min,quantity,type\n";
+
+    @Mock
+    private BeerService beerService;
+
+    @Mock
+    private EntityManager entityManager;
+
+    private final List<List<BeerDTO>> chunks = new ArrayList<>();
+
+    private CatalogImportService catalogImportService;
+
+    @BeforeEach
+    void setUp() throws BeerAlreadyRegisteredException {
+        BeerStockProperties properties = new BeerStockProperties();
+        properties.getCatalogImport().setChunkSize(2);
+        catalogImportService = new CatalogImportService(beerService,
+                Validation.buildDefaultValidatorFactory().getValidator(), new ObjectMapper(), entityManager, properties);
+        lenient().when(beerService.createUnregisteredBeers(anyList())).thenAnswer(invocation -> {
+            List<BeerDTO> chunk = new ArrayList<>(invocation.getArgument(0));
+            chunks.add(chunk);
+            return chunk;
+        });
+    }
+
+    @Test
+    void csvRowsAreImportedInChunks() throws IOException, BeerAlreadyRegisteredException {
+        // given
+        String csv = CSV_HEADER
+                + "Lager,Ambev,50,0,10,LAGER\n"
+                + "Stout,Guinness,40,5,20,STOUT\n"
+                + "Witbier,Hoegaarden,30,0,0,WITBIER\n";
+
+        // when
+        CatalogImportReportDTO report = catalogImportService.importCatalog(asStream(csv), CatalogFormat.CSV);
+
+        // then
+        assertThat(report.getRows(), is(3L));
+        assertThat(report.getImported(), is(3L));
+        assertThat(chunks, hasSize(2));
+        assertThat(names(chunks.get(0)), contains("Lager", "Stout"));
+        assertThat(names(chunks.get(1)), contains("Witbier"));
+        assertThat(chunks.get(1).get(0).getType(), is(BeerType.WITBIER));
+        verify(entityManager, times(2)).clear();
+    }
+
+    @Test
+    void invalidAndRepeatedRowsAreSkippedAndReported() throws IOException, BeerAlreadyRegisteredException {
+        // given
+        String csv = CSV_HEADER
+                + "Lager,Ambev,50,0,10,LAGER\n"
+                + ",Ambev,50,0,10,LAGER\n"
+                + "Stout,Guinness,600,5,20,STOUT\n"
+                + "Ale,,50,0,10,ALE\n"
+                + "Lager,Ambev,50,0,10,LAGER\n";
+
+        // when
+        CatalogImportReportDTO report = catalogImportService.importCatalog(asStream(csv), CatalogFormat.CSV);
+
+        // then
+        assertThat(report.getRows(), is(5L));
+        assertThat(report.getImported(), is(1L));
+        assertThat(report.getDuplicates(), is(1L));
+        assertThat(report.getInvalid(), is(3L));
+        assertThat(report.getErrors(), hasSize(3));
+        assertThat(report.getErrors().get(0).getRow(), is(2L));
+        assertThat(report.getErrors().get(0).getName(), is(nullValue()));
+        assertThat(report.getErrors().get(1).getMessage(), containsString("max"));
+        assertThat(report.getErrors().get(2).getName(), is("Ale"));
+    }
+
+    @Test
+    void namesAlreadyRegisteredAreCountedAsDuplicates() throws IOException, BeerAlreadyRegisteredException {
+        // given
+        String ndjson = "{\"name\":\"Lager\",\"brand\":\"Ambev\",\"max\":50,\"min\":0,\"quantity\":10,\"type\":\"LAGER\"}\n"
+                + "{\"name\":\"Stout\",\"brand\":\"Guinness\",\"max\":40,\"min\":5,\"quantity\":20,\"type\":\"STOUT\"}\n";
+
+        // when
+        when(beerService.createUnregisteredBeers(anyList())).thenAnswer(invocation -> {
+            List<BeerDTO> chunk = invocation.getArgument(0);
+            return chunk.subList(0, 1);
+        });
+        CatalogImportReportDTO report = catalogImportService.importCatalog(asStream(ndjson), CatalogFormat.NDJSON);
+
+        // then
+        assertThat(report.getRows(), is(2L));
+        assertThat(report.getImported(), is(1L));
+        assertThat(report.getDuplicates(), is(1L));
+    }
+
+    @Test
+    void chunkIsRetriedWhenANameIsRegisteredConcurrently() throws IOException, BeerAlreadyRegisteredException {
+        // given
+        String csv = CSV_HEADER + "Lager,Ambev,50,0,10,LAGER\n";
+
+        // when
+        when(beerService.createUnregisteredBeers(anyList()))
+                .thenThrow(new BeerAlreadyRegisteredException("Lager"))
+                .thenReturn(new ArrayList<>());
+        CatalogImportReportDTO report = catalogImportService.importCatalog(asStream(csv), CatalogFormat.CSV);
+
+        // then
+        verify(beerService, times(2)).createUnregisteredBeers(anyList());
+        assertThat(report.getImported(), is(0L));
+        assertThat(report.getDuplicates(), is(1L));
+    }
+
+    private static InputStream asStream(String content) {
+        return new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static List<String> names(List<BeerDTO> beerDTOs) {
+        return beerDTOs.stream().map(BeerDTO::getName).collect(Collectors.toList());
+    }
+}
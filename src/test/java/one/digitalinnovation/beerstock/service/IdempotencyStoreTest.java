@@ -0,0 +1,104 @@
+package one.digitalinnovation.beerstock.service;
+
+import one.digitalinnovation.beerstock.builder.BeerDTOBuilder;
+import one.digitalinnovation.beerstock.dto.BeerDTO;
+import one.digitalinnovation.beerstock.exception.IdempotencyKeyReusedException;
+import one.digitalinnovation.beerstock.exception.IdempotentRequestInProgressException;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.sameInstance;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class IdempotencyStoreTest {
+
+    private static final String KEY = "5f0c6a53-8e0d-4b1c-9d0e-2d6f3c1b7a10";
+    private static final String REQUEST = "increment 1 10";
+
+    private final IdempotencyStore idempotencyStore = new IdempotencyStore(100, Duration.ofMinutes(1));
+
+    private final AtomicInteger adjustments = new AtomicInteger();
+
+    @Test
+    void retryGetsTheFirstResponseWithoutAdjustingAgain() throws Exception {
+        // given
+        BeerDTO beerDTO = BeerDTOBuilder.builder().build().toBeerDTO();
+
+        // when
+        StockOutcome first = idempotencyStore.execute(KEY, REQUEST, () -> applied(beerDTO));
+        StockOutcome retry = idempotencyStore.execute(KEY, REQUEST, () -> applied(beerDTO));
+
+        // then
+        assertThat(adjustments.get(), is(1));
+        assertThat(first.isReplayed(), is(false));
+        assertThat(retry.isReplayed(), is(true));
+        assertThat(retry.getBeer(), is(sameInstance(beerDTO)));
+    }
+
+    @Test
+    void rejectedAdjustmentReleasesTheKey() throws Exception {
+        // given
+        BeerDTO beerDTO = BeerDTOBuilder.builder().build().toBeerDTO();
+
+        // when
+        idempotencyStore.execute(KEY, REQUEST, () -> StockOutcome.rejected(StockOutcome.Status.MAX_EXCEEDED, 1L, 10));
+        StockOutcome retry = idempotencyStore.execute(KEY, REQUEST, () -> applied(beerDTO));
+
+        // then
+        assertThat(adjustments.get(), is(1));
+        assertThat(retry.isReplayed(), is(false));
+    }
+
+    @Test
+    void failedAdjustmentReleasesTheKey() throws Exception {
+        // given
+        BeerDTO beerDTO = BeerDTOBuilder.builder().build().toBeerDTO();
+
+        // when
+        assertThrows(IllegalStateException.class, () -> idempotencyStore.execute(KEY, REQUEST, () -> {
+            throw new IllegalStateException();
+        }));
+        StockOutcome retry = idempotencyStore.execute(KEY, REQUEST, () -> applied(beerDTO));
+
+        // then
+        assertThat(retry.isApplied(), is(true));
+        assertThat(retry.isReplayed(), is(false));
+    }
+
+    @Test
+    void keyReusedForAnotherRequestException() throws Exception {
+        // given
+        BeerDTO beerDTO = BeerDTOBuilder.builder().build().toBeerDTO();
+
+        // when
+        idempotencyStore.execute(KEY, REQUEST, () -> applied(beerDTO));
+
+        // then
+        assertThrows(IdempotencyKeyReusedException.class, () -> idempotencyStore.execute(KEY, "decrement 1 10", () -> applied(beerDTO)));
+        assertThat(adjustments.get(), is(1));
+    }
+
+    @Test
+    void retryWhileTheFirstRequestRunsException() throws Exception {
+        // given
+        BeerDTO beerDTO = BeerDTOBuilder.builder().build().toBeerDTO();
+
+        // when
+        idempotencyStore.execute(KEY, REQUEST, () -> {
+            assertThrows(IdempotentRequestInProgressException.class, () -> idempotencyStore.execute(KEY, REQUEST, () -> applied(beerDTO)));
+            return applied(beerDTO);
+        });
+
+        // then
+        assertThat(adjustments.get(), is(1));
+    }
+
+    private StockOutcome applied(BeerDTO beerDTO) {
+        adjustments.incrementAndGet();
+        return StockOutcome.applied(beerDTO);
+    }
+}
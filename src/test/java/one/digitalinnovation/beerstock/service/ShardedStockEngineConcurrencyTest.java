@@ -0,0 +1,15 @@
+package one.digitalinnovation.beerstock.service;
+
+import org.springframework.boot.test.context.SpringBootTest;
+
+/**
+ * Runs the {@link BeerServiceConcurrencyTest} scenarios with increments and
+ * decrements going through the {@link ShardedStockEngine}.
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:sharded;DB_CLOSE_DELAY=-1;DB_CLOSE_ON_EXIT=FALSE",
+        "beerstock.stock-engine.sharded=true",
+        "beerstock.stock-engine.shards=4"
+})
+public class ShardedStockEngineConcurrencyTest extends BeerServiceConcurrencyTest {
+}
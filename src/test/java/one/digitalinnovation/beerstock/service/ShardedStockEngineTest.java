@@ -0,0 +1,188 @@
+package one.digitalinnovation.beerstock.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import one.digitalinnovation.beerstock.config.BeerStockProperties;
+import one.digitalinnovation.beerstock.entity.Beer;
+import one.digitalinnovation.beerstock.entity.StockMovement;
+import one.digitalinnovation.beerstock.enums.BeerType;
+import one.digitalinnovation.beerstock.enums.StockMovementReason;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.CannotAcquireLockException;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.stream.Collectors;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.instanceOf;
+import static org.hamcrest.Matchers.is;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+public class ShardedStockEngineTest {
+
+    @Mock
+    private StockLedgerService stockLedger;
+
+    private ShardedStockEngine shardedStockEngine;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private final List<StockMovement> written = Collections.synchronizedList(new ArrayList<>());
+
+    @BeforeEach
+    void setUp() {
+        BeerStockProperties.StockEngine properties = new BeerStockProperties.StockEngine();
+        properties.setSharded(true);
+        properties.setShards(2);
+        shardedStockEngine = new ShardedStockEngine(properties, stockLedger,
+                new StockWriteRetry(3, Duration.ZERO, Duration.ZERO, meterRegistry));
+        shardedStockEngine.start();
+    }
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        shardedStockEngine.stop();
+    }
+
+    @Test
+    void everyAcceptedCommandIsWrittenOnce() {
+        // given
+        BoundedStockCounter lager = counter(1L, 0, 10_000, 100);
+        BoundedStockCounter stout = counter(2L, 0, 10_000, 100);
+        when(stockLedger.applyAndRecordEach(anyList())).thenAnswer(invocation -> {
+            written.addAll(invocation.getArgument(0));
+            return Collections.emptySet();
+        });
+
+        // when
+        List<CompletableFuture<Integer>> results = new ArrayList<>();
+        for (int i = 0; i < 500; i++) {
+            results.add(shardedStockEngine.submit(lager, 2, StockMovementReason.INCREMENT));
+            results.add(shardedStockEngine.submit(stout, -1, StockMovementReason.DECREMENT));
+        }
+        results.forEach(CompletableFuture::join);
+
+        // then
+        assertThat(lager.get(), is(1_100));
+        assertThat(stout.get(), is(0));
+        assertThat(written.size(), is(500 + 100));
+    }
+
+    @Test
+    void submittedMovementsAreWrittenInOneBatchPerShard() {
+        // given
+        BoundedStockCounter lager = counter(1L, 0, 50, 40);
+        BoundedStockCounter stout = counter(2L, 0, 50, 40);
+        when(stockLedger.applyAndRecordEach(anyList())).thenAnswer(invocation -> {
+            written.addAll(invocation.getArgument(0));
+            return Collections.emptySet();
+        });
+
+        // when
+        List<Integer> results = shardedStockEngine.submitAll(Arrays.asList(lager, stout, lager, lager), Arrays.asList(5, -10, 3, 10),
+                        StockMovementReason.BATCH)
+                .stream()
+                .map(CompletableFuture::join)
+                .collect(Collectors.toList());
+
+        // then
+        assertThat(results, is(Arrays.asList(45, 30, 48, BoundedStockCounter.REJECTED)));
+        assertThat(written.size(), is(3));
+        verify(stockLedger, times(2)).applyAndRecordEach(anyList());
+    }
+
+    @Test
+    void commandCrossingALimitIsRejectedWithoutBeingWritten() {
+        // given
+        BoundedStockCounter lager = counter(1L, 0, 50, 40);
+
+        // when
+        int result = shardedStockEngine.submit(lager, 20, StockMovementReason.INCREMENT).join();
+
+        // then
+        assertThat(result, is(BoundedStockCounter.REJECTED));
+        assertThat(lager.get(), is(40));
+        verify(stockLedger, never()).applyAndRecordEach(anyList());
+    }
+
+    @Test
+    void commandRejectedByTheDatabaseIsNotWritten() {
+        // given
+        BoundedStockCounter lager = counter(1L, 0, 50, 40);
+        when(stockLedger.applyAndRecordEach(anyList())).thenReturn(Collections.singleton(1L));
+
+        // when
+        int result = shardedStockEngine.submit(lager, 5, StockMovementReason.INCREMENT).join();
+
+        // then
+        assertThat(result, is(ShardedStockEngine.NOT_WRITTEN));
+    }
+
+    @Test
+    void failedBatchIsTakenBackFromTheCounters() {
+        // given
+        BoundedStockCounter lager = counter(1L, 0, 50, 40);
+        when(stockLedger.applyAndRecordEach(anyList())).thenThrow(new IllegalStateException("connection lost"));
+
+        // when
+        CompletableFuture<Integer> result = shardedStockEngine.submit(lager, 5, StockMovementReason.INCREMENT);
+
+        // then
+        CompletionException failure = assertThrows(CompletionException.class, result::join);
+        assertThat(failure.getCause(), is(instanceOf(IllegalStateException.class)));
+        assertThat(lager.get(), is(40));
+    }
+
+    @Test
+    void conflictingBatchIsRetried() {
+        // given
+        BoundedStockCounter lager = counter(1L, 0, 50, 40);
+        when(stockLedger.applyAndRecordEach(anyList()))
+                .thenThrow(new CannotAcquireLockException("row locked"))
+                .thenReturn(Collections.emptySet());
+
+        // when
+        int result = shardedStockEngine.submit(lager, 5, StockMovementReason.INCREMENT).join();
+
+        // then
+        assertThat(result, is(45));
+        verify(stockLedger, times(2)).applyAndRecordEach(anyList());
+        assertThat(meterRegistry.get(StockWriteRetry.CONFLICT_COUNTER).tag("outcome", "retried").counter().count(), is(1.0));
+    }
+
+    @Test
+    void commandSubmittedAfterStopIsRejected() throws InterruptedException {
+        // given
+        BoundedStockCounter lager = counter(1L, 0, 50, 40);
+
+        // when
+        shardedStockEngine.stop();
+        CompletableFuture<Integer> result = shardedStockEngine.submit(lager, 5, StockMovementReason.INCREMENT);
+
+        // then
+        CompletionException failure = assertThrows(CompletionException.class, result::join);
+        assertThat(failure.getCause(), is(instanceOf(RejectedExecutionException.class)));
+        assertThat(lager.get(), is(40));
+    }
+
+    private static BoundedStockCounter counter(Long id, int min, int max, int quantity) {
+        return new BoundedStockCounter(new Beer(id, "Beer " + id, "Brand", max, min, quantity, BeerType.LAGER));
+    }
+}
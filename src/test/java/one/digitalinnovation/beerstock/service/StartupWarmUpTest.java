@@ -0,0 +1,76 @@
+package one.digitalinnovation.beerstock.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import one.digitalinnovation.beerstock.builder.BeerDTOBuilder;
+import one.digitalinnovation.beerstock.config.BeerStockProperties;
+import one.digitalinnovation.beerstock.dto.BeerDTO;
+import one.digitalinnovation.beerstock.dto.BeerPageDTO;
+import one.digitalinnovation.beerstock.exception.BeerNotFoundException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.Collections;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.atLeastOnce;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+public class StartupWarmUpTest {
+
+    @Mock
+    private BeerService beerService;
+
+    private BeerStockProperties properties;
+
+    private StartupWarmUp startupWarmUp;
+
+    @BeforeEach
+    void setUp() {
+        properties = new BeerStockProperties();
+        properties.getWarmUp().setIterations(5);
+        startupWarmUp = new StartupWarmUp(beerService, new CatalogSnapshotCache(beerService, new ObjectMapper(), false, 0),
+                new ObjectMapper(), properties);
+    }
+
+    @Test
+    void warmUpPreloadsCachesAndRunsEveryIteration() throws IOException, BeerNotFoundException {
+        // given
+        BeerDTO beerDTO = BeerDTOBuilder.builder().build().toBeerDTO();
+
+        // when
+        when(beerService.preloadNameCache(10_000)).thenReturn(Collections.singletonList(beerDTO.getName()));
+        when(beerService.findByName(beerDTO.getName())).thenReturn(beerDTO);
+        when(beerService.listPage(null, 20)).thenReturn(new BeerPageDTO(Collections.singletonList(beerDTO), null));
+        startupWarmUp.run(null);
+
+        // then
+        verify(beerService, times(1)).exportAll(any());
+        verify(beerService, times(5)).findByName(beerDTO.getName());
+        verify(beerService, times(5)).listPage(null, 20);
+        verify(beerService, times(5)).typeStockStatistics();
+    }
+
+    @Test
+    void warmUpStopsWhenItsTimeRunsOut() throws IOException {
+        // given
+        properties.getWarmUp().setIterations(Integer.MAX_VALUE);
+        properties.getWarmUp().setMaxDuration(Duration.ZERO);
+
+        // when
+        startupWarmUp.run(null);
+
+        // then
+        verify(beerService, atLeastOnce()).preloadNameCache(anyInt());
+        verify(beerService, never()).listPage(null, 20);
+    }
+}
@@ -0,0 +1,106 @@
+package one.digitalinnovation.beerstock.service;
+
+import one.digitalinnovation.beerstock.dto.BeerStockDTO;
+import one.digitalinnovation.beerstock.dto.StockAlertDTO;
+import one.digitalinnovation.beerstock.entity.Beer;
+import one.digitalinnovation.beerstock.enums.BeerType;
+import one.digitalinnovation.beerstock.enums.StockAlertType;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.is;
+
+public class StockHeadroomIndexTest {
+
+    private final List<StockAlertDTO> alerts = new ArrayList<>();
+
+    private StockHeadroomIndex index;
+
+    @BeforeEach
+    void setUp() {
+        index = new StockHeadroomIndex(2, 0, alerts::add);
+    }
+
+    @Test
+    void beersClosestToMinComeFirst() {
+        // given
+        index.put(new BeerStockDTO(1L, "Brahma", 30, 0, 50));
+        index.put(new BeerStockDTO(2L, "Skol", 12, 10, 50));
+        index.put(new BeerStockDTO(3L, "Heineken", 8, 0, 10));
+
+        // when
+        List<Long> nearMin = ids(index.closestToMin(2));
+        List<Long> nearMax = ids(index.closestToMax(1));
+
+        // then
+        assertThat(nearMin, contains(2L, 3L));
+        assertThat(nearMax, contains(3L));
+    }
+
+    @Test
+    void refreshReordersTheBeerByItsCounter() {
+        // given
+        BoundedStockCounter counter = counterFor(1L, 30, 0, 50);
+        index.put(new BeerStockDTO(1L, "Brahma", 30, 0, 50));
+        index.put(new BeerStockDTO(2L, "Skol", 10, 0, 50));
+
+        // when
+        counter.tryAdd(-25);
+        index.refresh(counter, (fromQuantity, toQuantity) -> { });
+
+        // then
+        assertThat(ids(index.closestToMin(2)), contains(1L, 2L));
+        assertThat(index.size(), is(equalTo(2)));
+    }
+
+    @Test
+    void crossingTheLowStockThresholdRaisesAndClearsAnAlert() {
+        // given
+        BoundedStockCounter counter = counterFor(1L, 5, 0, 50);
+        index.put(new BeerStockDTO(1L, "Brahma", 5, 0, 50));
+
+        // when
+        counter.tryAdd(-3);
+        index.refresh(counter, (fromQuantity, toQuantity) -> { });
+        counter.tryAdd(-1);
+        index.refresh(counter, (fromQuantity, toQuantity) -> { });
+        counter.tryAdd(10);
+        index.refresh(counter, (fromQuantity, toQuantity) -> { });
+
+        // then
+        assertThat(alerts.stream().map(StockAlertDTO::getType).collect(Collectors.toList()),
+                contains(StockAlertType.LOW_STOCK, StockAlertType.LOW_STOCK_CLEARED));
+        assertThat(alerts.get(0).getQuantity(), is(equalTo(2)));
+    }
+
+    @Test
+    void removedBeerIsNotAddedBackByALateRefresh() {
+        // given
+        BoundedStockCounter counter = counterFor(1L, 30, 0, 50);
+        index.put(new BeerStockDTO(1L, "Brahma", 30, 0, 50));
+
+        // when
+        index.remove(1L, quantity -> { });
+        counter.tryAdd(1);
+        index.refresh(counter, (fromQuantity, toQuantity) -> { });
+
+        // then
+        assertThat(index.closestToMin(10), is(empty()));
+    }
+
+    private static BoundedStockCounter counterFor(Long id, int quantity, int min, int max) {
+        return new BoundedStockCounter(new Beer(id, "Brahma", "Ambev", max, min, quantity, BeerType.LAGER));
+    }
+
+    private static List<Long> ids(List<BeerStockDTO> stock) {
+        return stock.stream().map(BeerStockDTO::getId).collect(Collectors.toList());
+    }
+}
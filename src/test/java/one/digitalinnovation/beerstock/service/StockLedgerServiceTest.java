@@ -0,0 +1,146 @@
+package one.digitalinnovation.beerstock.service;
+
+import one.digitalinnovation.beerstock.entity.StockMovement;
+import one.digitalinnovation.beerstock.entity.StockSnapshot;
+import one.digitalinnovation.beerstock.enums.StockMovementReason;
+import one.digitalinnovation.beerstock.repository.BeerDeltaSum;
+import one.digitalinnovation.beerstock.repository.BeerRepository;
+import one.digitalinnovation.beerstock.repository.StockMovementRepository;
+import one.digitalinnovation.beerstock.repository.StockSnapshotRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.is;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+public class StockLedgerServiceTest {
+
+    private static final long BEER_ID = 1L;
+
+    @Mock
+    private BeerRepository beerRepository;
+
+    @Mock
+    private StockMovementRepository stockMovementRepository;
+
+    @Mock
+    private StockSnapshotRepository stockSnapshotRepository;
+
+    @InjectMocks
+    private StockLedgerService stockLedgerService;
+
+    @Test
+    void currentQuantityIsSnapshotPlusTail() {
+        // given
+        StockSnapshot snapshot = new StockSnapshot(BEER_ID, 30L, 100L, Instant.now());
+
+        // when
+        when(stockSnapshotRepository.findById(BEER_ID)).thenReturn(Optional.of(snapshot));
+        when(stockMovementRepository.sumDeltasAfter(BEER_ID, 100L)).thenReturn(-4L);
+
+        // then
+        assertThat(stockLedgerService.currentQuantity(BEER_ID), is(equalTo(26L)));
+    }
+
+    @Test
+    void currentQuantityWithoutSnapshotReplaysEverything() {
+        // when
+        when(stockSnapshotRepository.findById(BEER_ID)).thenReturn(Optional.empty());
+        when(stockMovementRepository.sumDeltasAfter(BEER_ID, 0L)).thenReturn(12L);
+
+        // then
+        assertThat(stockLedgerService.currentQuantity(BEER_ID), is(equalTo(12L)));
+    }
+
+    @Test
+    void eachMovementIsRecordedWithOneNetUpdatePerBeer() {
+        // given
+        List<StockMovement> movements = Arrays.asList(
+                new StockMovement(BEER_ID, 5, StockMovementReason.INCREMENT),
+                new StockMovement(2L, 1, StockMovementReason.INCREMENT),
+                new StockMovement(BEER_ID, -2, StockMovementReason.DECREMENT));
+        Map<Long, Integer> netDeltas = new HashMap<>();
+        netDeltas.put(BEER_ID, 3);
+        netDeltas.put(2L, 1);
+
+        // when
+        when(beerRepository.applyQuantityDeltas(netDeltas)).thenReturn(Collections.singleton(2L));
+        Set<Long> rejectedIds = stockLedgerService.applyAndRecordEach(movements);
+
+        // then
+        assertThat(rejectedIds, contains(2L));
+        verify(stockMovementRepository).saveAll(Arrays.asList(movements.get(0), movements.get(2)));
+    }
+
+    @Test
+    void snapshotFoldsTheMovementsAfterEachBeersOwnWatermark() {
+        // given
+        StockSnapshot snapshot = new StockSnapshot(BEER_ID, 30L, 100L, Instant.now());
+        BeerDeltaSum deltaSum = deltaSum(BEER_ID, 5L, 150L);
+        BeerDeltaSum newBeerDeltaSum = deltaSum(2L, 7L, 120L);
+
+        // when
+        when(stockMovementRepository.sumUnfoldedDeltasByBeer()).thenReturn(Arrays.asList(deltaSum, newBeerDeltaSum));
+        when(stockSnapshotRepository.findById(BEER_ID)).thenReturn(Optional.of(snapshot));
+        when(stockSnapshotRepository.findById(2L)).thenReturn(Optional.empty());
+        stockLedgerService.takeSnapshots();
+
+        // then
+        ArgumentCaptor<StockSnapshot> savedSnapshots = ArgumentCaptor.forClass(StockSnapshot.class);
+        verify(stockSnapshotRepository, times(2)).save(savedSnapshots.capture());
+        assertThat(savedSnapshots.getAllValues().get(0).getQuantity(), is(equalTo(35L)));
+        assertThat(savedSnapshots.getAllValues().get(0).getLastMovementId(), is(equalTo(150L)));
+        assertThat(savedSnapshots.getAllValues().get(1).getQuantity(), is(equalTo(7L)));
+        assertThat(savedSnapshots.getAllValues().get(1).getLastMovementId(), is(equalTo(120L)));
+    }
+
+    @Test
+    void snapshotSkippedWithoutUnfoldedMovements() {
+        // when
+        when(stockMovementRepository.sumUnfoldedDeltasByBeer()).thenReturn(Collections.emptyList());
+        stockLedgerService.takeSnapshots();
+
+        // then
+        verify(stockSnapshotRepository, never()).save(any());
+    }
+
+    private static BeerDeltaSum deltaSum(Long beerId, Long total, Long lastMovementId) {
+        return new BeerDeltaSum() {
+            @Override
+            public Long getBeerId() {
+                return beerId;
+            }
+
+            @Override
+            public Long getTotal() {
+                return total;
+            }
+
+            @Override
+            public Long getLastMovementId() {
+                return lastMovementId;
+            }
+        };
+    }
+}
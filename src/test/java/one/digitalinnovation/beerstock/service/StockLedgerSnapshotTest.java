@@ -0,0 +1,75 @@
+package one.digitalinnovation.beerstock.service;
+
+import one.digitalinnovation.beerstock.entity.StockMovement;
+import one.digitalinnovation.beerstock.enums.StockMovementReason;
+import one.digitalinnovation.beerstock.repository.StockMovementRepository;
+import one.digitalinnovation.beerstock.repository.StockSnapshotRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.lessThan;
+
+@SpringBootTest(properties = "spring.datasource.url=jdbc:h2:mem:ledger;DB_CLOSE_DELAY=-1;DB_CLOSE_ON_EXIT=FALSE")
+public class StockLedgerSnapshotTest {
+
+    private static final Long SLOW_BEER_ID = 1L;
+    private static final Long FAST_BEER_ID = 2L;
+
+    @Autowired
+    private StockLedgerService stockLedger;
+
+    @Autowired
+    private StockMovementRepository stockMovementRepository;
+
+    @Autowired
+    private StockSnapshotRepository stockSnapshotRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Test
+    void movementCommittedAfterAHigherIdWasFoldedIsFoldedLater() throws Exception {
+        // given
+        stockMovementRepository.save(new StockMovement(SLOW_BEER_ID, 1, StockMovementReason.INCREMENT));
+        CountDownLatch idAssigned = new CountDownLatch(1);
+        CountDownLatch mayCommit = new CountDownLatch(1);
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        Future<Long> slowMovementId = executor.submit(() -> new TransactionTemplate(transactionManager).execute(status -> {
+            StockMovement movement = stockMovementRepository.save(new StockMovement(SLOW_BEER_ID, 4, StockMovementReason.INCREMENT));
+            idAssigned.countDown();
+            try {
+                mayCommit.await(10, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return movement.getId();
+        }));
+        idAssigned.await(10, TimeUnit.SECONDS);
+        Long fastMovementId = stockMovementRepository.save(new StockMovement(FAST_BEER_ID, 3, StockMovementReason.INCREMENT)).getId();
+
+        // when
+        stockLedger.takeSnapshots();
+        mayCommit.countDown();
+        Long committedLateId = slowMovementId.get(10, TimeUnit.SECONDS);
+        stockLedger.takeSnapshots();
+        executor.shutdown();
+
+        // then
+        assertThat(committedLateId, is(lessThan(fastMovementId)));
+        assertThat(stockSnapshotRepository.findById(SLOW_BEER_ID).get().getQuantity(), is(equalTo(5L)));
+        assertThat(stockSnapshotRepository.findById(FAST_BEER_ID).get().getQuantity(), is(equalTo(3L)));
+        assertThat(stockLedger.currentQuantity(SLOW_BEER_ID), is(equalTo(5L)));
+    }
+}
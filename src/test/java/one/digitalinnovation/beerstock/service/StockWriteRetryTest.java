@@ -0,0 +1,75 @@
+package one.digitalinnovation.beerstock.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.CannotAcquireLockException;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.is;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class StockWriteRetryTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private final StockWriteRetry stockWriteRetry = new StockWriteRetry(3, Duration.ofMillis(1), Duration.ofMillis(2), meterRegistry);
+
+    @Test
+    void conflictingWriteIsRetriedUntilItGoesThrough() {
+        // given
+        AtomicInteger attempts = new AtomicInteger();
+
+        // when
+        boolean written = stockWriteRetry.call(1L, () -> {
+            if (attempts.incrementAndGet() < 3) {
+                throw new ObjectOptimisticLockingFailureException("Beer", 1L);
+            }
+            return true;
+        });
+
+        // then
+        assertThat(written, is(true));
+        assertThat(attempts.get(), is(equalTo(3)));
+        assertThat(conflicts("retried"), is(equalTo(2.0)));
+        assertThat(conflicts("exhausted"), is(equalTo(0.0)));
+    }
+
+    @Test
+    void lastConflictIsRethrownOnceAttemptsRunOut() {
+        // given
+        AtomicInteger attempts = new AtomicInteger();
+
+        // then
+        assertThrows(CannotAcquireLockException.class, () -> stockWriteRetry.call(1L, () -> {
+            attempts.incrementAndGet();
+            throw new CannotAcquireLockException("row locked");
+        }));
+        assertThat(attempts.get(), is(equalTo(3)));
+        assertThat(conflicts("retried"), is(equalTo(2.0)));
+        assertThat(conflicts("exhausted"), is(equalTo(1.0)));
+    }
+
+    @Test
+    void otherFailuresAreNotRetried() {
+        // given
+        AtomicInteger attempts = new AtomicInteger();
+
+        // then
+        assertThrows(DataIntegrityViolationException.class, () -> stockWriteRetry.call(1L, () -> {
+            attempts.incrementAndGet();
+            throw new DataIntegrityViolationException("constraint");
+        }));
+        assertThat(attempts.get(), is(equalTo(1)));
+        assertThat(conflicts("retried"), is(equalTo(0.0)));
+    }
+
+    private double conflicts(String outcome) {
+        return meterRegistry.counter(StockWriteRetry.CONFLICT_COUNTER, "outcome", outcome).count();
+    }
+}
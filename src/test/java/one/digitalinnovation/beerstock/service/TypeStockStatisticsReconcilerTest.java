@@ -0,0 +1,91 @@
+package one.digitalinnovation.beerstock.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import one.digitalinnovation.beerstock.enums.BeerType;
+import one.digitalinnovation.beerstock.repository.BeerRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.Collections;
+
+import static one.digitalinnovation.beerstock.service.TypeStockStatisticsTest.count;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.is;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+public class TypeStockStatisticsReconcilerTest {
+
+    @Mock
+    private BeerRepository beerRepository;
+
+    @Mock
+    private WriteBehindStockBuffer writeBehindStockBuffer;
+
+    private final TypeStockStatistics typeStockStatistics = new TypeStockStatistics();
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private TypeStockStatisticsReconciler reconciler;
+
+    @BeforeEach
+    void setUp() {
+        reconciler = new TypeStockStatisticsReconciler(beerRepository, typeStockStatistics, writeBehindStockBuffer, meterRegistry);
+        typeStockStatistics.add(BeerType.IPA, 10);
+    }
+
+    @Test
+    void driftedStatisticsAreCorrectedAndCounted() throws Exception {
+        // given
+        when(beerRepository.countByTypeAndQuantity()).thenReturn(Collections.singletonList(count(BeerType.IPA, 12, 1)));
+
+        // when
+        reconciler.reconcile();
+
+        // then
+        assertThat(typeStockStatistics.get(BeerType.IPA).getTotal(), is(equalTo(12L)));
+        assertThat(drift(BeerType.IPA), is(equalTo(1.0)));
+    }
+
+    @Test
+    void writeCommittedWhileTheCountsAreQueriedIsNotAppliedTwice() throws Exception {
+        // given the IPA is incremented from 10 to 12, committed before the query reads it
+        when(beerRepository.countByTypeAndQuantity()).thenAnswer(invocation -> {
+            typeStockStatistics.beginWrite();
+            return Collections.singletonList(count(BeerType.IPA, 12, 1));
+        });
+
+        // when
+        reconciler.reconcile();
+        typeStockStatistics.move(BeerType.IPA, 10, 12);
+        typeStockStatistics.endWrite();
+
+        // then
+        assertThat(typeStockStatistics.get(BeerType.IPA).getTotal(), is(equalTo(12L)));
+        assertThat(typeStockStatistics.get(BeerType.IPA).getMin(), is(equalTo(12)));
+        assertThat(drift(BeerType.IPA), is(equalTo(0.0)));
+    }
+
+    @Test
+    void runStartedWhileAWriteIsInFlightIsSkipped() throws Exception {
+        // given
+        typeStockStatistics.beginWrite();
+
+        // when
+        reconciler.reconcile();
+
+        // then
+        verify(beerRepository, never()).countByTypeAndQuantity();
+        assertThat(typeStockStatistics.get(BeerType.IPA).getTotal(), is(equalTo(10L)));
+    }
+
+    private double drift(BeerType type) {
+        return meterRegistry.get("beerstock.stock.type.statistics.drift").tag("type", type.name()).counter().count();
+    }
+}
@@ -0,0 +1,106 @@
+package one.digitalinnovation.beerstock.service;
+
+import one.digitalinnovation.beerstock.dto.TypeStockStatisticsDTO;
+import one.digitalinnovation.beerstock.enums.BeerType;
+import one.digitalinnovation.beerstock.repository.TypeQuantityCount;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Map;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.aMapWithSize;
+import static org.hamcrest.Matchers.anEmptyMap;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.hasKey;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.nullValue;
+
+public class TypeStockStatisticsTest {
+
+    private final TypeStockStatistics statistics = new TypeStockStatistics();
+
+    @Test
+    void statisticsFollowAddsMovesAndRemoves() {
+        // given
+        statistics.add(BeerType.IPA, 10);
+        statistics.add(BeerType.IPA, 30);
+        statistics.add(BeerType.IPA, 50);
+
+        // when
+        statistics.move(BeerType.IPA, 10, 20);
+        statistics.remove(BeerType.IPA, 50);
+
+        // then
+        TypeStockStatisticsDTO ipa = statistics.get(BeerType.IPA);
+        assertThat(ipa.getBeers(), is(equalTo(2L)));
+        assertThat(ipa.getTotal(), is(equalTo(50L)));
+        assertThat(ipa.getMin(), is(equalTo(20)));
+        assertThat(ipa.getMax(), is(equalTo(30)));
+        assertThat(ipa.getAverage(), is(equalTo(25.0)));
+    }
+
+    @Test
+    void movesOfTheSameBeerAddUpInAnyOrder() {
+        // given
+        statistics.add(BeerType.LAGER, 10);
+
+        // when
+        statistics.move(BeerType.LAGER, 15, 12);
+        statistics.move(BeerType.LAGER, 10, 15);
+
+        // then
+        TypeStockStatisticsDTO lager = statistics.get(BeerType.LAGER);
+        assertThat(lager.getTotal(), is(equalTo(12L)));
+        assertThat(lager.getMin(), is(equalTo(12)));
+        assertThat(lager.getMax(), is(equalTo(12)));
+    }
+
+    @Test
+    void typeWithoutBeersHasNoMinMaxOrAverage() {
+        TypeStockStatisticsDTO stout = statistics.get(BeerType.STOUT);
+
+        assertThat(stout.getBeers(), is(equalTo(0L)));
+        assertThat(stout.getMin(), is(nullValue()));
+        assertThat(stout.getAverage(), is(nullValue()));
+    }
+
+    @Test
+    void reconcileCorrectsAndReportsOnlyDriftedTypes() {
+        // given
+        statistics.add(BeerType.IPA, 10);
+        statistics.add(BeerType.ALE, 7);
+
+        // when
+        Map<BeerType, TypeStockStatisticsDTO> drifted = statistics.reconcile(Arrays.asList(
+                count(BeerType.IPA, 10, 1),
+                count(BeerType.ALE, 9, 2)));
+
+        // then
+        assertThat(drifted, is(aMapWithSize(1)));
+        assertThat(drifted, hasKey(BeerType.ALE));
+        assertThat(drifted.get(BeerType.ALE).getTotal(), is(equalTo(7L)));
+        assertThat(statistics.get(BeerType.ALE).getTotal(), is(equalTo(18L)));
+        assertThat(statistics.get(BeerType.ALE).getMin(), is(equalTo(9)));
+        assertThat(statistics.reconcile(Arrays.asList(count(BeerType.IPA, 10, 1), count(BeerType.ALE, 9, 2))), is(anEmptyMap()));
+    }
+
+    static TypeQuantityCount count(BeerType type, int quantity, long beers) {
+        return new TypeQuantityCount() {
+            @Override
+            public BeerType getType() {
+                return type;
+            }
+
+            @Override
+            public Integer getQuantity() {
+                return quantity;
+            }
+
+            @Override
+            public Long getBeers() {
+                return beers;
+            }
+        };
+    }
+}
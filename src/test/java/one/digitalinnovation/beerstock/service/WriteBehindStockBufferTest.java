@@ -0,0 +1,184 @@
+package one.digitalinnovation.beerstock.service;
+
+import one.digitalinnovation.beerstock.config.BeerStockProperties;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.is;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyMap;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+public class WriteBehindStockBufferTest {
+
+    @TempDir
+    Path journalDirectory;
+
+    @Mock
+    private StockLedgerService stockLedger;
+
+    private BeerStockProperties.WriteBehind properties;
+
+    private WriteBehindStockBuffer buffer;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        properties = new BeerStockProperties.WriteBehind();
+        properties.setEnabled(true);
+        properties.setFlushInterval(Duration.ofHours(1));
+        properties.setJournalDirectory(journalDirectory);
+        buffer = new WriteBehindStockBuffer(properties, stockLedger);
+        buffer.start();
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        buffer.stop();
+    }
+
+    @Test
+    void deltasAreCoalescedPerBeer() throws IOException {
+        // given
+        buffer.submit(1L, 10);
+        buffer.submit(1L, -4);
+        buffer.submit(2L, 3);
+
+        // when
+        when(stockLedger.applyJournaledDeltas(eq(Map.of(1L, 6, 2L, 3)), anyLong())).thenReturn(Collections.emptySet());
+        buffer.flush();
+
+        // then
+        verify(stockLedger, times(1)).applyJournaledDeltas(anyMap(), anyLong());
+        assertThat(journalSegments(), is(equalTo(1L)));
+    }
+
+    @Test
+    void failedFlushKeepsTheDeltasForTheNextOne() throws IOException {
+        // given
+        buffer.submit(1L, 10);
+
+        // when
+        when(stockLedger.applyJournaledDeltas(eq(Map.of(1L, 10)), anyLong()))
+                .thenThrow(new IllegalStateException("database down"))
+                .thenReturn(Collections.emptySet());
+        assertThrows(IllegalStateException.class, () -> buffer.flush());
+        buffer.flush();
+
+        // then
+        verify(stockLedger, times(2)).applyJournaledDeltas(eq(Map.of(1L, 10)), anyLong());
+    }
+
+    @Test
+    void acknowledgedDeltasAreReplayedAfterACrash() throws Exception {
+        // given
+        buffer.submit(1L, 10);
+        buffer.submit(1L, 5);
+        WriteBehindStockBuffer restartedBuffer = new WriteBehindStockBuffer(properties, stockLedger);
+
+        // when
+        when(stockLedger.applyJournaledDeltas(eq(Map.of(1L, 15)), anyLong())).thenReturn(Collections.emptySet());
+        restartedBuffer.start();
+        restartedBuffer.stop();
+
+        // then
+        verify(stockLedger, times(1)).applyJournaledDeltas(eq(Map.of(1L, 15)), anyLong());
+    }
+
+    @Test
+    void shutdownDrainsPendingDeltas() throws Exception {
+        // given
+        buffer.submit(3L, -2);
+
+        // when
+        when(stockLedger.applyJournaledDeltas(eq(Map.of(3L, -2)), anyLong())).thenReturn(Collections.emptySet());
+        buffer.stop();
+
+        // then
+        verify(stockLedger, times(1)).applyJournaledDeltas(eq(Map.of(3L, -2)), anyLong());
+        assertThat(journalSegments(), is(equalTo(0L)));
+        buffer = new WriteBehindStockBuffer(properties, stockLedger);
+        buffer.start();
+    }
+
+    @Test
+    void segmentsAppliedBeforeACrashAreNotReplayed() throws Exception {
+        // given
+        buffer.submit(1L, 10);
+        Path crashedJournal = Files.createDirectory(journalDirectory.resolve("crashed"));
+        AtomicLong lastAppliedSegment = new AtomicLong(-1);
+        when(stockLedger.applyJournaledDeltas(eq(Map.of(1L, 10)), anyLong())).thenAnswer(invocation -> {
+            lastAppliedSegment.set(invocation.getArgument(1));
+            // what a crash right after the commit, before the segments are deleted, leaves on disk
+            copySegments(journalDirectory, crashedJournal);
+            return Collections.emptySet();
+        });
+        buffer.stop();
+        copySegments(crashedJournal, journalDirectory);
+
+        // when
+        when(stockLedger.lastAppliedJournalSegment()).thenReturn(lastAppliedSegment.get());
+        buffer = new WriteBehindStockBuffer(properties, stockLedger);
+        buffer.start();
+
+        // then
+        verify(stockLedger, times(1)).applyJournaledDeltas(anyMap(), anyLong());
+        assertThat(journalSegments(), is(equalTo(1L)));
+    }
+
+    @Test
+    void deltaSubmittedAfterTheFlusherStoppedIsAcceptedAndReplayed() throws Exception {
+        // given
+        buffer.submit(1L, 10);
+        properties.setFlushThreshold(1);
+        when(stockLedger.applyJournaledDeltas(eq(Map.of(1L, 10)), anyLong())).thenAnswer(invocation -> {
+            // arrives during the final flush, once the flusher no longer takes early flushes
+            buffer.submit(2L, 5);
+            return Collections.emptySet();
+        });
+        buffer.stop();
+
+        // when
+        when(stockLedger.applyJournaledDeltas(eq(Map.of(2L, 5)), anyLong())).thenReturn(Collections.emptySet());
+        buffer = new WriteBehindStockBuffer(properties, stockLedger);
+        buffer.start();
+
+        // then
+        verify(stockLedger, times(1)).applyJournaledDeltas(eq(Map.of(2L, 5)), anyLong());
+    }
+
+    private static void copySegments(Path from, Path to) throws IOException {
+        try (Stream<Path> segments = Files.list(from)) {
+            for (Path segment : (Iterable<Path>) segments.filter(Files::isRegularFile)::iterator) {
+                Files.copy(segment, to.resolve(segment.getFileName()), StandardCopyOption.REPLACE_EXISTING);
+            }
+        }
+    }
+
+    private long journalSegments() throws IOException {
+        try (Stream<Path> segments = Files.list(journalDirectory)) {
+            return segments.filter(Files::isRegularFile).count();
+        }
+    }
+}